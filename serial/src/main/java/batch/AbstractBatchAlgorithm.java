@@ -1,84 +1,538 @@
 package batch;
 
+import com.esotericsoftware.minlog.Log;
+import datamodel.CandidateBuffer;
+import datamodel.ConcurrentRelatedGeometries;
+import datamodel.EnvelopeStore;
 import datamodel.GeometryProfile;
+import datamodel.RasterFilter;
 import datamodel.RelatedGeometries;
 import datareader.AbstractReader;
+import datawriter.IResultWriter;
+import enums.Relation;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
 import utilities.IDocumentation;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
 public abstract class AbstractBatchAlgorithm implements IDocumentation {
-    
+
+    // number of streamed target geometries that are verified by a single task
+    protected static final int TARGET_BATCH_SIZE = 256;
+    // number of pending tasks per worker, bounding the memory of the parallel verification
+    private static final int TASKS_PER_WORKER = 4;
+    private static final VerificationTask POISON_PILL = results -> {};
+    private static final TargetBatch END_OF_TARGETS = new TargetBatch();
+
     protected final int datasetDelimiter;
+    protected int noOfThreads;
+    // whether the streamed target geometries are read, filtered and verified by separate threads
+    protected boolean pipelined;
+    // the order of the grid of the raster filter; 0 disables it
+    protected int rasterOrder;
 
     protected long indexingTime;
     protected long verificationTime;
 
     protected final GeometryProfile[] sourceData;
+    // has to be rebuilt by the algorithms that reorder sourceData
+    protected EnvelopeStore sourceEnvelopes;
+    // per-thread buffers for the candidates of a target geometry
+    protected final ThreadLocal<CandidateBuffer> candidateBuffers;
+    // per-thread lists of the filtered candidates of a target geometry
+    private final ThreadLocal<TIntArrayList> targetCandidates;
     protected final RelatedGeometries relations;
     protected final AbstractReader targetReader;
-    
+
     public AbstractBatchAlgorithm(int qPairs, AbstractReader sourceReader, AbstractReader targetReader) {
         sourceData = sourceReader.getGeometryProfiles();
-        
+        sourceEnvelopes = new EnvelopeStore(sourceData);
+
         relations = new RelatedGeometries(qPairs);
         datasetDelimiter = sourceData.length;
-        
+        noOfThreads = 1;
+        pipelined = false;
+        rasterOrder = 0;
+        candidateBuffers = ThreadLocal.withInitial(() -> new CandidateBuffer(datasetDelimiter));
+        targetCandidates = ThreadLocal.withInitial(TIntArrayList::new);
+
         this.targetReader = targetReader;
     }
 
     public AbstractBatchAlgorithm(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, String exportPath) {
         sourceData = sourceReader.getGeometryProfiles();
+        sourceEnvelopes = new EnvelopeStore(sourceData);
 
-        relations = new RelatedGeometries(qPairs, exportPath);
+        relations = new RelatedGeometries(qPairs, exportPath, sourceReader.getEntityNamespace(), targetReader.getEntityNamespace());
         datasetDelimiter = sourceData.length;
+        noOfThreads = 1;
+        pipelined = false;
+        rasterOrder = 0;
+        candidateBuffers = ThreadLocal.withInitial(() -> new CandidateBuffer(datasetDelimiter));
+        targetCandidates = ThreadLocal.withInitial(TIntArrayList::new);
 
         this.targetReader = targetReader;
     }
-    
+
     public void applyProcessing() {
         long time1 = System.currentTimeMillis();
         filtering();
+        if (0 < rasterOrder) {
+            // after filtering, as some algorithms reorder the source geometries
+            relations.setRasterFilter(new RasterFilter(rasterOrder, sourceData));
+        }
         long time2 = System.currentTimeMillis();
-        verification();
+        if (1 < noOfThreads || pipelined) {
+            parallelVerification();
+        } else {
+            verification();
+        }
         long time3 = System.currentTimeMillis();
         indexingTime = time2 - time1;
         verificationTime = time3 - time2;
     }
-    
+
     protected abstract void filtering();
-        
+
     public void printResults() {
         System.out.println(getResultsText());
     }
-    
+
     public long getIndexingTime() {
         return indexingTime;
     }
-    
+
+    public int getNoOfThreads() {
+        return noOfThreads;
+    }
+
     public RelatedGeometries getResults() {
         return relations;
     }
-    
+
     public String getResultsText() {
         StringBuilder sb = new StringBuilder();
         sb.append("Source geometries\t:\t").append(sourceData.length).append("\n");
         sb.append("Target geometries\t:\t").append(targetReader.getSize()).append("\n");
+        sb.append("Verification threads\t:\t").append(noOfThreads).append("\n");
         sb.append("Indexing time\t:\t").append(indexingTime).append("\n");
         sb.append("Verification time\t:\t").append(verificationTime).append("\n");
         sb.append(relations.print()).append("\n");
         return sb.toString();
     }
-    
+
     public int getSourceGeometries() {
         return sourceData.length;
     }
-    
+
     public int getTargetGeometries() {
         return targetReader.getSize();
     }
-    
+
     public long getVerificationTime() {
         return verificationTime;
     }
-    
+
+    /**
+     * Multi-threaded counterpart of verification(), used when more than one
+     * thread has been set. By default, it falls back to the sequential
+     * verification; algorithms whose verification decomposes into independent
+     * units override it and pass these units to verifyInParallel().
+     */
+    protected void parallelVerification() {
+        verification();
+    }
+
+    /**
+     * Enables the caching of prepared source geometries during verification.
+     * @param maxCachedPoints the maximum number of points of all cached geometries of a thread; 0 disables the cache
+     * @param minFrequency the number of candidate pairs of a source geometry, after which it is prepared
+     */
+    public void setPreparedGeometryCache(int maxCachedPoints, int minFrequency) {
+        relations.setPreparedGeometryCache(maxCachedPoints, minFrequency);
+    }
+
+    /**
+     * Enables the raster filter, which approximates every geometry by the cells
+     * of a Hilbert-ordered grid it intersects and covers, so as to classify
+     * many candidate pairs without verifying them.
+     * @param gridOrder the grid comprises 2^gridOrder cells per axis, up to RasterFilter.MAX_ORDER; 0 disables the filter
+     */
+    public void setRasterFilter(int gridOrder) {
+        rasterOrder = gridOrder;
+    }
+
+    /**
+     * Restricts the verification to the given relations, which may then be
+     * verified without computing the full intersection matrix of every pair.
+     * @param relationsOfInterest the relations to be detected; none means all of them
+     */
+    public void setRelationsOfInterest(Relation... relationsOfInterest) {
+        relations.setRelationsOfInterest(relationsOfInterest);
+    }
+
+    /**
+     * Sets the writer that exports the detected related pairs in the background.
+     * @param resultWriter the writer of the related pairs, e.g., an AsyncResultWriter; null disables the export
+     */
+    public void setResultWriter(IResultWriter resultWriter) {
+        relations.setResultWriter(resultWriter);
+    }
+
+    /**
+     * Enables the pipelined verification of the streamed target geometries:
+     * a thread reads and parses them, the calling thread retrieves their
+     * candidate matches and noOfThreads workers verify the candidate pairs,
+     * with bounded queues between them. It applies to the algorithms that
+     * stream the target dataset and implement filterTarget().
+     * @param pipelined true to overlap reading, filtering and verification
+     * @throws UnsupportedOperationException if the algorithm does not stream the target dataset
+     */
+    public void setPipelined(boolean pipelined) {
+        if (pipelined && !streamsTargets()) {
+            throw new UnsupportedOperationException(getMethodName() + " does not stream the target geometries, thus it cannot be pipelined");
+        }
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * Sets the number of worker threads used in the Verification step.
+     * @param noOfThreads the size of the worker pool; 1 means sequential verification
+     */
+    public void setNoOfThreads(int noOfThreads) {
+        this.noOfThreads = Math.max(1, noOfThreads);
+    }
+
     protected abstract void verification();
+
+    /**
+     * Runs the given tasks on a pool of noOfThreads workers. All workers
+     * verify their tasks into a shared ConcurrentRelatedGeometries, whose
+     * per-thread shards are merged into the overall results after the last
+     * task is done. The tasks are consumed lazily through a bounded queue, so
+     * that streamed inputs are never materialized as a whole.
+     *
+     * @param tasks the independent units of verification work
+     */
+    protected void verifyInParallel(Iterator<VerificationTask> tasks) {
+        final BlockingQueue<VerificationTask> queue = new ArrayBlockingQueue<>(TASKS_PER_WORKER * noOfThreads);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final ConcurrentRelatedGeometries sink = new ConcurrentRelatedGeometries(relations.getQualifyingPairs());
+        sink.copyConfiguration(relations);
+        final Thread[] workers = new Thread[noOfThreads];
+        for (int i = 0; i < noOfThreads; i++) {
+            workers[i] = new Thread(() -> {
+                try {
+                    VerificationTask task;
+                    while ((task = queue.take()) != POISON_PILL) {
+                        try {
+                            task.verify(sink);
+                        } catch (Throwable th) {
+                            // keep consuming tasks, so that the producer never blocks
+                            failure.compareAndSet(null, th);
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "verification-worker-" + i);
+            workers[i].start();
+        }
+
+        Throwable producerFailure = null;
+        try {
+            try {
+                while (tasks.hasNext()) {
+                    queue.put(tasks.next());
+                }
+            } catch (RuntimeException | Error ex) {
+                // stop the workers even if producing the tasks failed, so that none blocks forever
+                producerFailure = ex;
+            }
+            for (int i = 0; i < noOfThreads; i++) {
+                queue.put(POISON_PILL);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            sink.close();
+        } catch (InterruptedException ex) {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            Thread.currentThread().interrupt();
+            final IllegalStateException interruption = new IllegalStateException("Parallel verification was interrupted", ex);
+            if (producerFailure == null) {
+                throw interruption;
+            }
+            producerFailure.addSuppressed(interruption);
+        }
+
+        if (producerFailure instanceof Error) {
+            throw (Error) producerFailure;
+        }
+        if (producerFailure != null) {
+            throw (RuntimeException) producerFailure;
+        }
+
+        if (failure.get() != null) {
+            Log.error("A verification task failed", failure.get());
+            throw new IllegalStateException("Parallel verification failed", failure.get());
+        }
+
+        relations.merge(sink);
+    }
+
+    /**
+     * Retrieves the candidate matches of a single streamed target geometry,
+     * i.e., the indexed source geometries whose envelopes intersect its own.
+     * It is implemented by the algorithms that read the target dataset on the
+     * fly and may be invoked by several threads concurrently.
+     *
+     * @param targetProfile the target geometry
+     * @param candidates the list that receives the ids of the candidate source geometries
+     */
+    protected void filterTarget(GeometryProfile targetProfile, TIntList candidates) {
+        throw new UnsupportedOperationException(getMethodName() + " does not filter streamed target geometries");
+    }
+
+    /**
+     * @return true if the algorithm reads the target dataset on the fly, through
+     * verifyTargetsInParallel(), and implements filterTarget(), so that it can be pipelined
+     */
+    protected boolean streamsTargets() {
+        return false;
+    }
+
+    /**
+     * Verifies a single streamed target geometry against its candidate matches.
+     *
+     * @param targetId the id of the target geometry
+     * @param targetProfile the target geometry
+     * @param results the buffer that receives the detected relations
+     */
+    protected void verifyTarget(int targetId, GeometryProfile targetProfile, RelatedGeometries results) {
+        final TIntArrayList candidates = targetCandidates.get();
+        candidates.resetQuick();
+        filterTarget(targetProfile, candidates);
+        for (int i = 0; i < candidates.size(); i++) {
+            final int candidateMatchId = candidates.get(i);
+            results.verifyRelations(candidateMatchId, targetId, sourceData[candidateMatchId].getGeometry(), targetProfile.getGeometry());
+        }
+    }
+
+    /**
+     * Parallel verification of the streamed target geometries: the calling
+     * thread reads them in batches of TARGET_BATCH_SIZE, which are verified
+     * through verifyTarget() by the worker threads. In pipelined mode, the
+     * batches are read by a separate thread and the calling thread filters
+     * them, so that the workers only verify the candidate pairs.
+     */
+    protected void verifyTargetsInParallel() {
+        try {
+            if (pipelined) {
+                verifyTargetsInPipeline();
+            } else {
+                verifyInParallel(new TargetBatchIterator());
+            }
+        } finally {
+            targetReader.close();
+        }
+    }
+
+    private void verifyTargetsInPipeline() {
+        final BlockingQueue<TargetBatch> parsedBatches = new ArrayBlockingQueue<>(TASKS_PER_WORKER * noOfThreads);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread parser = new Thread(() -> {
+            try {
+                final TargetBatchReader reader = new TargetBatchReader();
+                TargetBatch batch;
+                while ((batch = reader.read()) != null) {
+                    parsedBatches.put(batch);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable th) {
+                failure.compareAndSet(null, th);
+            }
+
+            try {
+                parsedBatches.put(END_OF_TARGETS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }, "target-parser");
+        parser.setDaemon(true);
+        parser.start();
+
+        try {
+            verifyInParallel(new FilteredBatchIterator(parsedBatches));
+        } finally {
+            // unblocks the parser if the filtering failed before consuming all batches
+            parser.interrupt();
+            try {
+                parser.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (failure.get() != null) {
+            Log.error("Reading the target geometries failed", failure.get());
+            throw new IllegalStateException("Reading the target geometries failed", failure.get());
+        }
+    }
+
+    /**
+     * A batch of consecutive streamed target geometries, with their ids.
+     */
+    private static class TargetBatch {
+
+        final TIntList targetIds = new TIntArrayList(TARGET_BATCH_SIZE);
+        final List<GeometryProfile> targetProfiles = new ArrayList<>(TARGET_BATCH_SIZE);
+    }
+
+    private class TargetBatchReader {
+
+        private int counter = 0;
+
+        // target ids are assigned exactly as in the sequential verification
+        TargetBatch read() {
+            final TargetBatch batch = new TargetBatch();
+            while (batch.targetProfiles.size() < TARGET_BATCH_SIZE && targetReader.hasNext()) {
+                counter++;
+                GeometryProfile profile = targetReader.next();
+                if (profile == null) {
+                    continue;
+                }
+
+                batch.targetIds.add(counter);
+                batch.targetProfiles.add(profile);
+            }
+
+            return batch.targetProfiles.isEmpty() ? null : batch;
+        }
+    }
+
+    /**
+     * The filtering stage of the pipeline: it turns every parsed batch into a
+     * task that verifies the candidate pairs of its target geometries.
+     */
+    private class FilteredBatchIterator implements Iterator<VerificationTask> {
+
+        private boolean exhausted;
+        private final BlockingQueue<TargetBatch> parsedBatches;
+        private VerificationTask nextBatch;
+
+        FilteredBatchIterator(BlockingQueue<TargetBatch> parsedBatches) {
+            exhausted = false;
+            nextBatch = null;
+            this.parsedBatches = parsedBatches;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextBatch == null && !exhausted) {
+                final TargetBatch batch;
+                try {
+                    batch = parsedBatches.take();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Parallel verification was interrupted", ex);
+                }
+
+                exhausted = batch == END_OF_TARGETS;
+                if (!exhausted) {
+                    nextBatch = filterBatch(batch);
+                }
+            }
+            return nextBatch != null;
+        }
+
+        @Override
+        public VerificationTask next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final VerificationTask batch = nextBatch;
+            nextBatch = null;
+            return batch;
+        }
+
+        private VerificationTask filterBatch(TargetBatch batch) {
+            final int noOfTargets = batch.targetProfiles.size();
+            final int[] candidateOffsets = new int[noOfTargets + 1];
+            final TIntList candidates = new TIntArrayList();
+            for (int i = 0; i < noOfTargets; i++) {
+                filterTarget(batch.targetProfiles.get(i), candidates);
+                candidateOffsets[i + 1] = candidates.size();
+            }
+
+            return results -> {
+                for (int i = 0; i < noOfTargets; i++) {
+                    final int targetId = batch.targetIds.get(i);
+                    final GeometryProfile targetProfile = batch.targetProfiles.get(i);
+                    for (int j = candidateOffsets[i]; j < candidateOffsets[i + 1]; j++) {
+                        final int candidateMatchId = candidates.get(j);
+                        results.verifyRelations(candidateMatchId, targetId, sourceData[candidateMatchId].getGeometry(), targetProfile.getGeometry());
+                    }
+                }
+            };
+        }
+    }
+
+    private class TargetBatchIterator implements Iterator<VerificationTask> {
+
+        private boolean exhausted;
+        private final TargetBatchReader reader;
+        private VerificationTask nextBatch;
+
+        TargetBatchIterator() {
+            exhausted = false;
+            nextBatch = null;
+            reader = new TargetBatchReader();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextBatch == null && !exhausted) {
+                nextBatch = readBatch();
+                exhausted = nextBatch == null;
+            }
+            return nextBatch != null;
+        }
+
+        @Override
+        public VerificationTask next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final VerificationTask batch = nextBatch;
+            nextBatch = null;
+            return batch;
+        }
+
+        private VerificationTask readBatch() {
+            final TargetBatch batch = reader.read();
+            if (batch == null) {
+                return null;
+            }
+
+            return results -> {
+                for (int i = 0; i < batch.targetProfiles.size(); i++) {
+                    verifyTarget(batch.targetIds.get(i), batch.targetProfiles.get(i), results);
+                }
+            };
+        }
+    }
 }
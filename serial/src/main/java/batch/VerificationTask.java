@@ -0,0 +1,17 @@
+package batch;
+
+import datamodel.RelatedGeometries;
+
+/**
+ * A self-contained unit of verification work (e.g., a batch of target
+ * geometries, a tile or a partition) that can be executed by any worker of
+ * the parallel verification.
+ */
+public interface VerificationTask {
+
+    /**
+     * Verifies all candidate pairs of the current unit.
+     * @param results the thread-safe sink that receives the detected relations
+     */
+    void verify(RelatedGeometries results);
+}
@@ -1,35 +1,41 @@
 package batch.partitionbased;
 
 import batch.AbstractBatchAlgorithm;
+import batch.VerificationTask;
+import batch.planesweep.sweepstructure.IntervalSweep;
 import batch.planesweep.sweepstructure.ListSweep;
 import batch.planesweep.sweepstructure.StripedSweep;
 import batch.planesweep.sweepstructure.SweepStructure;
+import datamodel.EnvelopeStore;
 import datamodel.GeometryProfile;
+import datamodel.RelatedGeometries;
 import datareader.AbstractReader;
 import enums.PlaneSweepStructure;
+import gnu.trove.TIntCollection;
 import gnu.trove.iterator.TIntIterator;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
-import gnu.trove.set.TIntSet;
 import org.apache.jena.atlas.json.JsonArray;
 import org.locationtech.jts.geom.Envelope;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import org.locationtech.jts.geom.Geometry;
+import java.util.List;
 
 public class PBSM extends AbstractBatchAlgorithm {
 
-    private final int tileDimX;
-    private final int tileDimY;
+    protected int tileDimX;
+    protected int tileDimY;
 
-    private double coverXWidth;
-    private double coverYWidth;
+    protected double coverXWidth;
+    protected double coverYWidth;
 
-    private Envelope cover;
-    private final GeometryProfile[] targetData;
-    private final PlaneSweepStructure planeSweepStructure;
-    private TIntList[][] sourcePartitions;
-    private TIntList[][] targetPartitions;
+    protected Envelope cover;
+    protected final GeometryProfile[] targetData;
+    protected EnvelopeStore targetEnvelopes;
+    protected final PlaneSweepStructure planeSweepStructure;
+    protected TIntList[][] sourcePartitions;
+    protected TIntList[][] targetPartitions;
     
     public PBSM(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, PlaneSweepStructure psStructure) {
         this(qPairs, 6, 6, sourceReader, targetReader, psStructure);
@@ -67,12 +73,12 @@ public class PBSM extends AbstractBatchAlgorithm {
         Arrays.sort(data, new GeometryComparator());
 
         for (int i = 0; i < data.length; i++) {
-            Envelope g = data[i].getGeometry().getEnvelopeInternal();
+            Envelope g = data[i].getEnvelope();
 
-            int yMax = (int) Math.ceil((g.getMaxY() - cover.getMinY()) / coverYWidth);
-            int yMin = (int) Math.floor((g.getMinY() - cover.getMinY()) / coverYWidth);
-            int xMax = (int) Math.ceil((g.getMaxX() - cover.getMinX()) / coverXWidth);
-            int xMin = (int) Math.floor((g.getMinX() - cover.getMinX()) / coverXWidth);
+            int yMax = getPartition(Math.ceil((g.getMaxY() - cover.getMinY()) / coverYWidth), tileDimY);
+            int yMin = getPartition(Math.floor((g.getMinY() - cover.getMinY()) / coverYWidth), tileDimY);
+            int xMax = getPartition(Math.ceil((g.getMaxX() - cover.getMinX()) / coverXWidth), tileDimX);
+            int xMin = getPartition(Math.floor((g.getMinX() - cover.getMinX()) / coverXWidth), tileDimX);
 
             for (int x = xMin; x <= xMax; x++) {
                 for (int y = yMin; y <= yMax; y++) {
@@ -82,8 +88,14 @@ public class PBSM extends AbstractBatchAlgorithm {
         }
     }
 
+    /// @return the given partition index, clamped to [0, maxId], as the rounding of the
+    /// coordinates on the border of the cover may exceed the grid
+    private static int getPartition(double index, int maxId) {
+        return Math.max(0, Math.min(maxId, (int) index));
+    }
+
     /// Combines the MBRS of two geometries.
-    private Envelope combineMBR(Envelope g1, Envelope g2) {
+    protected Envelope combineMBR(Envelope g1, Envelope g2) {
         double maxx = Math.max(g1.getMaxX(), g2.getMaxX());
         double minx = Math.min(g1.getMinX(), g2.getMinX());
         double maxy = Math.max(g1.getMaxY(), g2.getMaxY());
@@ -92,10 +104,10 @@ public class PBSM extends AbstractBatchAlgorithm {
     }
 
     /// Computes the MBR of given geometries.
-    private Envelope computeCover(GeometryProfile[] data) {
-        Envelope localCover = data[0].getGeometry().getEnvelopeInternal();
+    protected Envelope computeCover(GeometryProfile[] data) {
+        Envelope localCover = data[0].getEnvelope();
         for (int i = 1; i < data.length; ++i) {
-            Envelope r = data[i].getGeometry().getEnvelopeInternal();
+            Envelope r = data[i].getEnvelope();
             localCover = combineMBR(localCover, r);
         }
         return localCover;
@@ -122,6 +134,10 @@ public class PBSM extends AbstractBatchAlgorithm {
 
         assignToPartition(sourceData, sourcePartitions);
         assignToPartition(targetData, targetPartitions);
+
+        // the partitioning sorts both datasets
+        sourceEnvelopes = new EnvelopeStore(sourceData);
+        targetEnvelopes = new EnvelopeStore(targetData);
     }
 
     @Override
@@ -130,33 +146,91 @@ public class PBSM extends AbstractBatchAlgorithm {
     public void verification() {
         for (int i = 0; i <= tileDimX; i++) {
             for (int j = 0; j <= tileDimY; j++) {
-                verifyPartition(i, j);
+                verifyPartition(i, j, relations);
+            }
+        }
+        relations.close();
+    }
+
+    @Override
+    /// Every partition is verified by a separate task, as the reference point
+    /// technique guarantees that each pair is reported by a single partition.
+    protected void parallelVerification() {
+        final List<VerificationTask> tasks = new ArrayList<>();
+        for (int i = 0; i <= tileDimX; i++) {
+            for (int j = 0; j <= tileDimY; j++) {
+                final int xId = i;
+                final int yId = j;
+                tasks.add(results -> verifyPartition(xId, yId, results));
             }
         }
+        verifyInParallel(tasks.iterator());
         relations.close();
     }
 
-    private void verifyPair(int partitionXId, int partitionYId, int sourceId, int targetId) {
-        Geometry source = sourceData[sourceId].getGeometry();
-        Geometry target = targetData[targetId].getGeometry();
-        if (target.getEnvelopeInternal().intersects(source.getEnvelopeInternal())) {
+    private void verifyPair(int partitionXId, int partitionYId, int sourceId, int targetId, RelatedGeometries results) {
+        if (sourceEnvelopes.intersects(sourceId, targetEnvelopes, targetId)) {
             //reference point technique
-            int xPartition = (int) Math.floor((Math.max(source.getEnvelopeInternal().getMinX(), target.getEnvelopeInternal().getMinX()) - cover.getMinX()) / coverXWidth);
-            int yPartition = (int) Math.ceil((Math.min(source.getEnvelopeInternal().getMaxY(), target.getEnvelopeInternal().getMaxY()) - cover.getMinY()) / coverYWidth);
+            int xPartition = getPartition(Math.floor((Math.max(sourceEnvelopes.getMinX(sourceId), targetEnvelopes.getMinX(targetId)) - cover.getMinX()) / coverXWidth), tileDimX);
+            int yPartition = getPartition(Math.ceil((Math.min(sourceEnvelopes.getMaxY(sourceId), targetEnvelopes.getMaxY(targetId)) - cover.getMinY()) / coverYWidth), tileDimY);
             if (partitionXId == xPartition && partitionYId == yPartition) {
-                relations.verifyRelations(sourceId, targetId, source, target);
+                results.verifyRelations(sourceId, targetId, sourceData[sourceId].getGeometry(), targetData[targetId].getGeometry());
             }
         }
     }
 
-    private void verifyPartition(int xId, int yId) {
-        final SweepStructure sweepStructure = planeSweepStructure == PlaneSweepStructure.LIST_SWEEP
-                ? new ListSweep()
-                : new StripedSweep();
-        sweepStructure.setThetas(sourceData);
-        
+    /// Creates the sweep structure of a partition, with strips as wide as its source geometries on average,
+    /// over the y-range of both its source and its target geometries.
+    protected SweepStructure createSweepStructure(TIntList sourcePartition, TIntList targetPartition) {
+        if (planeSweepStructure == PlaneSweepStructure.LIST_SWEEP) {
+            return new ListSweep();
+        }
+        if (planeSweepStructure == PlaneSweepStructure.INTERVAL_SWEEP) {
+            return new IntervalSweep();
+        }
+
+        double totalWidth = 0;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < sourcePartition.size(); i++) {
+            final int sourceId = sourcePartition.get(i);
+            // empty geometries have inverted envelopes, thus no width and no y-range
+            if (sourceEnvelopes.getMaxX(sourceId) < sourceEnvelopes.getMinX(sourceId)) {
+                continue;
+            }
+
+            totalWidth += sourceEnvelopes.getMaxX(sourceId) - sourceEnvelopes.getMinX(sourceId);
+            minY = Math.min(minY, sourceEnvelopes.getMinY(sourceId));
+            maxY = Math.max(maxY, sourceEnvelopes.getMaxY(sourceId));
+        }
+        for (int i = 0; i < targetPartition.size(); i++) {
+            final int targetId = targetPartition.get(i);
+            if (targetEnvelopes.getMaxX(targetId) < targetEnvelopes.getMinX(targetId)) {
+                continue;
+            }
+
+            minY = Math.min(minY, targetEnvelopes.getMinY(targetId));
+            maxY = Math.max(maxY, targetEnvelopes.getMaxY(targetId));
+        }
+
+        if (maxY < minY) {
+            // the partition comprises only empty geometries, which intersect nothing
+            return new ListSweep();
+        }
+
+        final SweepStructure sweepStructure = new StripedSweep();
+        sweepStructure.setThetas(totalWidth / sourcePartition.size(), minY, maxY);
+        return sweepStructure;
+    }
+
+    protected void verifyPartition(int xId, int yId, RelatedGeometries results) {
         final TIntList sourcePartition = sourcePartitions[xId][yId];
         final TIntList targetPartition = targetPartitions[xId][yId];
+        if (sourcePartition.isEmpty() || targetPartition.isEmpty()) {
+            return;
+        }
+
+        final SweepStructure sweepStructure = createSweepStructure(sourcePartition, targetPartition);
 
         int sourceIndex = 0;
         int sourceEndIndex = sourcePartition.size();
@@ -171,14 +245,14 @@ public class PBSM extends AbstractBatchAlgorithm {
 
             GeometryProfile source = sourceData[sourcePartition.get(sourceIndex)];
             GeometryProfile candidate = targetData[targetPartition.get(targetIndex)];
-            if (candidate == null || source.getMaxX() < candidate.getMinX()) {
+            if (candidate == null || sourceEnvelopes.getMaxX(sourcePartition.get(sourceIndex)) < targetEnvelopes.getMinX(targetPartition.get(targetIndex))) {
                 sweepStructure.removeExpired(source);
 
-                final TIntSet partialCandidates = sweepStructure.reportOverlap(source, sourcePartition.get(sourceIndex));
+                final TIntCollection partialCandidates = sweepStructure.reportOverlap(source, sourcePartition.get(sourceIndex));
                 final TIntIterator intIterator = partialCandidates.iterator();
                 while (intIterator.hasNext()) {
                     int candidateMatchId = intIterator.next();
-                    verifyPair(xId, yId, sourcePartition.get(sourceIndex), candidateMatchId);
+                    verifyPair(xId, yId, sourcePartition.get(sourceIndex), candidateMatchId, results);
                 }
                 sourceIndex++;
             } else {
@@ -190,11 +264,11 @@ public class PBSM extends AbstractBatchAlgorithm {
         while (sourceIndex < sourceEndIndex) {
             GeometryProfile source = sourceData[sourcePartition.get(sourceIndex)];
             sweepStructure.removeExpired(source);
-            final TIntSet partialCandidates = sweepStructure.reportOverlap(source, sourcePartition.get(sourceIndex));
+            final TIntCollection partialCandidates = sweepStructure.reportOverlap(source, sourcePartition.get(sourceIndex));
             final TIntIterator intIterator = partialCandidates.iterator();
             while (intIterator.hasNext()) {
                 int candidateMatchId = intIterator.next();
-                verifyPair(xId, yId, sourcePartition.get(sourceIndex), candidateMatchId);
+                verifyPair(xId, yId, sourcePartition.get(sourceIndex), candidateMatchId, results);
             }
             sourceIndex++;
         }
@@ -0,0 +1,115 @@
+package batch.partitionbased;
+
+import batch.VerificationTask;
+import datamodel.GeometryProfile;
+import datareader.AbstractReader;
+import enums.PlaneSweepStructure;
+import org.locationtech.jts.geom.Envelope;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PBSM with a grid that is sized according to the input data and partitions
+ * that are verified in parallel, from the largest to the smallest one. The
+ * grid comprises enough partitions for every thread to receive several of
+ * them and for every partition to contain a limited number of geometries,
+ * while its cells are kept wider than the average geometry, so that few
+ * geometries are replicated in multiple partitions.
+ */
+public class ParallelPBSM extends PBSM {
+
+    // the number of source and target geometries that a partition should contain
+    private static final int GEOMETRIES_PER_PARTITION = 1000;
+    // the minimum number of partitions per thread, for load balancing
+    private static final int PARTITIONS_PER_THREAD = 8;
+    // the maximum number of partitions per axis
+    private static final int MAX_TILES_PER_AXIS = 1024;
+
+    public ParallelPBSM(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, PlaneSweepStructure psStructure) {
+        this(qPairs, sourceReader, targetReader, psStructure, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelPBSM(int qPairs, AbstractReader sourceReader, AbstractReader targetReader,
+                        PlaneSweepStructure psStructure, int noOfThreads) {
+        super(qPairs, 1, 1, sourceReader, targetReader, psStructure);
+        setNoOfThreads(noOfThreads);
+    }
+
+    public ParallelPBSM(int qPairs, AbstractReader sourceReader, AbstractReader targetReader,
+                        PlaneSweepStructure psStructure, String exportPath) {
+        super(qPairs, 1, 1, sourceReader, targetReader, psStructure, exportPath);
+        setNoOfThreads(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void filtering() {
+        setTileDimensions();
+        super.filtering();
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel PBSM";
+    }
+
+    @Override
+    protected void parallelVerification() {
+        verification();
+    }
+
+    /// Sizes the grid based on the number and the mean extent of all geometries, as well as the number of threads.
+    private void setTileDimensions() {
+        final Envelope dataCover = combineMBR(computeCover(sourceData), computeCover(targetData));
+
+        double totalWidth = 0;
+        double totalHeight = 0;
+        for (GeometryProfile[] data : new GeometryProfile[][]{sourceData, targetData}) {
+            for (GeometryProfile profile : data) {
+                final Envelope envelope = profile.getEnvelope();
+                totalWidth += envelope.getWidth();
+                totalHeight += envelope.getHeight();
+            }
+        }
+        final int noOfGeometries = sourceData.length + targetData.length;
+        final double meanWidth = totalWidth / noOfGeometries;
+        final double meanHeight = totalHeight / noOfGeometries;
+
+        final int noOfPartitions = Math.max(noOfGeometries / GEOMETRIES_PER_PARTITION, PARTITIONS_PER_THREAD * noOfThreads);
+        final double aspectRatio = 0 < dataCover.getHeight() ? dataCover.getWidth() / dataCover.getHeight() : 1;
+        tileDimX = getTiles(Math.sqrt(noOfPartitions * aspectRatio), dataCover.getWidth(), meanWidth);
+        tileDimY = getTiles(noOfPartitions / (double) tileDimX, dataCover.getHeight(), meanHeight);
+    }
+
+    /// @return the number of partitions along an axis, keeping them at least twice as wide as the mean geometry
+    private static int getTiles(double tiles, double coverExtent, double meanExtent) {
+        int noOfTiles = (int) Math.min(MAX_TILES_PER_AXIS, Math.ceil(tiles));
+        if (0 < meanExtent) {
+            noOfTiles = (int) Math.min(noOfTiles, coverExtent / (2 * meanExtent));
+        }
+        return Math.max(1, noOfTiles);
+    }
+
+    @Override
+    /// Verifies the non-empty partitions in parallel, in decreasing number of candidate pairs.
+    public void verification() {
+        final List<int[]> partitions = new ArrayList<>();
+        for (int i = 0; i <= tileDimX; i++) {
+            for (int j = 0; j <= tileDimY; j++) {
+                if (!sourcePartitions[i][j].isEmpty() && !targetPartitions[i][j].isEmpty()) {
+                    partitions.add(new int[]{i, j});
+                }
+            }
+        }
+        partitions.sort((p1, p2) -> Long.compare(getNoOfPairs(p2), getNoOfPairs(p1)));
+
+        verifyInParallel(partitions.stream()
+                .map(partition -> (VerificationTask) results -> verifyPartition(partition[0], partition[1], results))
+                .iterator());
+        relations.close();
+    }
+
+    private long getNoOfPairs(int[] partition) {
+        return (long) sourcePartitions[partition[0]][partition[1]].size() * targetPartitions[partition[0]][partition[1]].size();
+    }
+}
@@ -0,0 +1,234 @@
+package batch.planesweep;
+
+import batch.AbstractBatchAlgorithm;
+import batch.VerificationTask;
+import datamodel.EnvelopeStore;
+import datamodel.GeometryProfile;
+import datamodel.RelatedGeometries;
+import datareader.AbstractReader;
+import org.apache.jena.atlas.json.JsonArray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plane sweep without a sweep structure, i.e., the forward scan of Brinkhoff
+ * et al.: both datasets are sorted by the minimum x of their envelopes and
+ * are scanned in an interleaved way; the next geometry in this order is
+ * compared with the geometries of the other dataset that start between its
+ * own minimum and maximum x. Every pair with overlapping x-extents is thus
+ * considered exactly once, by the geometry that starts first, and is verified
+ * if the envelopes intersect on the y-axis, too.
+ *
+ * Unlike the Plane Sweep, it sorts permutations of the ids over primitive
+ * arrays of envelopes, rather than the geometry profiles themselves, so the
+ * geometries keep their original ids.
+ */
+public class ForwardScanPlaneSweep extends AbstractBatchAlgorithm {
+
+    // number of sorted geometries whose forward scans form a single task of the parallel verification
+    private static final int SCAN_BATCH_SIZE = 1024;
+
+    protected double[] sortedSourceMinX;
+    protected double[] sortedTargetMinX;
+    protected int[] sourceOrder;
+    protected int[] targetOrder;
+    protected final GeometryProfile[] targetData;
+    protected EnvelopeStore targetEnvelopes;
+
+    public ForwardScanPlaneSweep(int qPairs, AbstractReader sourceReader, AbstractReader targetReader) {
+        super(qPairs, sourceReader, targetReader);
+
+        targetData = targetReader.getGeometryProfiles();
+    }
+
+    public ForwardScanPlaneSweep(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, String exportPath) {
+        super(qPairs, sourceReader, targetReader, exportPath);
+
+        targetData = targetReader.getGeometryProfiles();
+    }
+
+    @Override
+    protected void filtering() {
+        targetEnvelopes = new EnvelopeStore(targetData);
+        sourceOrder = sortByMinX(sourceEnvelopes);
+        targetOrder = sortByMinX(targetEnvelopes);
+        sortedSourceMinX = getSortedMinX(sourceEnvelopes, sourceOrder);
+        sortedTargetMinX = getSortedMinX(targetEnvelopes, targetOrder);
+    }
+
+    /**
+     * @return the first position of the given sorted array with a value
+     * larger than (or equal to, if inclusive) the given key
+     */
+    private static int getFirstPosition(double[] sortedValues, double key, boolean inclusive) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (sortedValues[middle] < key || (!inclusive && sortedValues[middle] == key)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public String getMethodConfiguration() {
+        return null;
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return null;
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Forward Scan Plane Sweep";
+    }
+
+    @Override
+    public String getMethodParameters() {
+        return null;
+    }
+
+    @Override
+    public JsonArray getParameterConfiguration() {
+        return null;
+    }
+
+    @Override
+    public String getParameterDescription(int parameterId) {
+        return null;
+    }
+
+    @Override
+    public String getParameterName(int parameterId) {
+        return null;
+    }
+
+    private static double[] getSortedMinX(EnvelopeStore envelopes, int[] order) {
+        final double[] sortedMinX = new double[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedMinX[i] = envelopes.getMinX(order[i]);
+        }
+        return sortedMinX;
+    }
+
+    /**
+     * Every sorted geometry scans the geometries of the other dataset that
+     * it precedes, i.e., those starting after it (sources precede targets
+     * with the same minimum x), so the scans are independent of each other
+     * and batches of them are verified by different threads.
+     */
+    @Override
+    protected void parallelVerification() {
+        final List<VerificationTask> tasks = new ArrayList<>();
+        for (int i = 0; i < sourceOrder.length; i += SCAN_BATCH_SIZE) {
+            final int from = i;
+            final int to = Math.min(sourceOrder.length, i + SCAN_BATCH_SIZE);
+            tasks.add(results -> {
+                for (int position = from; position < to; position++) {
+                    final int sourceId = sourceOrder[position];
+                    scanTargets(sourceId, getFirstPosition(sortedTargetMinX, sourceEnvelopes.getMinX(sourceId), true), results);
+                }
+            });
+        }
+        for (int i = 0; i < targetOrder.length; i += SCAN_BATCH_SIZE) {
+            final int from = i;
+            final int to = Math.min(targetOrder.length, i + SCAN_BATCH_SIZE);
+            tasks.add(results -> {
+                for (int position = from; position < to; position++) {
+                    final int targetId = targetOrder[position];
+                    scanSources(targetId, getFirstPosition(sortedSourceMinX, targetEnvelopes.getMinX(targetId), false), results);
+                }
+            });
+        }
+
+        verifyInParallel(tasks.iterator());
+        relations.close();
+    }
+
+    /**
+     * Verifies the given target geometry against the sorted source geometries
+     * from the given position on that start before its maximum x.
+     */
+    private void scanSources(int targetId, int firstPosition, RelatedGeometries results) {
+        final double maxX = targetEnvelopes.getMaxX(targetId);
+        for (int position = firstPosition; position < sourceOrder.length && sortedSourceMinX[position] <= maxX; position++) {
+            final int sourceId = sourceOrder[position];
+            if (sourceEnvelopes.intersects(sourceId, targetEnvelopes, targetId)) {
+                results.verifyRelations(sourceId, targetId, sourceData[sourceId].getGeometry(), targetData[targetId].getGeometry());
+            }
+        }
+    }
+
+    /**
+     * Verifies the given source geometry against the sorted target geometries
+     * from the given position on that start before its maximum x.
+     */
+    private void scanTargets(int sourceId, int firstPosition, RelatedGeometries results) {
+        final double maxX = sourceEnvelopes.getMaxX(sourceId);
+        for (int position = firstPosition; position < targetOrder.length && sortedTargetMinX[position] <= maxX; position++) {
+            final int targetId = targetOrder[position];
+            if (sourceEnvelopes.intersects(sourceId, targetEnvelopes, targetId)) {
+                results.verifyRelations(sourceId, targetId, sourceData[sourceId].getGeometry(), targetData[targetId].getGeometry());
+            }
+        }
+    }
+
+    /**
+     * Sorts the ids of the given envelopes by their minimum x with parallel
+     * sorts of primitive arrays: the minimum x of every envelope is replaced
+     * by its rank among the sorted values and the ids are sorted through keys
+     * that hold the rank in their high 32 bits and the id in the low ones.
+     *
+     * @return the ids of the envelopes in ascending order of their minimum x
+     */
+    private static int[] sortByMinX(EnvelopeStore envelopes) {
+        final int size = envelopes.size();
+        final double[] sortedMinX = new double[size];
+        for (int i = 0; i < size; i++) {
+            sortedMinX[i] = envelopes.getMinX(i);
+        }
+        Arrays.parallelSort(sortedMinX);
+
+        final long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            final long rank = Arrays.binarySearch(sortedMinX, envelopes.getMinX(i));
+            keys[i] = (rank << 32) | i;
+        }
+        Arrays.parallelSort(keys);
+
+        final int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * The interleaved scan: the next geometry in the order of minimum x scans
+     * the geometries of the other dataset that have not been passed yet.
+     */
+    @Override
+    protected void verification() {
+        int sourcePosition = 0;
+        int targetPosition = 0;
+        while (sourcePosition < sourceOrder.length && targetPosition < targetOrder.length) {
+            if (sortedSourceMinX[sourcePosition] <= sortedTargetMinX[targetPosition]) {
+                scanTargets(sourceOrder[sourcePosition], targetPosition, relations);
+                sourcePosition++;
+            } else {
+                scanSources(targetOrder[targetPosition], sourcePosition, relations);
+                targetPosition++;
+            }
+        }
+
+        relations.close();
+    }
+}
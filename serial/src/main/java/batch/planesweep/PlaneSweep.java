@@ -1,30 +1,44 @@
 package batch.planesweep;
 
 import batch.AbstractBatchAlgorithm;
+import batch.VerificationTask;
+import batch.planesweep.sweepstructure.IntervalSweep;
 import batch.planesweep.sweepstructure.ListSweep;
 import batch.planesweep.sweepstructure.StripedSweep;
 import batch.planesweep.sweepstructure.SweepStructure;
+import datamodel.EnvelopeStore;
 import datamodel.GeometryProfile;
+import datamodel.RelatedGeometries;
 import datareader.AbstractReader;
 import enums.Axis;
 import enums.PlaneSweepStructure;
+import gnu.trove.TIntCollection;
 import gnu.trove.iterator.TIntIterator;
-import gnu.trove.set.TIntSet;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
 import org.apache.jena.atlas.json.JsonArray;
 import utilities.quicksort.QuickSort;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class PlaneSweep extends AbstractBatchAlgorithm {
 
+    // number of slabs per thread in the parallel verification, balancing the load of the threads
+    private static final int SLABS_PER_THREAD = 4;
+
     protected final GeometryProfile[] targetData;
+    protected EnvelopeStore targetEnvelopes;
     protected final QuickSort quickSort;
     protected final SweepStructure sweepStructure;
+    protected final PlaneSweepStructure planeSweepStructure;
 
     public PlaneSweep(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, PlaneSweepStructure planeSweepStructure) {
         super(qPairs, sourceReader, targetReader);
 
-        this.sweepStructure = planeSweepStructure == PlaneSweepStructure.LIST_SWEEP
-                ? new ListSweep()
-                : new StripedSweep();
+        this.planeSweepStructure = planeSweepStructure;
+        this.sweepStructure = createSweepStructure(planeSweepStructure);
 
         this.quickSort = new QuickSort();
         
@@ -35,15 +49,126 @@ public class PlaneSweep extends AbstractBatchAlgorithm {
                       PlaneSweepStructure planeSweepStructure, String exportPath) {
         super(qPairs, sourceReader, targetReader, exportPath);
 
-        this.sweepStructure = planeSweepStructure == PlaneSweepStructure.LIST_SWEEP
-                ? new ListSweep()
-                : new StripedSweep();
+        this.planeSweepStructure = planeSweepStructure;
+        this.sweepStructure = createSweepStructure(planeSweepStructure);
 
         this.quickSort = new QuickSort();
 
         targetData = targetReader.getGeometryProfiles();
     }
 
+    protected static SweepStructure createSweepStructure(PlaneSweepStructure planeSweepStructure) {
+        switch (planeSweepStructure) {
+            case LIST_SWEEP:
+                return new ListSweep();
+            case INTERVAL_SWEEP:
+                return new IntervalSweep();
+            default:
+                return new StripedSweep();
+        }
+    }
+
+    /**
+     * @return the slabs of the given geometries, in the order of their minimum x
+     */
+    private static TIntList[] assignToSlabs(double[] slabBoundaries, EnvelopeStore envelopes) {
+        final TIntList[] slabs = new TIntList[slabBoundaries.length + 1];
+        for (int i = 0; i < slabs.length; i++) {
+            slabs[i] = new TIntArrayList();
+        }
+
+        for (int i = 0; i < envelopes.size(); i++) {
+            if (envelopes.getMaxX(i) < envelopes.getMinX(i)) { // empty geometry
+                continue;
+            }
+
+            final int lastSlab = getSlab(slabBoundaries, envelopes.getMaxX(i));
+            for (int slab = getSlab(slabBoundaries, envelopes.getMinX(i)); slab <= lastSlab; slab++) {
+                slabs[slab].add(i);
+            }
+        }
+        return slabs;
+    }
+
+    /**
+     * @return the inner boundaries of noOfSlabs slabs of the x-axis with
+     * about the same number of geometries, i.e., the distinct quantiles of
+     * the minimum x of all geometries
+     */
+    private double[] getSlabBoundaries(int noOfSlabs) {
+        final double[] minX = new double[sourceEnvelopes.size() + targetEnvelopes.size()];
+        for (int i = 0; i < sourceEnvelopes.size(); i++) {
+            minX[i] = sourceEnvelopes.getMinX(i);
+        }
+        for (int i = 0; i < targetEnvelopes.size(); i++) {
+            minX[sourceEnvelopes.size() + i] = targetEnvelopes.getMinX(i);
+        }
+        Arrays.parallelSort(minX);
+
+        final double[] boundaries = new double[noOfSlabs - 1];
+        int noOfBoundaries = 0;
+        for (int i = 1; i < noOfSlabs; i++) {
+            final double boundary = minX[(int) ((long) i * minX.length / noOfSlabs)];
+            if (boundary != Double.POSITIVE_INFINITY && (noOfBoundaries == 0 || boundaries[noOfBoundaries - 1] < boundary)) {
+                boundaries[noOfBoundaries++] = boundary;
+            }
+        }
+        return Arrays.copyOf(boundaries, noOfBoundaries);
+    }
+
+    /**
+     * @return the slab that contains the given x, i.e., the number of inner
+     * boundaries that are lower than or equal to it
+     */
+    private static int getSlab(double[] slabBoundaries, double x) {
+        final int position = Arrays.binarySearch(slabBoundaries, x);
+        return position < 0 ? -(position + 1) : position + 1;
+    }
+
+    /**
+     * The x-axis is split into noOfThreads * SLABS_PER_THREAD slabs with
+     * about the same number of geometries and every geometry is assigned to
+     * all slabs it spans. Every slab is swept independently by a separate
+     * task with its own sweep structure, and a pair is verified only in the
+     * slab that contains its reference point, i.e., the maximum of the minimum
+     * x of its geometries, so the results are the same as in verification().
+     */
+    @Override
+    protected void parallelVerification() {
+        final double[] slabBoundaries = getSlabBoundaries(SLABS_PER_THREAD * noOfThreads);
+        final TIntList[] sourceSlabs = assignToSlabs(slabBoundaries, sourceEnvelopes);
+        final TIntList[] targetSlabs = assignToSlabs(slabBoundaries, targetEnvelopes);
+
+        double totalWidth = 0;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < sourceEnvelopes.size(); i++) {
+            // empty geometries have inverted envelopes, thus no width, as in setThetas(sourceData)
+            if (sourceEnvelopes.getMaxX(i) < sourceEnvelopes.getMinX(i)) {
+                continue;
+            }
+
+            totalWidth += sourceEnvelopes.getMaxX(i) - sourceEnvelopes.getMinX(i);
+            minY = Math.min(minY, sourceEnvelopes.getMinY(i));
+            maxY = Math.max(maxY, sourceEnvelopes.getMaxY(i));
+        }
+        final double meanWidth = totalWidth / sourceEnvelopes.size();
+        final double sweepMinY = minY;
+        final double sweepMaxY = maxY;
+
+        final List<VerificationTask> tasks = new ArrayList<>();
+        for (int i = 0; i < sourceSlabs.length; i++) {
+            final int slab = i;
+            tasks.add(results -> {
+                final SweepStructure slabStructure = createSweepStructure(planeSweepStructure);
+                slabStructure.setThetas(meanWidth, sweepMinY, sweepMaxY);
+                verifySlab(slab, slabBoundaries, sourceSlabs[slab], targetSlabs[slab], slabStructure, results);
+            });
+        }
+        verifyInParallel(tasks.iterator());
+        relations.close();
+    }
+
     @Override
     protected void verification() {
         int sourceIndex = 0;
@@ -59,14 +184,14 @@ public class PlaneSweep extends AbstractBatchAlgorithm {
 
             GeometryProfile source = sourceData[sourceIndex];
             GeometryProfile candidate = targetData[targetIndex];
-            if (candidate == null || source.getMaxX() < candidate.getMinX()) {
+            if (candidate == null || sourceEnvelopes.getMaxX(sourceIndex) < targetEnvelopes.getMinX(targetIndex)) {
                 sweepStructure.removeExpired(source);
 
-                final TIntSet partialCandidates = sweepStructure.reportOverlap(source, sourceIndex);
+                final TIntCollection partialCandidates = sweepStructure.reportOverlap(source, sourceIndex);
                 final TIntIterator intIterator = partialCandidates.iterator();
                 while (intIterator.hasNext()) {
                     int candidateMatchId = intIterator.next();
-                    if (targetData[candidateMatchId].getGeometry().getEnvelopeInternal().intersects(source.getGeometry().getEnvelopeInternal())) {
+                    if (sourceEnvelopes.intersects(sourceIndex, targetEnvelopes, candidateMatchId)) {
                         relations.verifyRelations(sourceIndex, candidateMatchId, source.getGeometry(), targetData[candidateMatchId].getGeometry());
                     }
                 }
@@ -80,11 +205,11 @@ public class PlaneSweep extends AbstractBatchAlgorithm {
         while (sourceIndex < sourceEndIndex) { //&& sweepStructure.getSize() > 0) {
             GeometryProfile source = sourceData[sourceIndex];
             sweepStructure.removeExpired(source);
-            final TIntSet partialCandidates = sweepStructure.reportOverlap(source, sourceIndex);
+            final TIntCollection partialCandidates = sweepStructure.reportOverlap(source, sourceIndex);
             final TIntIterator intIterator = partialCandidates.iterator();
             while (intIterator.hasNext()) {
                 int candidateMatchId = intIterator.next();
-                if (targetData[candidateMatchId].getGeometry().getEnvelopeInternal().intersects(source.getGeometry().getEnvelopeInternal())) {
+                if (sourceEnvelopes.intersects(sourceIndex, targetEnvelopes, candidateMatchId)) {
                     relations.verifyRelations(sourceIndex, candidateMatchId, source.getGeometry(), targetData[candidateMatchId].getGeometry());
                 }
             }
@@ -94,11 +219,50 @@ public class PlaneSweep extends AbstractBatchAlgorithm {
         relations.close();
     }
 
+    private void verifyCandidates(int slab, double[] slabBoundaries, int sourceId, TIntCollection candidates, RelatedGeometries results) {
+        final TIntIterator intIterator = candidates.iterator();
+        while (intIterator.hasNext()) {
+            int candidateMatchId = intIterator.next();
+            if (sourceEnvelopes.intersects(sourceId, targetEnvelopes, candidateMatchId)) {
+                //reference point technique
+                final double referenceX = Math.max(sourceEnvelopes.getMinX(sourceId), targetEnvelopes.getMinX(candidateMatchId));
+                if (getSlab(slabBoundaries, referenceX) == slab) {
+                    results.verifyRelations(sourceId, candidateMatchId, sourceData[sourceId].getGeometry(), targetData[candidateMatchId].getGeometry());
+                }
+            }
+        }
+    }
+
+    /**
+     * Sweeps the given geometries of a slab, like verification() does for
+     * all geometries.
+     */
+    private void verifySlab(int slab, double[] slabBoundaries, TIntList sourceSlab, TIntList targetSlab,
+                            SweepStructure slabStructure, RelatedGeometries results) {
+        int sourceIndex = 0;
+        int targetIndex = 0;
+        while (sourceIndex < sourceSlab.size()) {
+            final int sourceId = sourceSlab.get(sourceIndex);
+            if (targetIndex == targetSlab.size()
+                    || sourceEnvelopes.getMaxX(sourceId) < targetEnvelopes.getMinX(targetSlab.get(targetIndex))) {
+                slabStructure.removeExpired(sourceData[sourceId]);
+                verifyCandidates(slab, slabBoundaries, sourceId, slabStructure.reportOverlap(sourceData[sourceId], sourceId), results);
+                sourceIndex++;
+            } else {
+                final int targetId = targetSlab.get(targetIndex);
+                slabStructure.insert(targetData[targetId], targetId);
+                targetIndex++;
+            }
+        }
+    }
+
     @Override
     protected void filtering() {
         sweepStructure.setThetas(sourceData);
         QuickSort.quickSort(sourceData, Axis.X_AXIS);
         QuickSort.quickSort(targetData, Axis.X_AXIS);
+        sourceEnvelopes = new EnvelopeStore(sourceData);
+        targetEnvelopes = new EnvelopeStore(targetData);
     }
 
     @Override
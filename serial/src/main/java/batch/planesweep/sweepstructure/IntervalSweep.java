@@ -0,0 +1,212 @@
+package batch.planesweep.sweepstructure;
+
+import datamodel.GeometryProfile;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Sweep structure that indexes the y-extents of the active geometries, so that
+ * reportOverlap() returns only the geometries that overlap with the candidate
+ * on the y-axis, instead of the entire active set, as in the List Sweep.
+ *
+ * The new geometries are gathered in a small buffer, which is turned into a
+ * static interval tree when it gets full. The trees are merged like in the
+ * logarithmic method, i.e., whenever a tree is at least half as large as the
+ * previous one, so that there are O(log n) trees. The expired geometries are
+ * removed in bulk: whole trees are dropped once they have expired, while the
+ * rest are rebuilt when they merge or when most of their entries are deleted.
+ *
+ * Every active geometry lies either in the buffer or in a single tree, so the
+ * candidates of a query contain no duplicates and are gathered in a list that
+ * is cleared and reused by all queries.
+ */
+public class IntervalSweep implements SweepStructure {
+
+    private static final int BUFFER_SIZE = 64;
+
+    private int bufferSize;
+    private double expiryLimit;
+
+    private final double[] bufferMaxX;
+    private final double[] bufferMaxY;
+    private final double[] bufferMinY;
+    private final int[] bufferIds;
+    private final TIntList candidates;
+    private final List<IntervalTree> trees;
+
+    public IntervalSweep() {
+        bufferSize = 0;
+        expiryLimit = Double.NEGATIVE_INFINITY;
+        bufferIds = new int[BUFFER_SIZE];
+        bufferMaxX = new double[BUFFER_SIZE];
+        bufferMaxY = new double[BUFFER_SIZE];
+        bufferMinY = new double[BUFFER_SIZE];
+        candidates = new TIntArrayList();
+        trees = new ArrayList<>();
+    }
+
+    /**
+     * Turns the buffer into a new tree, merging the last trees as long as
+     * the new one is at least half as large as the previous one.
+     */
+    private void flushBuffer() {
+        // insertion sort of the buffer by minimum y
+        for (int i = 1; i < bufferSize; i++) {
+            final int id = bufferIds[i];
+            final double maxX = bufferMaxX[i];
+            final double maxY = bufferMaxY[i];
+            final double minY = bufferMinY[i];
+            int j = i - 1;
+            while (0 <= j && minY < bufferMinY[j]) {
+                bufferIds[j + 1] = bufferIds[j];
+                bufferMaxX[j + 1] = bufferMaxX[j];
+                bufferMaxY[j + 1] = bufferMaxY[j];
+                bufferMinY[j + 1] = bufferMinY[j];
+                j--;
+            }
+            bufferIds[j + 1] = id;
+            bufferMaxX[j + 1] = maxX;
+            bufferMaxY[j + 1] = maxY;
+            bufferMinY[j + 1] = minY;
+        }
+
+        final int[] ids = new int[bufferSize];
+        final double[] maxX = new double[bufferSize];
+        final double[] maxY = new double[bufferSize];
+        final double[] minY = new double[bufferSize];
+        System.arraycopy(bufferIds, 0, ids, 0, bufferSize);
+        System.arraycopy(bufferMaxX, 0, maxX, 0, bufferSize);
+        System.arraycopy(bufferMaxY, 0, maxY, 0, bufferSize);
+        System.arraycopy(bufferMinY, 0, minY, 0, bufferSize);
+        trees.add(new IntervalTree(ids, minY, maxY, maxX));
+        bufferSize = 0;
+
+        while (1 < trees.size()) {
+            final IntervalTree last = trees.get(trees.size() - 1);
+            final IntervalTree previous = trees.get(trees.size() - 2);
+            if (2 * last.getLiveSize() < previous.getLiveSize()) {
+                break;
+            }
+
+            trees.remove(trees.size() - 1);
+            trees.set(trees.size() - 1, merge(previous, last));
+        }
+    }
+
+    @Override
+    public int getSize() {
+        int size = bufferSize;
+        for (IntervalTree tree : trees) {
+            size += tree.getLiveSize();
+        }
+        return size;
+    }
+
+    @Override
+    public void insert(GeometryProfile geometryProfile, int id) {
+        if (bufferSize == BUFFER_SIZE) {
+            flushBuffer();
+        }
+
+        bufferIds[bufferSize] = id;
+        bufferMaxX[bufferSize] = geometryProfile.getMaxX();
+        bufferMaxY[bufferSize] = geometryProfile.getMaxY();
+        bufferMinY[bufferSize] = geometryProfile.getMinY();
+        bufferSize++;
+    }
+
+    /**
+     * @return a new tree with the live entries of the given ones that have not expired
+     */
+    private IntervalTree merge(IntervalTree tree1, IntervalTree tree2) {
+        final int maxSize = tree1.getLiveSize() + tree2.getLiveSize();
+        final int[] ids = new int[maxSize];
+        final double[] maxX = new double[maxSize];
+        final double[] maxY = new double[maxSize];
+        final double[] minY = new double[maxSize];
+        final int size1 = tree1.copyLiveEntries(expiryLimit, ids, minY, maxY, maxX, 0);
+        final int size2 = tree2.copyLiveEntries(expiryLimit, ids, minY, maxY, maxX, size1);
+
+        // merges the two sorted runs by minimum y
+        final int size = size1 + size2;
+        final int[] mergedIds = new int[size];
+        final double[] mergedMaxX = new double[size];
+        final double[] mergedMaxY = new double[size];
+        final double[] mergedMinY = new double[size];
+        int i = 0;
+        int j = size1;
+        for (int k = 0; k < size; k++) {
+            final int next = (j == size || (i < size1 && minY[i] <= minY[j])) ? i++ : j++;
+            mergedIds[k] = ids[next];
+            mergedMaxX[k] = maxX[next];
+            mergedMaxY[k] = maxY[next];
+            mergedMinY[k] = minY[next];
+        }
+        return new IntervalTree(mergedIds, mergedMinY, mergedMaxY, mergedMaxX);
+    }
+
+    /**
+     * The geometries are swept in ascending order of their minimum x, hence
+     * every geometry with a maximum x lower than that of the limit expires
+     * for all the subsequent ones, too.
+     */
+    @Override
+    public void removeExpired(GeometryProfile limit) {
+        expiryLimit = Math.max(expiryLimit, limit.getMinX());
+
+        final Iterator<IntervalTree> iterator = trees.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(expiryLimit)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public TIntList reportOverlap(GeometryProfile candidate, int candidateId) {
+        candidates.clear();
+        final double queryMaxY = candidate.getMaxY();
+        final double queryMinY = candidate.getMinY();
+
+        int i = 0;
+        while (i < bufferSize) {
+            if (bufferMaxX[i] < expiryLimit) { // replaced by the last entry of the buffer
+                bufferSize--;
+                bufferIds[i] = bufferIds[bufferSize];
+                bufferMaxX[i] = bufferMaxX[bufferSize];
+                bufferMaxY[i] = bufferMaxY[bufferSize];
+                bufferMinY[i] = bufferMinY[bufferSize];
+                continue;
+            }
+
+            if (bufferMinY[i] <= queryMaxY && queryMinY <= bufferMaxY[i]) {
+                candidates.add(bufferIds[i]);
+            }
+            i++;
+        }
+
+        for (int j = 0; j < trees.size(); j++) {
+            final IntervalTree tree = trees.get(j);
+            tree.reportOverlap(queryMinY, queryMaxY, expiryLimit, candidates);
+            if (tree.isSparse()) {
+                trees.set(j, tree.compact(expiryLimit));
+            }
+        }
+
+        return candidates;
+    }
+
+    @Override
+    public void setThetas(GeometryProfile[] sourceData) {
+
+    }
+
+    @Override
+    public void setThetas(double meanWidth, double minY, double maxY) {
+
+    }
+}
@@ -0,0 +1,151 @@
+package batch.planesweep.sweepstructure;
+
+import gnu.trove.list.TIntList;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Static interval tree over the y-extents of a set of envelopes: the entries
+ * are sorted by their minimum y and every position is the root of the subtree
+ * that covers the middle of its range, augmented with the maximum y and the
+ * maximum x of the subtree. The former prunes the subtrees that lie below a
+ * query, the latter the subtrees whose entries have all expired. Removed
+ * entries are merely marked as deleted until the tree is rebuilt.
+ */
+class IntervalTree {
+
+    private int noOfDeleted;
+
+    private final double[] maxX;
+    private final double[] maxY;
+    private final double[] minY;
+    private final double[] subtreeMaxX;
+    private final double[] subtreeMaxY;
+    private final int[] ids;
+    private final BitSet deleted;
+
+    /**
+     * @param ids the ids of the entries, sorted by their minimum y
+     */
+    IntervalTree(int[] ids, double[] minY, double[] maxY, double[] maxX) {
+        this.ids = ids;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.maxX = maxX;
+        noOfDeleted = 0;
+        deleted = new BitSet(ids.length);
+        subtreeMaxX = new double[ids.length];
+        subtreeMaxY = new double[ids.length];
+        build(0, ids.length);
+    }
+
+    private void build(int from, int to) {
+        if (to <= from) {
+            return;
+        }
+
+        final int middle = (from + to) >>> 1;
+        build(from, middle);
+        build(middle + 1, to);
+
+        double treeMaxX = maxX[middle];
+        double treeMaxY = maxY[middle];
+        if (from < middle) {
+            final int left = (from + middle) >>> 1;
+            treeMaxX = Math.max(treeMaxX, subtreeMaxX[left]);
+            treeMaxY = Math.max(treeMaxY, subtreeMaxY[left]);
+        }
+        if (middle + 1 < to) {
+            final int right = (middle + 1 + to) >>> 1;
+            treeMaxX = Math.max(treeMaxX, subtreeMaxX[right]);
+            treeMaxY = Math.max(treeMaxY, subtreeMaxY[right]);
+        }
+        subtreeMaxX[middle] = treeMaxX;
+        subtreeMaxY[middle] = treeMaxY;
+    }
+
+    int getLiveSize() {
+        return ids.length - noOfDeleted;
+    }
+
+    /**
+     * @return true if every entry has expired, i.e., has a maximum x lower than the given limit
+     */
+    boolean isExpired(double limit) {
+        return ids.length == 0 || subtreeMaxX[ids.length >>> 1] < limit;
+    }
+
+    /**
+     * @return true if more than half of the entries are marked as deleted
+     */
+    boolean isSparse() {
+        return ids.length < 2 * noOfDeleted;
+    }
+
+    /**
+     * @return a new tree with the live entries that have not expired
+     */
+    IntervalTree compact(double limit) {
+        final int maxSize = getLiveSize();
+        final int[] ids = new int[maxSize];
+        final double[] maxX = new double[maxSize];
+        final double[] maxY = new double[maxSize];
+        final double[] minY = new double[maxSize];
+        final int size = copyLiveEntries(limit, ids, minY, maxY, maxX, 0);
+        return new IntervalTree(Arrays.copyOf(ids, size), Arrays.copyOf(minY, size),
+                Arrays.copyOf(maxY, size), Arrays.copyOf(maxX, size));
+    }
+
+    /**
+     * Copies the live entries that have not expired into the given arrays,
+     * in the order of their minimum y.
+     * @return the number of copied entries
+     */
+    int copyLiveEntries(double limit, int[] ids, double[] minY, double[] maxY, double[] maxX, int offset) {
+        int position = offset;
+        for (int i = 0; i < this.ids.length; i++) {
+            if (!deleted.get(i) && limit <= this.maxX[i]) {
+                ids[position] = this.ids[i];
+                minY[position] = this.minY[i];
+                maxY[position] = this.maxY[i];
+                maxX[position] = this.maxX[i];
+                position++;
+            }
+        }
+        return position - offset;
+    }
+
+    /**
+     * Adds to the candidates the ids of the live entries whose y-extent
+     * overlaps with [queryMinY, queryMaxY]; the expired entries that are
+     * encountered are marked as deleted.
+     */
+    void reportOverlap(double queryMinY, double queryMaxY, double limit, TIntList candidates) {
+        reportOverlap(0, ids.length, queryMinY, queryMaxY, limit, candidates);
+    }
+
+    private void reportOverlap(int from, int to, double queryMinY, double queryMaxY, double limit, TIntList candidates) {
+        while (from < to) {
+            final int middle = (from + to) >>> 1;
+            if (subtreeMaxY[middle] < queryMinY || subtreeMaxX[middle] < limit) {
+                return;
+            }
+
+            reportOverlap(from, middle, queryMinY, queryMaxY, limit, candidates);
+            if (queryMaxY < minY[middle]) { // so are all entries to the right
+                return;
+            }
+
+            if (!deleted.get(middle)) {
+                if (maxX[middle] < limit) {
+                    deleted.set(middle);
+                    noOfDeleted++;
+                } else if (queryMinY <= maxY[middle]) {
+                    candidates.add(ids[middle]);
+                }
+            }
+            from = middle + 1;
+        }
+    }
+}
@@ -58,4 +58,9 @@ public class ListSweep implements SweepStructure {
 
     }
 
+    @Override
+    public void setThetas(double meanWidth, double minY, double maxY) {
+
+    }
+
 }
@@ -34,9 +34,9 @@ public class StripedSweep implements SweepStructure {
             return;
         }
 
-        int maxY = (int) Math.ceil((geometryProfile.getMaxY() - this.minY) / stripSize);
-        int minY = (int) Math.floor((geometryProfile.getMinY() - this.minY) / stripSize);
-        for (int i = minY; i < maxY; i++) {
+        int maxY = getStrip(geometryProfile.getMaxY());
+        int minY = getStrip(geometryProfile.getMinY());
+        for (int i = minY; i <= maxY; i++) {
             strips[i].insert(geometryProfile, id);
             size++;
         }
@@ -44,9 +44,9 @@ public class StripedSweep implements SweepStructure {
 
     @Override
     public void removeExpired(GeometryProfile limit) {
-        int maxY = (int) Math.ceil((limit.getMaxY() - this.minY) / stripSize);
-        int minY = (int) Math.floor((limit.getMinY() - this.minY) / stripSize);
-        for (int i = minY; i < maxY; i++) {
+        int maxY = getStrip(limit.getMaxY());
+        int minY = getStrip(limit.getMinY());
+        for (int i = minY; i <= maxY; i++) {
             strips[i].removeExpired(limit);
         }
     }
@@ -55,9 +55,9 @@ public class StripedSweep implements SweepStructure {
     public TIntSet reportOverlap(GeometryProfile candidate, int candidateId) {
         final TIntSet candidates = new TIntHashSet();
 
-        int maxY = (int) Math.ceil((candidate.getMaxY() - this.minY) / stripSize);
-        int minY = (int) Math.floor((candidate.getMinY() - this.minY) / stripSize);
-        for (int i = minY; i < maxY; i++) {
+        int maxY = getStrip(candidate.getMaxY());
+        int minY = getStrip(candidate.getMinY());
+        for (int i = minY; i <= maxY; i++) {
             candidates.addAll(strips[i].reportOverlap(candidate, candidateId));
             size--;
         }
@@ -65,6 +65,16 @@ public class StripedSweep implements SweepStructure {
         return candidates;
     }
 
+    /**
+     * @return the strip that contains the given y, clamped to the strips, so
+     * that the geometries that exceed the range of the structure are assigned
+     * to the first or the last strip
+     */
+    private int getStrip(double y) {
+        final int strip = (int) Math.floor((y - this.minY) / stripSize);
+        return Math.max(0, Math.min(strips.length - 1, strip));
+    }
+
     @Override
     public int getSize() {
         return this.size;
@@ -72,18 +82,27 @@ public class StripedSweep implements SweepStructure {
 
     @Override
     public void setThetas(GeometryProfile[] sourceData) {
+        double totalWidth = 0;
+        double maxY = this.maxY;
+        double minY = this.minY;
         for (GeometryProfile profile : sourceData) {
-            final Envelope en = profile.getGeometry().getEnvelopeInternal();
-            stripSize += en.getWidth();
+            final Envelope en = profile.getEnvelope();
+            totalWidth += en.getWidth();
             maxY = Math.max(maxY, en.getMaxY());
             minY = Math.min(minY, en.getMinY());
         }
 
-        minY -= 1.0;
-        maxY += 1.0;
+        setThetas(totalWidth / sourceData.length, minY, maxY);
+    }
+
+    @Override
+    public void setThetas(double meanWidth, double minY, double maxY) {
+        this.minY = minY - 1.0;
+        this.maxY = maxY + 1.0;
 
-        stripSize /= sourceData.length;
-        strips = new ListSweep[(int) (Math.ceil((maxY - minY) / stripSize))];
+        // a single strip for geometries without width, e.g., points
+        stripSize = 0 < meanWidth ? meanWidth : this.maxY - this.minY;
+        strips = new ListSweep[(int) (Math.ceil((this.maxY - this.minY) / stripSize))];
         for (int i = 0; i < strips.length; i++) {
             strips[i] = new ListSweep();
         }
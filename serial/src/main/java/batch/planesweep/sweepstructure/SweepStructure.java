@@ -1,7 +1,7 @@
 package batch.planesweep.sweepstructure;
 
 import datamodel.GeometryProfile;
-import gnu.trove.set.TIntSet;
+import gnu.trove.TIntCollection;
 
 public interface SweepStructure {
 
@@ -14,9 +14,23 @@ public interface SweepStructure {
 
     void removeExpired(GeometryProfile limit);
 
-    TIntSet reportOverlap(GeometryProfile candidate, int candidateId);
+    /**
+     * @return the ids of the active geometries that may overlap with the
+     * candidate, without duplicates; the collection may be reused by the
+     * structure, thus it is valid only until the next call
+     */
+    TIntCollection reportOverlap(GeometryProfile candidate, int candidateId);
 
     int getSize();
 
     void setThetas(GeometryProfile[] sourceData);
+
+    /**
+     * Initializes the structure from the statistics of the source geometries
+     * that will be compared with it, e.g., those of a single partition.
+     * @param meanWidth the mean width of the envelopes of the source geometries
+     * @param minY the minimum y of the source geometries
+     * @param maxY the maximum y of the source geometries
+     */
+    void setThetas(double meanWidth, double minY, double maxY);
 }
@@ -3,6 +3,7 @@ package batch.stripebased;
 import batch.AbstractBatchAlgorithm;
 import datamodel.*;
 import datareader.AbstractReader;
+import gnu.trove.list.TIntList;
 import org.locationtech.jts.geom.Envelope;
 
 public abstract class AbstractStripeBasedAlgorithm extends AbstractBatchAlgorithm {
@@ -28,7 +29,7 @@ public abstract class AbstractStripeBasedAlgorithm extends AbstractBatchAlgorith
     private void indexSource() {
         spatialIndex = new StripeIndex();
         for (int i = 0; i < datasetDelimiter; i++) {
-            addToIndex(i, sourceData[i].getGeometry().getEnvelopeInternal(), spatialIndex);
+            addToIndex(i, sourceData[i].getEnvelope(), spatialIndex);
         }
     }
 
@@ -40,7 +41,7 @@ public abstract class AbstractStripeBasedAlgorithm extends AbstractBatchAlgorith
     protected void setThetas() {
         thetaX = 0;
         for (GeometryProfile profile : sourceData) {
-            final Envelope en = profile.getGeometry().getEnvelopeInternal();
+            final Envelope en = profile.getEnvelope();
             thetaX += en.getWidth();
         }
         thetaX /= sourceData.length;
@@ -48,4 +49,12 @@ public abstract class AbstractStripeBasedAlgorithm extends AbstractBatchAlgorith
     }
 
     protected abstract void addToIndex(int geometryId, Envelope envelope, StripeIndex stripeIndex);
+
+    @Override
+    protected abstract void filterTarget(GeometryProfile profile, TIntList candidates);
+
+    @Override
+    protected boolean streamsTargets() {
+        return true;
+    }
 }
@@ -1,12 +1,11 @@
 package batch.stripebased;
 
+import datamodel.CandidateBuffer;
 import datamodel.GeometryProfile;
 import datamodel.StripeSTRTreeIndex;
 import datamodel.StripeIndex;
 import datareader.AbstractReader;
-import gnu.trove.iterator.TIntIterator;
-import gnu.trove.set.TIntSet;
-import gnu.trove.set.hash.TIntHashSet;
+import gnu.trove.list.TIntList;
 import org.apache.jena.atlas.json.JsonArray;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.index.strtree.STRtree;
@@ -25,6 +24,12 @@ public class StripeSTRSweep extends AbstractStripeBasedAlgorithm {
         this.stripeSTRTreeIndex = new StripeSTRTreeIndex();
     }
 
+    @Override
+    protected void parallelVerification() {
+        verifyTargetsInParallel();
+        relations.close();
+    }
+
     @Override
     protected void verification() {
         int counter = 0;
@@ -35,29 +40,33 @@ public class StripeSTRSweep extends AbstractStripeBasedAlgorithm {
                 continue;
             }
 
-            final TIntSet candidateMatches = new TIntHashSet();
-            final Envelope envelope = profile.getGeometry().getEnvelopeInternal();
-
-            int maxX = (int) Math.ceil(envelope.getMaxX() / thetaX);
-            int minX = (int) Math.floor(envelope.getMinX() / thetaX);
-            for (int longIndex = minX; longIndex <= maxX; longIndex++) {
-                // instead of adding all search in str tree which ones match
-                STRtree stRtree = stripeSTRTreeIndex.getSTRTree(longIndex);
-                if (stRtree != null) {
-                    candidateMatches.addAll(stRtree.query(envelope));
-                } 
-            }
-
-            final TIntIterator intIterator = candidateMatches.iterator();
-            while (intIterator.hasNext()) {
-                int candidateMatchId = intIterator.next();
-                relations.verifyRelations(candidateMatchId, counter, sourceData[candidateMatchId].getGeometry(), profile.getGeometry());
-            }
+            verifyTarget(counter, profile, relations);
         }
         targetReader.close();
         relations.close();
     }
 
+    @Override
+    protected void filterTarget(GeometryProfile profile, TIntList candidates) {
+        final CandidateBuffer candidateMatches = candidateBuffers.get();
+        candidateMatches.clear();
+        final Envelope envelope = profile.getEnvelope();
+
+        int maxX = (int) Math.ceil(envelope.getMaxX() / thetaX);
+        int minX = (int) Math.floor(envelope.getMinX() / thetaX);
+        for (int longIndex = minX; longIndex <= maxX; longIndex++) {
+            // instead of adding all search in str tree which ones match
+            STRtree stRtree = stripeSTRTreeIndex.getSTRTree(longIndex);
+            if (stRtree != null) {
+                stRtree.query(envelope, item -> candidateMatches.add((Integer) item));
+            } 
+        }
+
+        for (int i = 0; i < candidateMatches.size(); i++) {
+            candidates.add(candidateMatches.get(i));
+        }
+    }
+
     @Override
     protected void addToIndex(int geometryId, Envelope envelope, StripeIndex stripeIndex) {
         int maxX = (int) Math.ceil(envelope.getMaxX() / thetaX);
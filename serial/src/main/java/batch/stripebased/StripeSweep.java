@@ -1,12 +1,10 @@
 package batch.stripebased;
 
+import datamodel.CandidateBuffer;
 import datamodel.GeometryProfile;
 import datamodel.StripeIndex;
 import datareader.AbstractReader;
-import gnu.trove.iterator.TIntIterator;
 import gnu.trove.list.TIntList;
-import gnu.trove.set.TIntSet;
-import gnu.trove.set.hash.TIntHashSet;
 import org.apache.jena.atlas.json.JsonArray;
 import org.locationtech.jts.geom.Envelope;
 
@@ -23,6 +21,12 @@ public class StripeSweep extends AbstractStripeBasedAlgorithm {
         super(qPairs, sourceReader, targetReader, exportFile);
     }
 
+    @Override
+    protected void parallelVerification() {
+        verifyTargetsInParallel();
+        relations.close();
+    }
+
     @Override
     protected void verification() {
         int counter = 0;
@@ -33,28 +37,35 @@ public class StripeSweep extends AbstractStripeBasedAlgorithm {
                 continue;
             }
 
-            final TIntSet candidateMatches = new TIntHashSet();
-            final Envelope envelope = profile.getGeometry().getEnvelopeInternal();
+            verifyTarget(counter, profile, relations);
+        }
+        targetReader.close();
+        relations.close();
+    }
 
-            int maxX = (int) Math.ceil(envelope.getMaxX() / thetaX);
-            int minX = (int) Math.floor(envelope.getMinX() / thetaX);
-            for (int longIndex = minX; longIndex <= maxX; longIndex++) {
-                final TIntList partialCandidates = spatialIndex.getStripe(longIndex);
-                if (partialCandidates != null) {
-                    candidateMatches.addAll(partialCandidates);
+    @Override
+    protected void filterTarget(GeometryProfile profile, TIntList candidates) {
+        final CandidateBuffer candidateMatches = candidateBuffers.get();
+        candidateMatches.clear();
+        final Envelope envelope = profile.getEnvelope();
+
+        int maxX = (int) Math.ceil(envelope.getMaxX() / thetaX);
+        int minX = (int) Math.floor(envelope.getMinX() / thetaX);
+        for (int longIndex = minX; longIndex <= maxX; longIndex++) {
+            final TIntList partialCandidates = spatialIndex.getStripe(longIndex);
+            if (partialCandidates != null) {
+                for (int i = 0; i < partialCandidates.size(); i++) {
+                    candidateMatches.add(partialCandidates.get(i));
                 }
             }
+        }
 
-            final TIntIterator intIterator = candidateMatches.iterator();
-            while (intIterator.hasNext()) {
-                int candidateMatchId = intIterator.next();
-                if (sourceData[candidateMatchId].getGeometry().getEnvelopeInternal().intersects(envelope)) {
-                    relations.verifyRelations(candidateMatchId, counter, sourceData[candidateMatchId].getGeometry(), profile.getGeometry());
-                }
+        for (int i = 0; i < candidateMatches.size(); i++) {
+            int candidateMatchId = candidateMatches.get(i);
+            if (sourceEnvelopes.intersects(candidateMatchId, envelope)) {
+                candidates.add(candidateMatchId);
             }
         }
-        targetReader.close();
-        relations.close();
     }
 
     @Override
@@ -1,11 +1,9 @@
 package batch.tilebased;
 
+import datamodel.CandidateBuffer;
 import datamodel.GeometryProfile;
 import datareader.AbstractReader;
-import gnu.trove.iterator.TIntIterator;
 import gnu.trove.list.TIntList;
-import gnu.trove.set.TIntSet;
-import gnu.trove.set.hash.TIntHashSet;
 import org.apache.jena.atlas.json.JsonArray;
 import org.locationtech.jts.geom.Envelope;
 
@@ -59,7 +57,7 @@ public class GIAnt extends AbstractTileBasedAlgorithm {
         thetaX = 0;
         thetaY = 0;
         for (GeometryProfile profile : sourceData) {
-            final Envelope en = profile.getGeometry().getEnvelopeInternal();
+            final Envelope en = profile.getEnvelope();
             thetaX += en.getWidth();
             thetaY += en.getHeight();
         }
@@ -68,6 +66,17 @@ public class GIAnt extends AbstractTileBasedAlgorithm {
         System.out.println(thetaX + "\t" + thetaY);
     }
     
+    @Override
+    protected void parallelVerification() {
+        verifyTargetsInParallel();
+        relations.close();
+    }
+
+    @Override
+    protected boolean streamsTargets() {
+        return true;
+    }
+
     @Override
     protected void verification() {
         int counter = 0;
@@ -83,31 +92,40 @@ public class GIAnt extends AbstractTileBasedAlgorithm {
 //                continue;
 //            }
             
-            final TIntSet candidateMatches = new TIntHashSet();
-            final Envelope envelope = profile.getGeometry().getEnvelopeInternal();
-
-            int maxX = (int) Math.ceil(envelope.getMaxX() / thetaX);
-            int maxY = (int) Math.ceil(envelope.getMaxY() / thetaY);
-            int minX = (int) Math.floor(envelope.getMinX() / thetaX);
-            int minY = (int) Math.floor(envelope.getMinY() / thetaY);
-            for (int latIndex = minX; latIndex <= maxX; latIndex++) {
-                for (int longIndex = minY; longIndex <= maxY; longIndex++) {
-                    final TIntList partialCandidates = spatialIndex.getSquare(latIndex, longIndex);
-                    if (partialCandidates != null) {
-                        candidateMatches.addAll(partialCandidates);
-                    }
+            verifyTarget(counter, profile, relations);
+        }
+        targetReader.close();
+        relations.close();
+    }
+
+    @Override
+    protected void filterTarget(GeometryProfile profile, TIntList candidates) {
+        final CandidateBuffer candidateMatches = candidateBuffers.get();
+        candidateMatches.clear();
+        final Envelope envelope = profile.getEnvelope();
+
+        int maxX = spatialIndex.getMaxLat(envelope);
+        int maxY = spatialIndex.getMaxLon(envelope);
+        int minX = spatialIndex.getMinLat(envelope);
+        int minY = spatialIndex.getMinLon(envelope);
+        for (int latIndex = minX; latIndex <= maxX; latIndex++) {
+            for (int longIndex = minY; longIndex <= maxY; longIndex++) {
+                final int cell = spatialIndex.getCellIndex(latIndex, longIndex);
+                if (cell < 0) {
+                    continue;
                 }
-            }
 
-            final TIntIterator intIterator = candidateMatches.iterator();
-            while (intIterator.hasNext()) {
-                int candidateMatchId = intIterator.next();
-                if (sourceData[candidateMatchId].getGeometry().getEnvelopeInternal().intersects(envelope)) {
-                    relations.verifyRelations(candidateMatchId, counter, sourceData[candidateMatchId].getGeometry(), profile.getGeometry());
+                for (int i = spatialIndex.getCellStart(cell); i < spatialIndex.getCellEnd(cell); i++) {
+                    candidateMatches.add(spatialIndex.getGeometryId(i));
                 }
             }
         }
-        targetReader.close();
-        relations.close();
+
+        for (int i = 0; i < candidateMatches.size(); i++) {
+            int candidateMatchId = candidateMatches.get(i);
+            if (sourceEnvelopes.intersects(candidateMatchId, envelope)) {
+                candidates.add(candidateMatchId);
+            }
+        }
     }
 }
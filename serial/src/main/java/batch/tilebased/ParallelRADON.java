@@ -0,0 +1,29 @@
+package batch.tilebased;
+
+import datareader.AbstractReader;
+
+/**
+ * RADON with the tiles verified in parallel, by all available processors
+ * unless specified otherwise, in decreasing number of candidate pairs.
+ */
+public class ParallelRADON extends RADON {
+
+    public ParallelRADON(int qPairs, AbstractReader sourceReader, AbstractReader targetReader) {
+        this(qPairs, sourceReader, targetReader, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelRADON(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, int noOfThreads) {
+        super(qPairs, sourceReader, targetReader);
+        setNoOfThreads(noOfThreads);
+    }
+
+    public ParallelRADON(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, String exportFile) {
+        super(qPairs, sourceReader, targetReader, exportFile);
+        setNoOfThreads(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel RADON";
+    }
+}
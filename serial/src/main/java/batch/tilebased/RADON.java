@@ -1,73 +1,58 @@
 package batch.tilebased;
 
+import batch.VerificationTask;
 import datamodel.*;
 import datareader.AbstractReader;
-import gnu.trove.iterator.TIntIterator;
-import gnu.trove.iterator.TIntObjectIterator;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
-import gnu.trove.map.TIntObjectMap;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.jena.atlas.json.JsonArray;
 import org.locationtech.jts.geom.Envelope;
+import utilities.DecTileCardinalityComparator;
 
 public class RADON extends AbstractTileBasedAlgorithm {
 
     protected List<Tile> blocksList;
     protected final GeometryProfile[] targetData;
+    protected final EnvelopeStore targetEnvelopes;
 
     public RADON(int qPairs, AbstractReader sourceReader, AbstractReader targetReader) {
         super(qPairs, sourceReader, targetReader);
         targetData = targetReader.getGeometryProfiles();
+        targetEnvelopes = new EnvelopeStore(targetData);
     }
 
     public RADON(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, String  exportFile) {
-        super(qPairs, sourceReader, targetReader);
+        super(qPairs, sourceReader, targetReader, exportFile);
         targetData = targetReader.getGeometryProfiles();
+        targetEnvelopes = new EnvelopeStore(targetData);
     }
     
-    @Override
-    protected void filtering() {
-        super.filtering();
-        indexTarget();
-    }
-
-    private List<Tile> getBlocks(LightIndex spatialIndex) {
+    protected List<Tile> getBlocks(FlatGridIndex spatialIndex) {
         final List<Tile> blocks = new ArrayList<>();
-        final TIntObjectIterator<TIntObjectMap<TIntList>> outerIterator = spatialIndex.getMap().iterator();
-        while (outerIterator.hasNext()) {
-            outerIterator.advance();
-
-            final int xDimension = outerIterator.key();
-            final TIntObjectIterator<TIntList> innerIterator = outerIterator.value().iterator();
-            while (innerIterator.hasNext()) {
-                innerIterator.advance();
-
-                if (innerIterator.value().size() < 2) {
-                    continue;
-                }
-
-                final int yDimension = innerIterator.key();
-                final TIntList entitiesD1 = new TIntArrayList();
-                final TIntList entitiesD2 = new TIntArrayList();
-                final TIntIterator entityIterator = innerIterator.value().iterator();
-                while (entityIterator.hasNext()) {
-                    int currentId = entityIterator.next();
-                    if (currentId < datasetDelimiter) {
-                        entitiesD1.add(currentId);
-                    } else {
-                        entitiesD2.add(currentId - datasetDelimiter);
-                    }
-                }
+        for (int cell = 0; cell < spatialIndex.getNoOfCells(); cell++) {
+            if (spatialIndex.getCellSize(cell) < 2) {
+                continue;
+            }
 
-                // each block should contain entities from both dataset
-                if (entitiesD1.isEmpty() || entitiesD2.isEmpty()) {
-                    continue;
+            final TIntList entitiesD1 = new TIntArrayList();
+            final TIntList entitiesD2 = new TIntArrayList();
+            for (int i = spatialIndex.getCellStart(cell); i < spatialIndex.getCellEnd(cell); i++) {
+                int currentId = spatialIndex.getGeometryId(i);
+                if (currentId < datasetDelimiter) {
+                    entitiesD1.add(currentId);
+                } else {
+                    entitiesD2.add(currentId - datasetDelimiter);
                 }
+            }
 
-                blocks.add(new Tile(xDimension, yDimension, entitiesD1.toArray(), entitiesD2.toArray()));
+            // each block should contain entities from both dataset
+            if (entitiesD1.isEmpty() || entitiesD2.isEmpty()) {
+                continue;
             }
+
+            blocks.add(new Tile(spatialIndex.getCellLat(cell), spatialIndex.getCellLon(cell), entitiesD1.toArray(), entitiesD2.toArray()));
         }
 
         return blocks;
@@ -78,11 +63,10 @@ public class RADON extends AbstractTileBasedAlgorithm {
         return "Optimized RADON";
     }
 
-    private void indexTarget() {
-        int geometryId = datasetDelimiter;
-        for (GeometryProfile tEntity : targetData) {
-            addToIndex(geometryId++, tEntity.getGeometry().getEnvelopeInternal(), spatialIndex);
-        }
+    // the target geometries share the grid of the source ones, with ids following theirs
+    @Override
+    protected void indexGeometries() {
+        spatialIndex = new FlatGridIndex(thetaX, thetaY, sourceData, targetData);
     }
 
     @Override
@@ -90,7 +74,7 @@ public class RADON extends AbstractTileBasedAlgorithm {
         float thetaXa = 0;
         float thetaYa = 0;
         for (GeometryProfile sEntity : sourceData) {
-            final Envelope en = sEntity.getGeometry().getEnvelopeInternal();
+            final Envelope en = sEntity.getEnvelope();
             thetaXa += en.getWidth();
             thetaYa += en.getHeight();
         }
@@ -100,7 +84,7 @@ public class RADON extends AbstractTileBasedAlgorithm {
         float thetaXb = 0;
         float thetaYb = 0;
         for (GeometryProfile tEntity : targetData) {
-            final Envelope en = tEntity.getGeometry().getEnvelopeInternal();
+            final Envelope en = tEntity.getEnvelope();
             thetaXb += en.getWidth();
             thetaYb += en.getHeight();
         }
@@ -113,32 +97,50 @@ public class RADON extends AbstractTileBasedAlgorithm {
 
     // reference point technique to remove duplicate pairs
     protected boolean validCandidate(int sourceId, int targetId, Tile bTile) {
-        final Envelope sourceEnv = sourceData[sourceId].getGeometry().getEnvelopeInternal();
-        final Envelope targetEnv = targetData[targetId].getGeometry().getEnvelopeInternal();
-        int xDimension = (int) Math.max(sourceEnv.getMinX() / thetaX, targetEnv.getMinX() / thetaX);
-        int yDimension = (int) Math.min(sourceEnv.getMaxY() / thetaY, targetEnv.getMaxY() / thetaY);
+        int xDimension = (int) Math.max(sourceEnvelopes.getMinX(sourceId) / thetaX, targetEnvelopes.getMinX(targetId) / thetaX);
+        int yDimension = (int) Math.min(sourceEnvelopes.getMaxY(sourceId) / thetaY, targetEnvelopes.getMaxY(targetId) / thetaY);
         if (xDimension == bTile.getXDimension() && yDimension == bTile.getYDimension()) {
-            return sourceEnv.intersects(targetEnv);
+            return sourceEnvelopes.intersects(sourceId, targetEnvelopes, targetId);
         }
         return false;
     }
     
+    /**
+     * The tiles are independent, as the reference point technique assigns every
+     * candidate pair to a single tile, and they are verified in decreasing number
+     * of candidate pairs, so that the largest ones do not delay the end of the
+     * verification.
+     */
+    @Override
+    protected void parallelVerification() {
+        blocksList = getBlocks(spatialIndex);
+        blocksList.sort(new DecTileCardinalityComparator());
+        verifyInParallel(blocksList.stream()
+                .map(block -> (VerificationTask) results -> verifyTile(block, results))
+                .iterator());
+        relations.close();
+    }
+
     @Override
     protected void verification() {
         blocksList = getBlocks(spatialIndex);
         for (Tile block : blocksList) {
-            final PairIterator iterator = block.getPairIterator();
-            while (iterator.hasNext()) {
-                final Pair pair = iterator.next();
-                if (validCandidate(pair.getEntityId1(), pair.getEntityId2(), block)) {
-                   relations.verifyRelations(pair.getEntityId1(), pair.getEntityId2(), 
-                           sourceData[pair.getEntityId1()].getGeometry(), targetData[pair.getEntityId2()].getGeometry()); 
-                }
-            }
+            verifyTile(block, relations);
         }
         relations.close();
     }
 
+    protected void verifyTile(Tile block, RelatedGeometries results) {
+        final PairIterator iterator = block.getPairIterator();
+        while (iterator.hasNext()) {
+            final Pair pair = iterator.next();
+            if (validCandidate(pair.getEntityId1(), pair.getEntityId2(), block)) {
+               results.verifyRelations(pair.getEntityId1(), pair.getEntityId2(), 
+                       sourceData[pair.getEntityId1()].getGeometry(), targetData[pair.getEntityId2()].getGeometry()); 
+            }
+        }
+    }
+
     @Override
     public String getMethodConfiguration() {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
@@ -26,6 +26,17 @@ public abstract class AbstractTreeBasedAlgorithm extends AbstractBatchAlgorithm
 
     protected abstract void indexSource();
 
+    @Override
+    protected void parallelVerification() {
+        verifyTargetsInParallel();
+        relations.close();
+    }
+
+    @Override
+    protected boolean streamsTargets() {
+        return true;
+    }
+
     @Override
     protected void verification() {
         int counter = 0;
@@ -36,21 +47,26 @@ public abstract class AbstractTreeBasedAlgorithm extends AbstractBatchAlgorithm
                 continue;
             }
 
-            final Envelope envelope = profile.getGeometry().getEnvelopeInternal();
-            final TIntList partialCandidates = getCandidates(envelope);
-            if (partialCandidates == null) {
-                continue;
-            }
-
-            final TIntIterator intIterator = partialCandidates.iterator();
-            while (intIterator.hasNext()) {
-                int candidateMatchId = intIterator.next();
-                if (sourceData[candidateMatchId].getGeometry().getEnvelopeInternal().intersects(envelope)) {
-                    relations.verifyRelations(candidateMatchId, counter, sourceData[candidateMatchId].getGeometry(), profile.getGeometry());
-                }
-            }
+            verifyTarget(counter, profile, relations);
         }
         targetReader.close();
         relations.close();
     }
+
+    @Override
+    protected void filterTarget(GeometryProfile profile, TIntList candidates) {
+        final Envelope envelope = profile.getEnvelope();
+        final TIntList partialCandidates = getCandidates(envelope);
+        if (partialCandidates == null) {
+            return;
+        }
+
+        final TIntIterator intIterator = partialCandidates.iterator();
+        while (intIterator.hasNext()) {
+            int candidateMatchId = intIterator.next();
+            if (sourceEnvelopes.intersects(candidateMatchId, envelope)) {
+                candidates.add(candidateMatchId);
+            }
+        }
+    }
 }
@@ -14,15 +14,27 @@ public class CRTree extends AbstractTreeBasedAlgorithm {
     private final CRTreeIndex spatialIndex;
 
     public CRTree(int qPairs, AbstractReader sourceReader, AbstractReader targetReader) {
+        this(qPairs, sourceReader, targetReader, CRTreeIndex.DEFAULT_FANOUT, CRTreeIndex.DEFAULT_QLEVEL);
+    }
+
+    /**
+     * @param fanout the maximum number of entries per node
+     * @param qLevel the number of quantization cells per axis, up to CRTreeIndex.MAX_QLEVEL
+     */
+    public CRTree(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, int fanout, int qLevel) {
         super(qPairs, sourceReader, targetReader);
 
-        this.spatialIndex = new CRTreeIndex();
+        this.spatialIndex = new CRTreeIndex(fanout, qLevel);
     }
 
     public CRTree(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, String exportPath) {
+        this(qPairs, sourceReader, targetReader, CRTreeIndex.DEFAULT_FANOUT, CRTreeIndex.DEFAULT_QLEVEL, exportPath);
+    }
+
+    public CRTree(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, int fanout, int qLevel, String exportPath) {
         super(qPairs, sourceReader, targetReader, exportPath);
 
-        this.spatialIndex = new CRTreeIndex();
+        this.spatialIndex = new CRTreeIndex(fanout, qLevel);
     }
 
     @Override
@@ -60,6 +72,6 @@ public class CRTree extends AbstractTreeBasedAlgorithm {
 
     @Override
     protected void indexSource() {
-        spatialIndex.bulkLoad(sourceData);
+        spatialIndex.bulkLoad(sourceEnvelopes);
     }
 }
@@ -65,7 +65,7 @@ public class QuadTree extends AbstractTreeBasedAlgorithm {
     @Override
     protected void indexSource() {
         for (int i = 0; i < datasetDelimiter; i++) {
-            spatialIndex.insert(sourceData[i].getGeometry().getEnvelopeInternal(), i);
+            spatialIndex.insert(sourceData[i].getEnvelope(), i);
         }
     }
 }
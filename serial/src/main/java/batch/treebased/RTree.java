@@ -1,26 +1,44 @@
 package batch.treebased;
 
 import datareader.AbstractReader;
+import enums.RTreePacking;
 import gnu.trove.list.TIntList;
 import org.apache.jena.atlas.json.JsonArray;
 import org.locationtech.jts.geom.Envelope;
-import datamodel.rtree.RTreeIndex;
+import datamodel.rtree.PackedRTreeIndex;
 
 /**
- * An implementation of Guttman's R-Tree as a Spatial Index
+ * An implementation of the R-Tree as a Spatial Index, bulk-loaded with the
+ * Sort-Tile-Recursive or the Hilbert packing
  */
 public class RTree extends AbstractTreeBasedAlgorithm {
 
-    private final RTreeIndex spatialIndex;
+    private final int fanout;
+    private final RTreePacking packing;
+    private PackedRTreeIndex spatialIndex;
 
     public RTree(int qPairs, AbstractReader sourceReader, AbstractReader targetReader) {
+        this(qPairs, sourceReader, targetReader, PackedRTreeIndex.DEFAULT_FANOUT, RTreePacking.STR);
+    }
+
+    /**
+     * @param fanout the maximum number of children per node, e.g., 16 to 64
+     * @param packing the order of the source geometries in the leaves
+     */
+    public RTree(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, int fanout, RTreePacking packing) {
         super(qPairs, sourceReader, targetReader);
-        this.spatialIndex = new RTreeIndex();
+        this.fanout = fanout;
+        this.packing = packing;
     }
 
     public RTree(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, String exportPath) {
+        this(qPairs, sourceReader, targetReader, PackedRTreeIndex.DEFAULT_FANOUT, RTreePacking.STR, exportPath);
+    }
+
+    public RTree(int qPairs, AbstractReader sourceReader, AbstractReader targetReader, int fanout, RTreePacking packing, String exportPath) {
         super(qPairs, sourceReader, targetReader, exportPath);
-        this.spatialIndex = new RTreeIndex();
+        this.fanout = fanout;
+        this.packing = packing;
     }
 
     @Override
@@ -58,8 +76,6 @@ public class RTree extends AbstractTreeBasedAlgorithm {
     
     @Override
     protected void indexSource() {
-        for (int i = 0; i < datasetDelimiter; i++) {
-            spatialIndex.insert(sourceData[i], i);
-        }
+        spatialIndex = new PackedRTreeIndex(sourceEnvelopes, fanout, packing);
     }
 }
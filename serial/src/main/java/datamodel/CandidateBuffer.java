@@ -0,0 +1,73 @@
+package datamodel;
+
+import java.util.Arrays;
+
+/**
+ * Reusable set of candidate ids for a single target geometry. Duplicates are
+ * detected through an array of stamps with one slot per source geometry:
+ * an id is contained in the buffer if its stamp equals the current epoch, so
+ * clearing the buffer merely increments the epoch. The ids are kept in
+ * insertion order in an array that grows only when needed, so that the
+ * candidates of successive geometries are gathered without any allocation.
+ *
+ * A buffer is not thread-safe; every thread should use its own.
+ */
+public class CandidateBuffer {
+
+    private int epoch;
+    private int size;
+
+    private int[] candidates;
+    private final int[] stamps;
+
+    public CandidateBuffer(int noOfGeometries) {
+        epoch = 1;
+        size = 0;
+        candidates = new int[16];
+        stamps = new int[noOfGeometries];
+    }
+
+    /**
+     * Adds the given id, unless it has been added since the last call of clear().
+     * @param geometryId the id of the candidate geometry
+     * @return true if the id was not contained in the buffer
+     */
+    public boolean add(int geometryId) {
+        if (stamps[geometryId] == epoch) {
+            return false;
+        }
+
+        stamps[geometryId] = epoch;
+        if (size == candidates.length) {
+            candidates = Arrays.copyOf(candidates, 2 * size);
+        }
+        candidates[size++] = geometryId;
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            // on overflow, all stamps are reset, so that no stale stamp matches a future epoch
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+    }
+
+    public boolean contains(int geometryId) {
+        return stamps[geometryId] == epoch;
+    }
+
+    public int get(int index) {
+        return candidates[index];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,62 @@
+package datamodel;
+
+import org.locationtech.jts.geom.Geometry;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread-safe variant of RelatedGeometries. Every thread that verifies pairs
+ * gets its own shard with private lists and counters, so that concurrent calls
+ * of verifyRelations() never contend with each other. The shards are merged
+ * into the current object by close(), which should be called after all
+ * verification threads have finished.
+ */
+public class ConcurrentRelatedGeometries extends RelatedGeometries {
+
+    private final Queue<RelatedGeometries> shards;
+    // replaced on every merge, so that no thread keeps writing to a merged shard
+    private volatile ThreadLocal<RelatedGeometries> localShard;
+
+    public ConcurrentRelatedGeometries(int qualifyingPairs) {
+        super(qualifyingPairs);
+        shards = new ConcurrentLinkedQueue<>();
+        localShard = ThreadLocal.withInitial(this::newShard);
+    }
+
+    public ConcurrentRelatedGeometries(int qualifyingPairs, String exportPath, String sourceNamespace, String targetNamespace) {
+        super(qualifyingPairs, exportPath, sourceNamespace, targetNamespace);
+        shards = new ConcurrentLinkedQueue<>();
+        localShard = ThreadLocal.withInitial(this::newShard);
+    }
+
+    @Override
+    public void close() {
+        mergeShards();
+        super.close();
+    }
+
+    /**
+     * Merges the shards that have been filled so far into the current object.
+     * It must not run concurrently with verifyRelations().
+     */
+    public void mergeShards() {
+        localShard = ThreadLocal.withInitial(this::newShard);
+        RelatedGeometries shard;
+        while ((shard = shards.poll()) != null) {
+            merge(shard);
+        }
+    }
+
+    private RelatedGeometries newShard() {
+        final RelatedGeometries shard = new RelatedGeometries(getQualifyingPairs());
+        shard.copyConfiguration(this);
+        shards.add(shard);
+        return shard;
+    }
+
+    @Override
+    public boolean verifyRelations(int sourceId, int targetId, Geometry sourceGeom, Geometry targetGeom) {
+        return localShard.get().verifyRelations(sourceId, targetId, sourceGeom, targetGeom);
+    }
+}
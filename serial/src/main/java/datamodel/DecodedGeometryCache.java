@@ -0,0 +1,68 @@
+package datamodel;
+
+import org.locationtech.jts.geom.Geometry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the geometries that have been decoded by lazy profiles, so
+ * that the geometries that take part in many candidate pairs are not decoded
+ * repeatedly. The cache is bounded by the total number of points of the cached
+ * geometries and evicts the least recently used ones first.
+ *
+ * It is thread-safe, as it is shared by all profiles of a dataset; the
+ * geometries are decoded outside the lock, thus a geometry may occasionally be
+ * decoded by two threads at the same time.
+ */
+public class DecodedGeometryCache {
+
+    private final int maxCachedPoints;
+    private long cachedPoints;
+
+    private final LinkedHashMap<LazyGeometryProfile, Geometry> cache;
+
+    public DecodedGeometryCache(int maxCachedPoints) {
+        this.maxCachedPoints = maxCachedPoints;
+        cachedPoints = 0;
+        cache = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @return the geometry of the given profile, decoding it if it is not cached
+     */
+    public Geometry get(LazyGeometryProfile profile) {
+        synchronized (this) {
+            final Geometry geometry = cache.get(profile);
+            if (geometry != null) {
+                return geometry;
+            }
+        }
+
+        final Geometry geometry = profile.decode();
+        final int noOfPoints = geometry.getNumPoints();
+        if (noOfPoints <= maxCachedPoints) {
+            synchronized (this) {
+                if (cache.put(profile, geometry) == null) {
+                    cachedPoints += noOfPoints;
+                    evict();
+                }
+            }
+        }
+        return geometry;
+    }
+
+    public synchronized int getNoOfCachedGeometries() {
+        return cache.size();
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<LazyGeometryProfile, Geometry>> iterator = cache.entrySet().iterator();
+        while (maxCachedPoints < cachedPoints && iterator.hasNext()) {
+            final Map.Entry<LazyGeometryProfile, Geometry> eldest = iterator.next();
+            cachedPoints -= eldest.getValue().getNumPoints();
+            iterator.remove();
+        }
+    }
+}
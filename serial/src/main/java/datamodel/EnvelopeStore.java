@@ -0,0 +1,76 @@
+package datamodel;
+
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * Structure-of-arrays copy of the minimum bounding rectangles of a dataset.
+ * The coordinates of the i-th geometry are stored in the i-th position of
+ * four primitive arrays, so that the MBR checks of the filtering do not have
+ * to go through GeometryProfile, Geometry and Envelope objects.
+ *
+ * The store is a snapshot: it has to be rebuilt if the underlying array of
+ * geometries is reordered. Empty (or missing) geometries get an inverted
+ * rectangle that intersects nothing, like the null Envelope of JTS.
+ */
+public class EnvelopeStore {
+
+    private final double[] maxX;
+    private final double[] maxY;
+    private final double[] minX;
+    private final double[] minY;
+
+    public EnvelopeStore(GeometryProfile[] profiles) {
+        maxX = new double[profiles.length];
+        maxY = new double[profiles.length];
+        minX = new double[profiles.length];
+        minY = new double[profiles.length];
+        for (int i = 0; i < profiles.length; i++) {
+            final Envelope envelope = profiles[i] == null ? null : profiles[i].getEnvelope();
+            if (envelope == null || envelope.isNull()) {
+                maxX[i] = Double.NEGATIVE_INFINITY;
+                maxY[i] = Double.NEGATIVE_INFINITY;
+                minX[i] = Double.POSITIVE_INFINITY;
+                minY[i] = Double.POSITIVE_INFINITY;
+            } else {
+                maxX[i] = envelope.getMaxX();
+                maxY[i] = envelope.getMaxY();
+                minX[i] = envelope.getMinX();
+                minY[i] = envelope.getMinY();
+            }
+        }
+    }
+
+    public double getMaxX(int id) {
+        return maxX[id];
+    }
+
+    public double getMaxY(int id) {
+        return maxY[id];
+    }
+
+    public double getMinX(int id) {
+        return minX[id];
+    }
+
+    public double getMinY(int id) {
+        return minY[id];
+    }
+
+    public boolean intersects(int id, Envelope envelope) {
+        if (envelope.isNull()) {
+            return false;
+        }
+
+        return minX[id] <= envelope.getMaxX() && envelope.getMinX() <= maxX[id]
+                && minY[id] <= envelope.getMaxY() && envelope.getMinY() <= maxY[id];
+    }
+
+    public boolean intersects(int id, EnvelopeStore other, int otherId) {
+        return minX[id] <= other.maxX[otherId] && other.minX[otherId] <= maxX[id]
+                && minY[id] <= other.maxY[otherId] && other.minY[otherId] <= maxY[id];
+    }
+
+    public int size() {
+        return minX.length;
+    }
+}
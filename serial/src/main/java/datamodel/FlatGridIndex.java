@@ -0,0 +1,285 @@
+package datamodel;
+
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * Equigrid index whose cells are stored in a compressed
+ * sparse row layout: the ids of all cells are kept in a single array, with
+ * every cell corresponding to a contiguous range of it. The cells are
+ * addressed directly over the bounding box of the data, unless most of the
+ * box is empty, in which case only the non-empty cells are stored and
+ * addressed through a hash map.
+ *
+ * The index is built once from the given datasets, whose geometries get
+ * consecutive ids: the first dataset takes the ids 0 to n1-1, the second one
+ * the ids n1 to n1+n2-1 and so on. Within every cell, the ids are sorted in
+ * increasing order.
+ */
+public class FlatGridIndex {
+
+    // maximum number of cells in the bounding box per cell entry for the direct addressing
+    private static final int MAX_EMPTY_CELLS_RATIO = 4;
+    private static final int NO_CELL = -1;
+
+    private final boolean dense;
+    private int minLat;
+    private int minLon;
+    private int noOfLats;
+    private int noOfLons;
+    private final double thetaX;
+    private final double thetaY;
+
+    private int[] cellLats;
+    private int[] cellLons;
+    private int[] cellOffsets;
+    private int[] geometryIds;
+    private TLongIntMap sparseCells;
+
+    public FlatGridIndex(double thetaX, double thetaY, GeometryProfile[]... datasets) {
+        this.thetaX = thetaX;
+        this.thetaY = thetaY;
+
+        final long noOfEntries = setBounds(datasets);
+        if (Integer.MAX_VALUE < noOfEntries) {
+            throw new IllegalStateException("Too many cell entries for a flat grid : " + noOfEntries);
+        }
+
+        final long noOfBoxCells = (long) noOfLats * noOfLons;
+        dense = noOfBoxCells <= Math.max(1, MAX_EMPTY_CELLS_RATIO * noOfEntries)
+                && noOfBoxCells < Integer.MAX_VALUE;
+        if (dense) {
+            cellOffsets = new int[(int) noOfBoxCells + 1];
+            countDenseEntries(datasets);
+        } else {
+            countSparseEntries(datasets);
+        }
+
+        // prefix sums turn the cell sizes into offsets
+        for (int i = 1; i < cellOffsets.length; i++) {
+            cellOffsets[i] += cellOffsets[i - 1];
+        }
+
+        geometryIds = new int[(int) noOfEntries];
+        fillCells(datasets);
+    }
+
+    private void countDenseEntries(GeometryProfile[]... datasets) {
+        for (GeometryProfile[] dataset : datasets) {
+            for (GeometryProfile profile : dataset) {
+                final Envelope envelope = profile.getEnvelope();
+                if (envelope.isNull()) {
+                    continue;
+                }
+
+                int maxX = getMaxLat(envelope);
+                int maxY = getMaxLon(envelope);
+                int minX = getMinLat(envelope);
+                int minY = getMinLon(envelope);
+                for (int latIndex = minX; latIndex <= maxX; latIndex++) {
+                    for (int longIndex = minY; longIndex <= maxY; longIndex++) {
+                        cellOffsets[getDenseCell(latIndex, longIndex) + 1]++;
+                    }
+                }
+            }
+        }
+    }
+
+    private void countSparseEntries(GeometryProfile[]... datasets) {
+        sparseCells = new TLongIntHashMap(Math.max(16, noOfLats), 0.5f, Long.MIN_VALUE, NO_CELL);
+        final TIntList lats = new TIntArrayList();
+        final TIntList lons = new TIntArrayList();
+        final TIntList sizes = new TIntArrayList();
+        for (GeometryProfile[] dataset : datasets) {
+            for (GeometryProfile profile : dataset) {
+                final Envelope envelope = profile.getEnvelope();
+                if (envelope.isNull()) {
+                    continue;
+                }
+
+                int maxX = getMaxLat(envelope);
+                int maxY = getMaxLon(envelope);
+                int minX = getMinLat(envelope);
+                int minY = getMinLon(envelope);
+                for (int latIndex = minX; latIndex <= maxX; latIndex++) {
+                    for (int longIndex = minY; longIndex <= maxY; longIndex++) {
+                        final long key = getKey(latIndex, longIndex);
+                        int cell = sparseCells.get(key);
+                        if (cell == NO_CELL) {
+                            cell = sizes.size();
+                            sparseCells.put(key, cell);
+                            lats.add(latIndex);
+                            lons.add(longIndex);
+                            sizes.add(0);
+                        }
+                        sizes.set(cell, sizes.get(cell) + 1);
+                    }
+                }
+            }
+        }
+
+        cellLats = lats.toArray();
+        cellLons = lons.toArray();
+        cellOffsets = new int[sizes.size() + 1];
+        for (int i = 0; i < sizes.size(); i++) {
+            cellOffsets[i + 1] = sizes.get(i);
+        }
+    }
+
+    private void fillCells(GeometryProfile[]... datasets) {
+        final int[] cursors = new int[cellOffsets.length - 1];
+        System.arraycopy(cellOffsets, 0, cursors, 0, cursors.length);
+
+        int geometryId = 0;
+        for (GeometryProfile[] dataset : datasets) {
+            for (GeometryProfile profile : dataset) {
+                final Envelope envelope = profile.getEnvelope();
+                if (envelope.isNull()) {
+                    geometryId++;
+                    continue;
+                }
+
+                int maxX = getMaxLat(envelope);
+                int maxY = getMaxLon(envelope);
+                int minX = getMinLat(envelope);
+                int minY = getMinLon(envelope);
+                for (int latIndex = minX; latIndex <= maxX; latIndex++) {
+                    for (int longIndex = minY; longIndex <= maxY; longIndex++) {
+                        final int cell = dense ? getDenseCell(latIndex, longIndex) : sparseCells.get(getKey(latIndex, longIndex));
+                        geometryIds[cursors[cell]++] = geometryId;
+                    }
+                }
+                geometryId++;
+            }
+        }
+    }
+
+    /**
+     * @param lat the index of the cell along the x-axis
+     * @param lon the index of the cell along the y-axis
+     * @return the position of the cell in the index or -1 if the cell is empty
+     */
+    public int getCellIndex(int lat, int lon) {
+        final int cell;
+        if (dense) {
+            if (lat < minLat || minLat + noOfLats <= lat || lon < minLon || minLon + noOfLons <= lon) {
+                return NO_CELL;
+            }
+            cell = getDenseCell(lat, lon);
+        } else {
+            cell = sparseCells.get(getKey(lat, lon));
+            if (cell == NO_CELL) {
+                return NO_CELL;
+            }
+        }
+
+        return cellOffsets[cell] == cellOffsets[cell + 1] ? NO_CELL : cell;
+    }
+
+    public int getCellLat(int cell) {
+        return dense ? minLat + cell / noOfLons : cellLats[cell];
+    }
+
+    public int getCellLon(int cell) {
+        return dense ? minLon + cell % noOfLons : cellLons[cell];
+    }
+
+    /**
+     * @return the position of the first id of the given cell in the array of geometry ids
+     */
+    public int getCellStart(int cell) {
+        return cellOffsets[cell];
+    }
+
+    /**
+     * @return the position after the last id of the given cell in the array of geometry ids
+     */
+    public int getCellEnd(int cell) {
+        return cellOffsets[cell + 1];
+    }
+
+    public int getGeometryId(int position) {
+        return geometryIds[position];
+    }
+
+    public int getMaxLat(Envelope envelope) {
+        return (int) Math.ceil(envelope.getMaxX() / thetaX);
+    }
+
+    public int getMaxLon(Envelope envelope) {
+        return (int) Math.ceil(envelope.getMaxY() / thetaY);
+    }
+
+    public int getMinLat(Envelope envelope) {
+        return (int) Math.floor(envelope.getMinX() / thetaX);
+    }
+
+    public int getMinLon(Envelope envelope) {
+        return (int) Math.floor(envelope.getMinY() / thetaY);
+    }
+
+    /**
+     * @return the number of cells in the index, including the empty ones of the direct addressing
+     */
+    public int getNoOfCells() {
+        return cellOffsets.length - 1;
+    }
+
+    public int getCellSize(int cell) {
+        return cellOffsets[cell + 1] - cellOffsets[cell];
+    }
+
+    private int getDenseCell(int lat, int lon) {
+        return (lat - minLat) * noOfLons + (lon - minLon);
+    }
+
+    private static long getKey(int lat, int lon) {
+        return ((long) lat << 32) | (lon & 0xFFFFFFFFL);
+    }
+
+    public boolean isDense() {
+        return dense;
+    }
+
+    // sets the bounding box of the data in cells and returns the overall number of cell entries
+    private long setBounds(GeometryProfile[]... datasets) {
+        int maxLat = Integer.MIN_VALUE;
+        int maxLon = Integer.MIN_VALUE;
+        minLat = Integer.MAX_VALUE;
+        minLon = Integer.MAX_VALUE;
+
+        long noOfEntries = 0;
+        for (GeometryProfile[] dataset : datasets) {
+            for (GeometryProfile profile : dataset) {
+                final Envelope envelope = profile.getEnvelope();
+                if (envelope.isNull()) { // empty geometries belong to no cell
+                    continue;
+                }
+
+                int maxX = getMaxLat(envelope);
+                int maxY = getMaxLon(envelope);
+                int minX = getMinLat(envelope);
+                int minY = getMinLon(envelope);
+                maxLat = Math.max(maxLat, maxX);
+                maxLon = Math.max(maxLon, maxY);
+                minLat = Math.min(minLat, minX);
+                minLon = Math.min(minLon, minY);
+                noOfEntries += (long) (maxX - minX + 1) * (maxY - minY + 1);
+            }
+        }
+
+        if (noOfEntries == 0) {
+            minLat = 0;
+            minLon = 0;
+            noOfLats = 0;
+            noOfLons = 0;
+        } else {
+            noOfLats = maxLat - minLat + 1;
+            noOfLons = maxLon - minLon + 1;
+        }
+        return noOfEntries;
+    }
+}
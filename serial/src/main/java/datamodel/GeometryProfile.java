@@ -1,5 +1,6 @@
 package datamodel;
 
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import enums.Axis;
 
@@ -9,49 +10,73 @@ import java.util.Set;
 
 public class GeometryProfile implements Serializable {
 
+    // the value of the original class, so that previously serialized profiles remain readable
+    private static final long serialVersionUID = 4621726044535733139L;
+
     private final Geometry geometry;
-    private final Set<Attribute> attributes;
+    // created on demand, as most profiles of large datasets carry no attributes
+    private Set<Attribute> attributes;
 
     public GeometryProfile(Geometry geometry) {
         this.geometry = geometry;
-        attributes = new HashSet<>();
+        attributes = null;
+    }
+
+    /**
+     * Constructor for subclasses that load their geometry lazily and override
+     * getGeometry() and getEnvelope().
+     */
+    protected GeometryProfile() {
+        this(null);
     }
 
     public Geometry getGeometry() {
         return geometry;
     }
 
+    /**
+     * @return the minimum bounding rectangle of the geometry; it should be preferred
+     * over getGeometry().getEnvelopeInternal(), as it does not require the
+     * geometry to be loaded
+     */
+    public Envelope getEnvelope() {
+        return geometry.getEnvelopeInternal();
+    }
+
     public void addAttribute(String propertyName, String propertyValue) {
+        if (attributes == null) {
+            attributes = new HashSet<>();
+        }
         attributes.add(new Attribute(propertyName, propertyValue));
     }
 
     public boolean isLessThan(GeometryProfile geometryProfile, Axis axis) {
         if (axis == Axis.X_AXIS)
-            return geometry.getEnvelopeInternal().getMinX() < geometryProfile.geometry.getEnvelopeInternal().getMinX();
+            return getMinX() < geometryProfile.getMinX();
         else
-            return  geometry.getEnvelopeInternal().getMinY() < geometryProfile.geometry.getEnvelopeInternal().getMinY();
+            return  getMinY() < geometryProfile.getMinY();
     }
 
     public boolean isGreaterThan(GeometryProfile geometryProfile, Axis axis) {
         if (axis == Axis.X_AXIS)
-            return geometry.getEnvelopeInternal().getMinX() > geometryProfile.geometry.getEnvelopeInternal().getMinX();
+            return getMinX() > geometryProfile.getMinX();
         else
-            return geometry.getEnvelopeInternal().getMinY() > geometryProfile.geometry.getEnvelopeInternal().getMinY();
+            return getMinY() > geometryProfile.getMinY();
     }
 
     public double getMaxX() {
-        return geometry.getEnvelopeInternal().getMaxX();
+        return getEnvelope().getMaxX();
     }
 
     public double getMinX() {
-        return geometry.getEnvelopeInternal().getMinX();
+        return getEnvelope().getMinX();
     }
 
     public double getMaxY() {
-        return geometry.getEnvelopeInternal().getMaxY();
+        return getEnvelope().getMaxY();
     }
 
     public double getMinY() {
-        return geometry.getEnvelopeInternal().getMinY();
+        return getEnvelope().getMinY();
     }
 }
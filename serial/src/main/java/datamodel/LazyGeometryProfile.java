@@ -0,0 +1,63 @@
+package datamodel;
+
+import com.esotericsoftware.minlog.Log;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+
+/**
+ * Profile that keeps only the envelope and the WKB encoding of its geometry,
+ * which is decoded only when it is actually needed, i.e., when the profile
+ * takes part in a candidate pair that is verified. As most geometries do not
+ * survive the filtering, this reduces the memory footprint of large datasets.
+ * The decoded geometries can be shared through a bounded DecodedGeometryCache.
+ */
+public class LazyGeometryProfile extends GeometryProfile {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<WKBReader> WKB_READERS = ThreadLocal.withInitial(WKBReader::new);
+
+    private final byte[] wkb;
+    private final Envelope envelope;
+    private final transient DecodedGeometryCache cache;
+
+    /**
+     * @param envelope the envelope of the geometry
+     * @param wkb the WKB encoding of the geometry
+     * @param cache the cache of the decoded geometries; null if every access decodes the geometry
+     */
+    public LazyGeometryProfile(Envelope envelope, byte[] wkb, DecodedGeometryCache cache) {
+        this.envelope = envelope;
+        this.wkb = wkb;
+        this.cache = cache;
+    }
+
+    /**
+     * Encodes the given geometry, which can then be released.
+     */
+    public LazyGeometryProfile(Geometry geometry, DecodedGeometryCache cache) {
+        this(new Envelope(geometry.getEnvelopeInternal()), new WKBWriter().write(geometry), cache);
+    }
+
+    Geometry decode() {
+        try {
+            return WKB_READERS.get().read(wkb);
+        } catch (ParseException ex) {
+            Log.error("Error while decoding geometry : " + ex.getMessage());
+            throw new IllegalStateException("Corrupted WKB encoding of lazy geometry profile.", ex);
+        }
+    }
+
+    @Override
+    public Envelope getEnvelope() {
+        return envelope;
+    }
+
+    @Override
+    public Geometry getGeometry() {
+        return cache == null ? decode() : cache.get(this);
+    }
+}
@@ -0,0 +1,61 @@
+package datamodel;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * Lightweight handle to a geometry of a MappedGeometryStore. Its envelope and
+ * geometry are read from the mapped files on every access, unless the profile
+ * retains them, which suits short-lived profiles, like the streamed target
+ * geometries, that are accessed repeatedly.
+ */
+public class MappedGeometryProfile extends GeometryProfile {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean retain;
+    private final int index;
+    private final transient MappedGeometryStore store;
+
+    private transient Envelope envelope;
+    private transient Geometry geometry;
+
+    public MappedGeometryProfile(int index, MappedGeometryStore store, boolean retain) {
+        this.index = index;
+        this.store = store;
+        this.retain = retain;
+    }
+
+    @Override
+    public Envelope getEnvelope() {
+        if (!retain) {
+            return store.getEnvelope(index);
+        }
+
+        if (envelope == null) {
+            envelope = store.getEnvelope(index);
+        }
+        return envelope;
+    }
+
+    @Override
+    public Geometry getGeometry() {
+        if (!retain) {
+            return store.getGeometry(index);
+        }
+
+        if (geometry == null) {
+            geometry = store.getGeometry(index);
+        }
+        return geometry;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    // serialized as a regular profile, since the mapped files may not be available when it is read
+    private Object writeReplace() {
+        return new GeometryProfile(getGeometry());
+    }
+}
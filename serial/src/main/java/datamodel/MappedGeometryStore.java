@@ -0,0 +1,302 @@
+package datamodel;
+
+import com.esotericsoftware.minlog.Log;
+import exception.InputFileException;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * Off-heap storage of a dataset in a single binary file that is memory-mapped.
+ * The file consists of a header and four sections:
+ * - the header: a magic number, the version of the format, the number of
+ *   geometries and the start of every section,
+ * - the envelopes: the minX, maxX, minY and maxY of every geometry (4 doubles),
+ * - the ids: the number of the input record every geometry comes from (int),
+ *   counting from 1, like the ids of the streamed target geometries,
+ * - the offsets: the start of every geometry in the WKB section (long), plus
+ *   the end of the last one,
+ * - the WKB encoding of all geometries.
+ * Only the pages that are actually accessed are loaded by the operating
+ * system, while the geometries are decoded on demand, so that datasets larger
+ * than the heap can be processed. The attributes of the profiles are not
+ * stored. The store is safe for concurrent reads.
+ */
+public class MappedGeometryStore {
+
+    private static final int MAGIC_NUMBER = 0x4A534247;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+
+    private static final int ENVELOPES = 0;
+    private static final int IDS = 1;
+    private static final int OFFSETS = 2;
+    private static final int GEOMETRIES = 3;
+    private static final int NO_OF_SECTIONS = 4;
+
+    private static final int CHUNK_BITS = 30;
+    // the size of every mapping; a multiple of the fixed-length records, so that none of them spans two chunks
+    private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+    private static final int ENVELOPE_BYTES = 4 * Double.BYTES;
+
+    private final int size;
+    private final String filePath;
+
+    private final MappedColumn envelopes;
+    private final MappedColumn geometries;
+    private final MappedColumn ids;
+    private final MappedColumn offsets;
+    private final ThreadLocal<WKBReader> wkbReaders;
+
+    /**
+     * Maps the file that has been written by write().
+     * @param filePath the path to the binary file
+     */
+    public MappedGeometryStore(String filePath) {
+        this.filePath = filePath;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new InputFileException("Not a binary geometry file : " + filePath);
+            }
+
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC_NUMBER) {
+                throw new InputFileException("Not a binary geometry file : " + filePath);
+            }
+            final int version = header.getInt();
+            if (version != VERSION) {
+                throw new InputFileException("Unsupported version " + version + " of binary geometry file : " + filePath);
+            }
+            size = header.getInt();
+            header.getInt();
+
+            final long[] starts = new long[NO_OF_SECTIONS + 1];
+            for (int i = 0; i < NO_OF_SECTIONS; i++) {
+                starts[i] = header.getLong();
+            }
+            starts[NO_OF_SECTIONS] = channel.size();
+
+            envelopes = new MappedColumn(channel, starts[ENVELOPES], (long) size * ENVELOPE_BYTES);
+            ids = new MappedColumn(channel, starts[IDS], (long) size * Integer.BYTES);
+            offsets = new MappedColumn(channel, starts[OFFSETS], (size + 1L) * Long.BYTES);
+            geometries = new MappedColumn(channel, starts[GEOMETRIES], starts[NO_OF_SECTIONS] - starts[GEOMETRIES]);
+        } catch (IOException ex) {
+            Log.error("Error while mapping file " + filePath + " : " + ex.getMessage());
+            throw new InputFileException("Binary geometry file cannot be opened : " + filePath);
+        }
+        wkbReaders = ThreadLocal.withInitial(WKBReader::new);
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public Envelope getEnvelope(int index) {
+        final long position = (long) index * ENVELOPE_BYTES;
+        final double minX = envelopes.getDouble(position);
+        if (Double.isNaN(minX)) {
+            return new Envelope();
+        }
+
+        return new Envelope(minX, envelopes.getDouble(position + Double.BYTES),
+                envelopes.getDouble(position + 2 * Double.BYTES), envelopes.getDouble(position + 3 * Double.BYTES));
+    }
+
+    public Geometry getGeometry(int index) {
+        try {
+            return wkbReaders.get().read(getWkb(index));
+        } catch (ParseException ex) {
+            Log.error("Error while decoding geometry " + index + " : " + ex.getMessage());
+            throw new InputFileException("Corrupted binary geometry file : " + filePath);
+        }
+    }
+
+    /**
+     * @return a copy of the WKB encoding of the given geometry
+     */
+    public byte[] getWkb(int index) {
+        final long start = offsets.getLong((long) index * Long.BYTES);
+        final long end = offsets.getLong((long) (index + 1) * Long.BYTES);
+        final byte[] wkb = new byte[(int) (end - start)];
+        geometries.get(start, wkb);
+        return wkb;
+    }
+
+    /**
+     * @return the number of the input record that the given geometry comes from, starting from 1
+     */
+    public int getRecordId(int index) {
+        return ids.getInt((long) index * Integer.BYTES);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Converts the given profiles into a binary file. Null profiles, i.e.,
+     * input records that could not be parsed, are skipped, but they are
+     * counted in the record ids. The sections are first written to temporary
+     * files next to the output one, as their sizes are not known in advance.
+     *
+     * @param profiles the profiles to be stored, e.g., an AbstractReader
+     * @param filePath the path to the binary file, which is overwritten if it exists
+     */
+    public static void write(Iterator<GeometryProfile> profiles, String filePath) {
+        final Path file = Paths.get(filePath).toAbsolutePath();
+        final Path[] sections = new Path[NO_OF_SECTIONS];
+        try {
+            Files.createDirectories(file.getParent());
+            for (int i = 0; i < NO_OF_SECTIONS; i++) {
+                sections[i] = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            }
+
+            int size = 0;
+            try (DataOutputStream envelopeStream = openStream(sections[ENVELOPES]);
+                 DataOutputStream geometryStream = openStream(sections[GEOMETRIES]);
+                 DataOutputStream idStream = openStream(sections[IDS]);
+                 DataOutputStream offsetStream = openStream(sections[OFFSETS])) {
+                final WKBWriter wkbWriter = new WKBWriter();
+
+                int recordId = 0;
+                long offset = 0;
+                offsetStream.writeLong(offset);
+                while (profiles.hasNext()) {
+                    recordId++;
+                    final GeometryProfile profile = profiles.next();
+                    if (profile == null) {
+                        continue;
+                    }
+
+                    final byte[] wkb;
+                    try {
+                        wkb = wkbWriter.write(profile.getGeometry());
+                    } catch (IllegalArgumentException ex) {
+                        Log.warn("Geometry " + recordId + " cannot be encoded as WKB and will be skipped : " + ex.getMessage());
+                        continue;
+                    }
+
+                    final Envelope envelope = profile.getEnvelope();
+                    if (envelope.isNull()) {
+                        for (int i = 0; i < 4; i++) {
+                            envelopeStream.writeDouble(Double.NaN);
+                        }
+                    } else {
+                        envelopeStream.writeDouble(envelope.getMinX());
+                        envelopeStream.writeDouble(envelope.getMaxX());
+                        envelopeStream.writeDouble(envelope.getMinY());
+                        envelopeStream.writeDouble(envelope.getMaxY());
+                    }
+
+                    geometryStream.write(wkb);
+                    idStream.writeInt(recordId);
+                    offset += wkb.length;
+                    offsetStream.writeLong(offset);
+                    size++;
+                }
+            }
+
+            try (FileChannel output = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC_NUMBER).putInt(VERSION).putInt(size).putInt(0);
+
+                // every section starts at a multiple of 8 bytes
+                final long[] starts = new long[NO_OF_SECTIONS];
+                long position = HEADER_BYTES;
+                for (int i = 0; i < NO_OF_SECTIONS; i++) {
+                    starts[i] = position;
+                    header.putLong(position);
+                    position = (position + Files.size(sections[i]) + Long.BYTES - 1) & -Long.BYTES;
+                }
+                header.rewind();
+                while (header.hasRemaining()) {
+                    output.write(header);
+                }
+
+                for (int i = 0; i < NO_OF_SECTIONS; i++) {
+                    try (FileChannel input = FileChannel.open(sections[i], StandardOpenOption.READ)) {
+                        final long length = input.size();
+                        long copied = 0;
+                        while (copied < length) {
+                            copied += output.transferFrom(input, starts[i] + copied, length - copied);
+                        }
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            Log.error("Error while writing binary geometry file : " + ex.getMessage());
+            throw new InputFileException("Binary geometry file cannot be written : " + filePath);
+        } finally {
+            for (Path section : sections) {
+                if (section != null) {
+                    try {
+                        Files.deleteIfExists(section);
+                    } catch (IOException ex) {
+                        Log.warn("Error while deleting temporary file " + section + " : " + ex.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private static DataOutputStream openStream(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+    }
+
+    /**
+     * A section of a file mapped in chunks of CHUNK_SIZE bytes, as a single
+     * mapping cannot exceed 2GB. Only absolute reads are used, so that it can
+     * be shared by several threads.
+     */
+    private static class MappedColumn {
+
+        private final MappedByteBuffer[] chunks;
+
+        MappedColumn(FileChannel channel, long start, long length) throws IOException {
+            chunks = new MappedByteBuffer[(int) ((length + CHUNK_SIZE - 1) >>> CHUNK_BITS)];
+            for (int i = 0; i < chunks.length; i++) {
+                final long chunkStart = i * CHUNK_SIZE;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start + chunkStart, Math.min(CHUNK_SIZE, length - chunkStart));
+            }
+        }
+
+        void get(long position, byte[] destination) {
+            int copied = 0;
+            while (copied < destination.length) {
+                final long current = position + copied;
+                final ByteBuffer chunk = chunks[(int) (current >>> CHUNK_BITS)].duplicate();
+                chunk.position((int) (current & (CHUNK_SIZE - 1)));
+                final int noOfBytes = Math.min(destination.length - copied, chunk.remaining());
+                chunk.get(destination, copied, noOfBytes);
+                copied += noOfBytes;
+            }
+        }
+
+        double getDouble(long position) {
+            return chunks[(int) (position >>> CHUNK_BITS)].getDouble((int) (position & (CHUNK_SIZE - 1)));
+        }
+
+        int getInt(long position) {
+            return chunks[(int) (position >>> CHUNK_BITS)].getInt((int) (position & (CHUNK_SIZE - 1)));
+        }
+
+        long getLong(long position) {
+            return chunks[(int) (position >>> CHUNK_BITS)].getLong((int) (position & (CHUNK_SIZE - 1)));
+        }
+    }
+}
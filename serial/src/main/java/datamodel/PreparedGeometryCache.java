@@ -0,0 +1,113 @@
+package datamodel;
+
+import gnu.trove.iterator.TIntIntIterator;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of prepared source geometries. A geometry is prepared once it
+ * has been requested minFrequency times, i.e., once it has proved to take
+ * part in many candidate pairs, so that the cost of building its indexes is
+ * amortized. The cache is bounded by the total number of points of the cached
+ * geometries and evicts the least recently used ones first. The request counts
+ * are bounded, too: they are halved whenever too many geometries are tracked,
+ * forgetting the infrequent ones.
+ *
+ * It is not thread-safe; every verification thread should use its own.
+ */
+public class PreparedGeometryCache {
+
+    // maximum number of geometries whose requests are counted before they are prepared
+    private static final int MAX_TRACKED_GEOMETRIES = 1 << 16;
+
+    private final int maxCachedPoints;
+    private final int minFrequency;
+    private long cachedPoints;
+
+    private final LinkedHashMap<Integer, PreparedGeometry> cache;
+    private final PreparedGeometryFactory factory;
+    private final TIntIntMap frequencies;
+
+    public PreparedGeometryCache(int maxCachedPoints, int minFrequency) {
+        this.maxCachedPoints = maxCachedPoints;
+        this.minFrequency = Math.max(1, minFrequency);
+        cachedPoints = 0;
+
+        cache = new LinkedHashMap<>(16, 0.75f, true);
+        factory = new PreparedGeometryFactory();
+        frequencies = new TIntIntHashMap();
+    }
+
+    /**
+     * @param geometryId the id of the source geometry
+     * @param geometry the source geometry
+     * @return the prepared geometry or null if the geometry is not requested frequently enough
+     * or is too large for the cache
+     */
+    public PreparedGeometry get(int geometryId, Geometry geometry) {
+        final PreparedGeometry prepared = cache.get(geometryId);
+        if (prepared != null) {
+            return prepared;
+        }
+
+        if (1 < minFrequency) {
+            if (frequencies.adjustOrPutValue(geometryId, 1, 1) < minFrequency) {
+                if (MAX_TRACKED_GEOMETRIES < frequencies.size()) {
+                    ageFrequencies();
+                }
+                return null;
+            }
+            frequencies.remove(geometryId);
+        }
+
+        final int noOfPoints = geometry.getNumPoints();
+        if (maxCachedPoints < noOfPoints) {
+            return null;
+        }
+
+        final PreparedGeometry newPrepared = factory.create(geometry);
+        cache.put(geometryId, newPrepared);
+        cachedPoints += noOfPoints;
+        evict();
+        return newPrepared;
+    }
+
+    /**
+     * Halves the request counts, dropping those that reach zero, until at
+     * most half of the maximum number of geometries are tracked.
+     */
+    private void ageFrequencies() {
+        while (MAX_TRACKED_GEOMETRIES / 2 < frequencies.size()) {
+            final TIntIntIterator iterator = frequencies.iterator();
+            while (iterator.hasNext()) {
+                iterator.advance();
+                final int frequency = iterator.value() >> 1;
+                if (frequency == 0) {
+                    iterator.remove();
+                } else {
+                    iterator.setValue(frequency);
+                }
+            }
+        }
+    }
+
+    public int getNoOfCachedGeometries() {
+        return cache.size();
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<Integer, PreparedGeometry>> iterator = cache.entrySet().iterator();
+        while (maxCachedPoints < cachedPoints && iterator.hasNext()) {
+            final Map.Entry<Integer, PreparedGeometry> eldest = iterator.next();
+            cachedPoints -= eldest.getValue().getGeometry().getNumPoints();
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package datamodel;
+
+/**
+ * Raster approximation of a geometry, in the form of two sorted lists of
+ * disjoint intervals of Hilbert cell ids of a RasterFilter grid:
+ * - the ALL list with the cells that intersect the geometry, including the
+ *   cells that touch it only at their borders,
+ * - the FULL list with the cells that are completely covered by the geometry,
+ *   which is empty for points and lines.
+ * Every interval is stored as a pair of its first id and the id after its last one.
+ */
+public class RasterApproximation {
+
+    private final int[] allIntervals;
+    private final int[] fullIntervals;
+
+    public RasterApproximation(int[] allIntervals, int[] fullIntervals) {
+        this.allIntervals = allIntervals;
+        this.fullIntervals = fullIntervals;
+    }
+
+    public int getNoOfAllIntervals() {
+        return allIntervals.length / 2;
+    }
+
+    public int getNoOfFullIntervals() {
+        return fullIntervals.length / 2;
+    }
+
+    /**
+     * @return false if the geometries are definitely disjoint
+     */
+    public boolean mayIntersect(RasterApproximation other) {
+        return overlap(allIntervals, other.allIntervals);
+    }
+
+    /**
+     * @return true if the geometries definitely intersect, i.e., if one of them
+     * intersects a cell that is covered by the other
+     */
+    public boolean intersects(RasterApproximation other) {
+        return overlap(allIntervals, other.fullIntervals) || overlap(fullIntervals, other.allIntervals);
+    }
+
+    /**
+     * @return false if the current geometry is definitely not covered by the given one
+     */
+    public boolean mayBeCoveredBy(RasterApproximation other) {
+        return isSubset(allIntervals, other.allIntervals);
+    }
+
+    /**
+     * @return true if all cells of the current geometry are covered by the given one;
+     * it implies that the current geometry is covered by the given one, provided
+     * that it lies within the extent of the grid
+     */
+    public boolean isCoveredBy(RasterApproximation other) {
+        return allIntervals.length != 0 && isSubset(allIntervals, other.fullIntervals);
+    }
+
+    /**
+     * @return true if every interval of the first list lies within an interval of the second one
+     */
+    private static boolean isSubset(int[] intervals, int[] otherIntervals) {
+        int j = 0;
+        for (int i = 0; i < intervals.length; i += 2) {
+            while (j < otherIntervals.length && otherIntervals[j + 1] <= intervals[i]) {
+                j += 2;
+            }
+            if (j == otherIntervals.length || intervals[i] < otherIntervals[j] || otherIntervals[j + 1] < intervals[i + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean overlap(int[] intervals1, int[] intervals2) {
+        int i = 0;
+        int j = 0;
+        while (i < intervals1.length && j < intervals2.length) {
+            if (intervals1[i + 1] <= intervals2[j]) {
+                i += 2;
+            } else if (intervals2[j + 1] <= intervals1[i]) {
+                j += 2;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+}
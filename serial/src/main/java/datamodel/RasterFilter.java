@@ -0,0 +1,243 @@
+package datamodel;
+
+import enums.Relation;
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import utilities.MbrClassifier;
+
+import java.util.Arrays;
+
+/**
+ * Intermediate filter between the MBR filtering and the verification of the
+ * candidate pairs, based on the APRIL raster approximations: the extent of the
+ * source geometries is divided into a grid of 2^order x 2^order cells, which
+ * are numbered along the Hilbert curve, and every geometry is approximated by
+ * the intervals of the cells it intersects and of the cells it covers (see
+ * RasterApproximation). Comparing the approximations of two geometries
+ * identifies many disjoint pairs and many pairs that definitely intersect or
+ * contain each other without any geometric computation.
+ *
+ * The approximations of the source geometries are computed once, on creation,
+ * while those of the target geometries are computed on demand. The filter is
+ * safe for concurrent use.
+ */
+public class RasterFilter {
+
+    public static final int MAX_ORDER = 15;
+
+    private final int order;
+    private final double cellHeight;
+    private final double cellWidth;
+    private final double minX;
+    private final double minY;
+
+    private final GeometryFactory geometryFactory;
+    private final PreparedGeometryFactory preparedFactory;
+    private final RasterApproximation[] sourceApproximations;
+
+    /**
+     * @param order the grid comprises 2^order cells per axis, from 1 to MAX_ORDER
+     * @param sourceData the source geometries, in the order of their ids
+     */
+    public RasterFilter(int order, GeometryProfile[] sourceData) {
+        this.order = Math.max(1, Math.min(MAX_ORDER, order));
+        geometryFactory = new GeometryFactory();
+        preparedFactory = new PreparedGeometryFactory();
+
+        final Envelope extent = new Envelope();
+        for (GeometryProfile profile : sourceData) {
+            extent.expandToInclude(profile.getEnvelope());
+        }
+
+        final int cellsPerAxis = 1 << this.order;
+        minX = extent.isNull() ? 0 : extent.getMinX();
+        minY = extent.isNull() ? 0 : extent.getMinY();
+        cellWidth = getCellSize(minX, extent.getMaxX(), cellsPerAxis);
+        cellHeight = getCellSize(minY, extent.getMaxY(), cellsPerAxis);
+
+        sourceApproximations = new RasterApproximation[sourceData.length];
+        for (int i = 0; i < sourceData.length; i++) {
+            sourceApproximations[i] = approximate(sourceData[i].getGeometry());
+        }
+    }
+
+    /**
+     * Computes the raster approximation of the given geometry. Its parts that
+     * lie outside the extent of the source geometries are ignored.
+     */
+    public RasterApproximation approximate(Geometry geometry) {
+        final TLongList allIntervals = new TLongArrayList();
+        final TLongList fullIntervals = new TLongArrayList();
+        if (!geometry.isEmpty()) {
+            final PreparedGeometry prepared = preparedFactory.create(geometry);
+            rasterize(prepared, geometry.getDimension() == 2, 0, 0, order, allIntervals, fullIntervals);
+        }
+        return new RasterApproximation(toIntervals(allIntervals), toIntervals(fullIntervals));
+    }
+
+    /**
+     * @return the mask of the relations that may hold between the geometries with the given approximations
+     */
+    public int getPossibleRelations(RasterApproximation sourceApprox, RasterApproximation targetApprox) {
+        if (!sourceApprox.mayIntersect(targetApprox)) {
+            return 0;
+        }
+
+        int mask = Relation.getAllMask();
+        if (!sourceApprox.mayBeCoveredBy(targetApprox)) {
+            mask &= ~Relation.getMask(Relation.COVERED_BY, Relation.EQUALS, Relation.WITHIN);
+        }
+        if (!targetApprox.mayBeCoveredBy(sourceApprox)) {
+            mask &= ~Relation.getMask(Relation.CONTAINS, Relation.COVERS, Relation.EQUALS);
+        }
+        return mask;
+    }
+
+    public RasterApproximation getSourceApproximation(int sourceId) {
+        return sourceApproximations[sourceId];
+    }
+
+    /**
+     * @return the mask of the relations that definitely hold between the given
+     * geometries, based on their approximations
+     */
+    public int getTrueRelations(Geometry sourceGeom, Geometry targetGeom,
+                                RasterApproximation sourceApprox, RasterApproximation targetApprox) {
+        final int intersectionRelations = Relation.INTERSECTS.getMask() | MbrClassifier.getImpliedRelations(sourceGeom, targetGeom);
+
+        int mask = 0;
+        if (sourceApprox.intersects(targetApprox)) {
+            mask |= intersectionRelations;
+        }
+        if (sourceApprox.isCoveredBy(targetApprox)) {
+            mask |= intersectionRelations | Relation.COVERED_BY.getMask();
+            // the interior of a polygon within another one lies in the interior of the latter
+            if (sourceGeom instanceof Polygonal) {
+                mask |= Relation.WITHIN.getMask();
+            }
+        }
+        // the target geometry may exceed the grid, unless it lies within the source envelope
+        if (targetApprox.isCoveredBy(sourceApprox)
+                && sourceGeom.getEnvelopeInternal().covers(targetGeom.getEnvelopeInternal())) {
+            mask |= intersectionRelations | Relation.COVERS.getMask();
+            if (targetGeom instanceof Polygonal) {
+                mask |= Relation.CONTAINS.getMask();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return the envelope of the square block of cells with the given lower left cell
+     */
+    private Envelope getBlockEnvelope(int x, int y, int size) {
+        return new Envelope(minX + x * cellWidth, minX + (x + size) * cellWidth,
+                minY + y * cellHeight, minY + (y + size) * cellHeight);
+    }
+
+    /**
+     * @return the size of the cells, rounded up so that the grid definitely reaches the end of the extent
+     */
+    private static double getCellSize(double min, double max, int cellsPerAxis) {
+        if (!(min < max)) {
+            return 1;
+        }
+
+        double cellSize = (max - min) / cellsPerAxis;
+        while (min + cellsPerAxis * cellSize < max) {
+            cellSize = Math.nextUp(cellSize);
+        }
+        return cellSize;
+    }
+
+    /**
+     * @return the position of the given cell along the Hilbert curve
+     */
+    private int getHilbertId(int x, int y) {
+        final int maxCell = (1 << order) - 1;
+        int hilbertId = 0;
+        for (int s = 1 << (order - 1); 0 < s; s >>= 1) {
+            final int rx = (x & s) != 0 ? 1 : 0;
+            final int ry = (y & s) != 0 ? 1 : 0;
+            hilbertId += s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = maxCell - x;
+                    y = maxCell - y;
+                }
+                final int temp = x;
+                x = y;
+                y = temp;
+            }
+        }
+        return hilbertId;
+    }
+
+    /**
+     * Classifies the aligned block of 2^level x 2^level cells with the given
+     * lower left cell and recursively its quadrants, if it is partially
+     * covered by the geometry. Every aligned block corresponds to a single
+     * interval of Hilbert ids.
+     */
+    private void rasterize(PreparedGeometry geometry, boolean polygonal, int x, int y, int level,
+                           TLongList allIntervals, TLongList fullIntervals) {
+        final int size = 1 << level;
+        final Envelope block = getBlockEnvelope(x, y, size);
+        if (!block.intersects(geometry.getGeometry().getEnvelopeInternal())) {
+            return;
+        }
+
+        final Geometry blockGeometry = geometryFactory.toGeometry(block);
+        if (!geometry.intersects(blockGeometry)) {
+            return;
+        }
+
+        final long blockCells = 1L << (2 * level);
+        final long start = getHilbertId(x, y) & ~(blockCells - 1);
+        final long interval = (start << 32) | (start + blockCells);
+        if (polygonal && geometry.covers(blockGeometry)) {
+            allIntervals.add(interval);
+            fullIntervals.add(interval);
+            return;
+        }
+
+        if (level == 0) {
+            allIntervals.add(interval);
+            return;
+        }
+
+        final int half = size >> 1;
+        rasterize(geometry, polygonal, x, y, level - 1, allIntervals, fullIntervals);
+        rasterize(geometry, polygonal, x + half, y, level - 1, allIntervals, fullIntervals);
+        rasterize(geometry, polygonal, x, y + half, level - 1, allIntervals, fullIntervals);
+        rasterize(geometry, polygonal, x + half, y + half, level - 1, allIntervals, fullIntervals);
+    }
+
+    /**
+     * @param blocks the packed intervals of the classified blocks, in any order
+     * @return the sorted intervals, after merging the consecutive ones
+     */
+    private static int[] toIntervals(TLongList blocks) {
+        blocks.sort();
+
+        final int[] intervals = new int[2 * blocks.size()];
+        int noOfValues = 0;
+        for (int i = 0; i < blocks.size(); i++) {
+            final int start = (int) (blocks.get(i) >>> 32);
+            final int end = (int) blocks.get(i);
+            if (0 < noOfValues && intervals[noOfValues - 1] == start) {
+                intervals[noOfValues - 1] = end;
+            } else {
+                intervals[noOfValues++] = start;
+                intervals[noOfValues++] = end;
+            }
+        }
+        return Arrays.copyOf(intervals, noOfValues);
+    }
+}
@@ -1,42 +1,55 @@
 package datamodel;
 
-import datawriter.RDFWriter;
+import datawriter.AsyncResultWriter;
+import datawriter.IResultWriter;
+import enums.Relation;
+import enums.ResultFormat;
 import gnu.trove.list.TIntList;
+import gnu.trove.list.TShortList;
 import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TShortArrayList;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.IntersectionMatrix;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import utilities.MbrClassifier;
 
 public class RelatedGeometries {
 
+    // the relations that can be verified by their own JTS predicates, without computing the full DE-9IM
+    private static final int PREDICATE_RELATIONS = Relation.getMask(Relation.CONTAINS, Relation.COVERED_BY,
+            Relation.COVERS, Relation.INTERSECTS, Relation.WITHIN);
+    // beyond this number of relations of interest, a single relate() is cheaper than separate predicates
+    private static final int MAX_PREDICATES = 2;
+    // the number of raster approximations of target geometries that are cached by every object
+    private static final int TARGET_CACHE_SIZE = 1024;
+
     private int exceptions;
     private int detectedLinks;
     private int interlinkedGeometries;
+    private int prunedPairs;
     private final int qualifyingPairs;
     private int verifiedPairs;
 
     private float pgr;
 
-    private final RDFWriter rdfWriter;
-    private final boolean toExport;
-
-    private final TIntList containsSource;
-    private final TIntList containsTarget;
-    private final TIntList coveredBySource;
-    private final TIntList coveredByTarget;
-    private final TIntList coversSource;
-    private final TIntList coversTarget;
-    private final TIntList crossesSource;
-    private final TIntList crossesTarget;
-    private final TIntList equalsSource;
-    private final TIntList equalsTarget;
-    private final TIntList intersectsSource;
-    private final TIntList intersectsTarget;
-    private final TIntList overlapsSource;
-    private final TIntList overlapsTarget;
-    private final TIntList touchesSource;
-    private final TIntList touchesTarget;
-    private final TIntList withinSource;
-    private final TIntList withinTarget;
+    // verification options, 0 disables the prepared geometries
+    private int maxCachedPoints;
+    private int minPreparationFrequency;
+    private PreparedGeometryCache preparedGeometries;
+    // the mask of the relations to be detected
+    private int relationsOfInterest;
+    // the raster filter, if enabled, and the approximations of recent target geometries, by their ids modulo the cache size
+    private RasterFilter rasterFilter;
+    private int[] cachedTargetIds;
+    private RasterApproximation[] cachedTargetApproximations;
+
+    private IResultWriter resultWriter;
+
+    // columnar store of the related pairs: one entry per pair, with a bit per detected Relation
+    private final TIntList linkedSources;
+    private final TIntList linkedTargets;
+    private final TShortList relationMasks;
+    private final int[] relationCounts;
 
     public RelatedGeometries(int qualifyingPairs) {
         pgr = 0;
@@ -45,144 +58,158 @@ public class RelatedGeometries {
         verifiedPairs = 0;
         this.qualifyingPairs = qualifyingPairs;
         interlinkedGeometries = 0;
+        prunedPairs = 0;
+        maxCachedPoints = 0;
+        minPreparationFrequency = 0;
+        preparedGeometries = null;
+        relationsOfInterest = Relation.getAllMask();
+        rasterFilter = null;
+
+        linkedSources = new TIntArrayList();
+        linkedTargets = new TIntArrayList();
+        relationMasks = new TShortArrayList();
+        relationCounts = new int[Relation.values().length];
+
+        resultWriter = null;
+    }
 
-        containsSource = new TIntArrayList();
-        containsTarget = new TIntArrayList();
-        coveredBySource = new TIntArrayList();
-        coveredByTarget = new TIntArrayList();
-        coversSource = new TIntArrayList();
-        coversTarget = new TIntArrayList();
-        crossesSource = new TIntArrayList();
-        crossesTarget = new TIntArrayList();
-        equalsSource = new TIntArrayList();
-        equalsTarget = new TIntArrayList();
-        intersectsSource = new TIntArrayList();
-        intersectsTarget = new TIntArrayList();
-        overlapsSource = new TIntArrayList();
-        overlapsTarget = new TIntArrayList();
-        touchesSource = new TIntArrayList();
-        touchesTarget = new TIntArrayList();
-        withinSource = new TIntArrayList();
-        withinTarget = new TIntArrayList();
-
-        rdfWriter = null;
-        toExport = false;
-    }
-
-    public RelatedGeometries(int qualifyingPairs, String exportPath) {
+    /**
+     * @param exportPath the path to the N-Triples file with the related pairs
+     * @param sourceNamespace the absolute namespace of the URIs of the source geometries
+     * @param targetNamespace the absolute namespace of the URIs of the target geometries
+     */
+    public RelatedGeometries(int qualifyingPairs, String exportPath, String sourceNamespace, String targetNamespace) {
         pgr = 0;
         exceptions = 0;
         detectedLinks = 0;
         verifiedPairs = 0;
         this.qualifyingPairs = qualifyingPairs;
         interlinkedGeometries = 0;
-
-        containsSource = new TIntArrayList();
-        containsTarget = new TIntArrayList();
-        coveredBySource = new TIntArrayList();
-        coveredByTarget = new TIntArrayList();
-        coversSource = new TIntArrayList();
-        coversTarget = new TIntArrayList();
-        crossesSource = new TIntArrayList();
-        crossesTarget = new TIntArrayList();
-        equalsSource = new TIntArrayList();
-        equalsTarget = new TIntArrayList();
-        intersectsSource = new TIntArrayList();
-        intersectsTarget = new TIntArrayList();
-        overlapsSource = new TIntArrayList();
-        overlapsTarget = new TIntArrayList();
-        touchesSource = new TIntArrayList();
-        touchesTarget = new TIntArrayList();
-        withinSource = new TIntArrayList();
-        withinTarget = new TIntArrayList();
-
-        rdfWriter = new RDFWriter(exportPath);
-        toExport = true;
+        prunedPairs = 0;
+        maxCachedPoints = 0;
+        minPreparationFrequency = 0;
+        preparedGeometries = null;
+        relationsOfInterest = Relation.getAllMask();
+        rasterFilter = null;
+
+        linkedSources = new TIntArrayList();
+        linkedTargets = new TIntArrayList();
+        relationMasks = new TShortArrayList();
+        relationCounts = new int[Relation.values().length];
+
+        resultWriter = new AsyncResultWriter(exportPath, ResultFormat.N_TRIPLES, false, sourceNamespace, targetNamespace);
     }
 
-    private void addContains(int gId1, int gId2) {
-        containsSource.add(gId1);
-        containsTarget.add(gId2);
-    }
-
-    private void addCoveredBy(int gId1, int gId2) {
-        coveredBySource.add(gId1);
-        coveredByTarget.add(gId2);
-    }
-
-    private void addCovers(int gId1, int gId2) {
-        coversSource.add(gId1);
-        coversTarget.add(gId2);
+    private void addLink(int sourceId, int targetId, int relationMask) {
+        linkedSources.add(sourceId);
+        linkedTargets.add(targetId);
+        relationMasks.add((short) relationMask);
+        for (Relation relation : Relation.values()) {
+            if (relation.isIn(relationMask)) {
+                relationCounts[relation.ordinal()]++;
+            }
+        }
     }
 
-    private void addCrosses(int gId1, int gId2) {
-        crossesSource.add(gId1);
-        crossesTarget.add(gId2);
-    }
+    /**
+     * Records the verification of the given pair.
+     * @param relationMask the relations that hold for the pair, if any
+     * @return true if the pair is related
+     */
+    private boolean addRelations(int sourceId, int targetId, int relationMask) {
+        verifiedPairs++;
+        final boolean related = relationMask != 0;
+        if (related) {
+            detectedLinks += Integer.bitCount(relationMask);
+            interlinkedGeometries++;
+            addLink(sourceId, targetId, relationMask);
+            if (resultWriter != null) resultWriter.writePair(sourceId, targetId, relationMask);
+        }
+        pgr += interlinkedGeometries;
 
-    private void addEquals(int gId1, int gId2) {
-        equalsSource.add(gId1);
-        equalsTarget.add(gId2);
+        return related;
     }
 
-    private void addIntersects(int gId1, int gId2) {
-        intersectsSource.add(gId1);
-        intersectsTarget.add(gId2);
+    /**
+     * Copies the verification options of the given object, e.g., from the
+     * overall results to the partial results of a verification thread.
+     */
+    public void copyConfiguration(RelatedGeometries other) {
+        setPreparedGeometryCache(other.maxCachedPoints, other.minPreparationFrequency);
+        relationsOfInterest = other.relationsOfInterest;
+        setRasterFilter(other.rasterFilter);
     }
 
-    private void addOverlaps(int gId1, int gId2) {
-        overlapsSource.add(gId1);
-        overlapsTarget.add(gId2);
+    public int getInterlinkedPairs() {
+        return interlinkedGeometries;
     }
 
-    private void addTouches(int gId1, int gId2) {
-        touchesSource.add(gId1);
-        touchesTarget.add(gId2);
+    /**
+     * @param pairIndex the position of a related pair, from 0 to getInterlinkedPairs() - 1
+     * @return the id of the source geometry of the pair
+     */
+    public int getLinkedSource(int pairIndex) {
+        return linkedSources.get(pairIndex);
     }
 
-    private void addWithin(int gId1, int gId2) {
-        withinSource.add(gId1);
-        withinTarget.add(gId2);
+    /**
+     * @param pairIndex the position of a related pair, from 0 to getInterlinkedPairs() - 1
+     * @return the id of the target geometry of the pair
+     */
+    public int getLinkedTarget(int pairIndex) {
+        return linkedTargets.get(pairIndex);
     }
 
-    public int getInterlinkedPairs() {
-        return interlinkedGeometries;
+    /**
+     * @param pairIndex the position of a related pair, from 0 to getInterlinkedPairs() - 1
+     * @return the mask of the relations that hold for the pair, with one bit per Relation
+     */
+    public int getRelationMask(int pairIndex) {
+        return relationMasks.get(pairIndex);
     }
 
     public int getNoOfContains() {
-        return containsSource.size();
+        return getNoOfRelations(Relation.CONTAINS);
     }
 
     public int getNoOfCoveredBy() {
-        return coveredBySource.size();
+        return getNoOfRelations(Relation.COVERED_BY);
     }
 
     public int getNoOfCovers() {
-        return coversSource.size();
+        return getNoOfRelations(Relation.COVERS);
     }
 
     public int getNoOfCrosses() {
-        return crossesSource.size();
+        return getNoOfRelations(Relation.CROSSES);
     }
 
     public int getNoOfEquals() {
-        return equalsSource.size();
+        return getNoOfRelations(Relation.EQUALS);
     }
 
     public int getNoOfIntersects() {
-        return intersectsSource.size();
+        return getNoOfRelations(Relation.INTERSECTS);
     }
 
     public int getNoOfOverlaps() {
-        return overlapsSource.size();
+        return getNoOfRelations(Relation.OVERLAPS);
     }
 
     public int getNoOfTouches() {
-        return touchesSource.size();
+        return getNoOfRelations(Relation.TOUCHES);
     }
 
     public int getNoOfWithin() {
-        return withinSource.size();
+        return getNoOfRelations(Relation.WITHIN);
+    }
+
+    public int getRelationsOfInterest() {
+        return relationsOfInterest;
+    }
+
+    public int getNoOfRelations(Relation relation) {
+        return relationCounts[relation.ordinal()];
     }
 
     public double getPrecision() {
@@ -197,6 +224,23 @@ public class RelatedGeometries {
         return interlinkedGeometries / (double) qualifyingPairs;
     }
     
+    /**
+     * @return the number of verified pairs that were classified by their envelopes
+     * or raster approximations alone
+     */
+    public int getPrunedPairs() {
+        return prunedPairs;
+    }
+
+    private RasterApproximation getTargetApproximation(int targetId, Geometry targetGeom) {
+        final int slot = targetId & (TARGET_CACHE_SIZE - 1);
+        if (cachedTargetApproximations[slot] == null || cachedTargetIds[slot] != targetId) {
+            cachedTargetIds[slot] = targetId;
+            cachedTargetApproximations[slot] = rasterFilter.approximate(targetGeom);
+        }
+        return cachedTargetApproximations[slot];
+    }
+
     public int getQualifyingPairs() {
         return qualifyingPairs;
     }
@@ -205,6 +249,74 @@ public class RelatedGeometries {
         return verifiedPairs;
     }
 
+    /**
+     * Appends the links and counters of the given partial results, e.g., those
+     * of a verification thread, as if their pairs were verified after the
+     * current ones.
+     *
+     * @param partialResults the results to be merged into the current ones
+     */
+    public void merge(RelatedGeometries partialResults) {
+        pgr += partialResults.pgr + partialResults.verifiedPairs * (float) interlinkedGeometries;
+        exceptions += partialResults.exceptions;
+        detectedLinks += partialResults.detectedLinks;
+        verifiedPairs += partialResults.verifiedPairs;
+        prunedPairs += partialResults.prunedPairs;
+        interlinkedGeometries += partialResults.interlinkedGeometries;
+
+        linkedSources.addAll(partialResults.linkedSources);
+        linkedTargets.addAll(partialResults.linkedTargets);
+        relationMasks.addAll(partialResults.relationMasks);
+        for (int i = 0; i < relationCounts.length; i++) {
+            relationCounts[i] += partialResults.relationCounts[i];
+        }
+
+        if (resultWriter != null) {
+            for (int i = 0; i < partialResults.getInterlinkedPairs(); i++) {
+                resultWriter.writePair(partialResults.linkedSources.get(i), partialResults.linkedTargets.get(i), partialResults.relationMasks.get(i));
+            }
+        }
+    }
+
+    /**
+     * Enables the preparation of the source geometries that participate in
+     * many candidate pairs. A prepared geometry rules out the pairs whose
+     * geometries do not intersect at a fraction of the cost of relate().
+     *
+     * @param maxCachedPoints the maximum number of points of all cached geometries; 0 disables the cache
+     * @param minFrequency the number of candidate pairs of a source geometry, after which it is prepared
+     */
+    public void setPreparedGeometryCache(int maxCachedPoints, int minFrequency) {
+        this.maxCachedPoints = maxCachedPoints;
+        this.minPreparationFrequency = minFrequency;
+        preparedGeometries = 0 < maxCachedPoints ? new PreparedGeometryCache(maxCachedPoints, minFrequency) : null;
+    }
+
+    /**
+     * Enables the raster filter, which classifies many pairs based on the
+     * raster approximations of their geometries, instead of verifying them.
+     *
+     * @param rasterFilter the filter with the approximations of the source geometries; null disables it
+     */
+    public void setRasterFilter(RasterFilter rasterFilter) {
+        this.rasterFilter = rasterFilter;
+        cachedTargetIds = rasterFilter == null ? null : new int[TARGET_CACHE_SIZE];
+        cachedTargetApproximations = rasterFilter == null ? null : new RasterApproximation[TARGET_CACHE_SIZE];
+    }
+
+    /**
+     * Restricts the verification to the given relations; the rest are neither
+     * detected nor counted, and a pair is related if any of the given relations
+     * holds. When they are few and do not include crosses, equals, overlaps or
+     * touches, they are verified with the corresponding JTS predicates, which
+     * are much cheaper than computing the full intersection matrix.
+     *
+     * @param relations the relations of interest; none restores the detection of all relations
+     */
+    public void setRelationsOfInterest(Relation... relations) {
+        relationsOfInterest = relations.length == 0 ? Relation.getAllMask() : Relation.getMask(relations);
+    }
+
     public String print() {
         StringBuilder sb = new StringBuilder();
         sb.append("Qualifying pairs\t:\t").append(getQualifyingPairs()).append("\n");
@@ -224,79 +336,52 @@ public class RelatedGeometries {
         sb.append("Precision\t:\t").append(getPrecision()).append("\n");
         sb.append("Progressive Geometry Recall\t:\t").append(getProgressiveGeometryRecall()).append("\n");
         sb.append("Verified pairs\t:\t").append(getVerifiedPairs()).append("\n");
+        sb.append("Pruned pairs\t:\t").append(getPrunedPairs()).append("\n");
         return sb.toString();
     }
 
     public boolean verifyRelations(int sourceId, int targetId, Geometry sourceGeom, Geometry targetGeom) {
         try {
-            final int dimension1 = sourceGeom.getDimension();
-            final int dimension2 = targetGeom.getDimension();
-            final IntersectionMatrix im = sourceGeom.relate(targetGeom);
-
-            verifiedPairs++;
-            boolean related = false;
-            if (im.isContains()) {
-                related = true;
-                detectedLinks++;
-                addContains(sourceId, targetId);
-                if (toExport) rdfWriter.exportPair(sourceId, targetId, rdfWriter.getContains());
-            }
-            if (im.isCoveredBy()) {
-                related = true;
-                detectedLinks++;
-                addCoveredBy(sourceId, targetId);
-                if (toExport) rdfWriter.exportPair(sourceId, targetId, rdfWriter.getCoveredBy());
-            }
-            if (im.isCovers()) {
-                related = true;
-                detectedLinks++;
-                addCovers(sourceId, targetId);
-                if (toExport) rdfWriter.exportPair(sourceId, targetId, rdfWriter.getCovers());
-            }
-            if (im.isCrosses(dimension1, dimension2)) {
-                related = true;
-                detectedLinks++;
-                addCrosses(sourceId, targetId);
-                if (toExport) rdfWriter.exportPair(sourceId, targetId, rdfWriter.getCrosses());
-            }
-            if (im.isEquals(dimension1, dimension2)) {
-                related = true;
-                detectedLinks++;
-                addEquals(sourceId, targetId);
-                if (toExport) rdfWriter.exportPair(sourceId, targetId, rdfWriter.getEquals());
-            }
-            if (im.isIntersects()) {
-                related = true;
-                detectedLinks++;
-                addIntersects(sourceId, targetId);
-                if (toExport) rdfWriter.exportPair(sourceId, targetId, rdfWriter.getIntersects());
-            }
-            if (im.isOverlaps(dimension1, dimension2)) {
-                related = true;
-                detectedLinks++;
-                addOverlaps(sourceId, targetId);
-                if (toExport) rdfWriter.exportPair(sourceId, targetId, rdfWriter.getOverlaps());
+            // the relations of interest that are not ruled out by the envelopes
+            int candidateRelations = MbrClassifier.getPossibleRelations(sourceGeom, targetGeom) & relationsOfInterest;
+            if (candidateRelations != 0 && rasterFilter != null) {
+                final RasterApproximation sourceApprox = rasterFilter.getSourceApproximation(sourceId);
+                final RasterApproximation targetApprox = getTargetApproximation(targetId, targetGeom);
+                candidateRelations &= rasterFilter.getPossibleRelations(sourceApprox, targetApprox);
+                if (candidateRelations != 0
+                        && (candidateRelations & ~rasterFilter.getTrueRelations(sourceGeom, targetGeom, sourceApprox, targetApprox)) == 0) {
+                    prunedPairs++;
+                    return addRelations(sourceId, targetId, candidateRelations);
+                }
             }
-            if (im.isTouches(dimension1, dimension2)) {
-                related = true;
-                detectedLinks++;
-                addTouches(sourceId, targetId);
-                if (toExport) rdfWriter.exportPair(sourceId, targetId, rdfWriter.getTouches());
-            }
-            if (im.isWithin()) {
-                related = true;
-                detectedLinks++;
-                addWithin(sourceId, targetId);
-                if (toExport) rdfWriter.exportPair(sourceId, targetId, rdfWriter.getWithin());
+
+            if (candidateRelations == 0) {
+                prunedPairs++;
+                return addRelations(sourceId, targetId, 0);
             }
 
-            if (related) {
-                interlinkedGeometries++;
+            PreparedGeometry prepared = null;
+            if (preparedGeometries != null) {
+                prepared = preparedGeometries.get(sourceId, sourceGeom);
+                if (prepared != null && !prepared.intersects(targetGeom)) {
+                    return addRelations(sourceId, targetId, 0);
+                }
             }
-            pgr += interlinkedGeometries;
 
+            final int intersectionRelations = Relation.INTERSECTS.getMask() | MbrClassifier.getImpliedRelations(sourceGeom, targetGeom);
+            final int relationMask;
+            if ((candidateRelations & ~intersectionRelations) == 0) {
+                // all candidate relations hold if and only if the geometries intersect
+                final boolean intersects = prepared != null || sourceGeom.intersects(targetGeom);
+                relationMask = intersects ? candidateRelations : 0;
+            } else if ((candidateRelations & ~PREDICATE_RELATIONS) == 0
+                    && Integer.bitCount(candidateRelations) <= MAX_PREDICATES) {
+                relationMask = getPredicateMask(sourceGeom, targetGeom, prepared, candidateRelations);
+            } else {
+                relationMask = getRelationMask(sourceGeom, targetGeom) & candidateRelations;
+            }
 
-            return related;
+            return addRelations(sourceId, targetId, relationMask);
         } catch (Exception ex) {
             ex.printStackTrace();
             exceptions++;
@@ -304,7 +389,85 @@ public class RelatedGeometries {
         }
     }
 
+    /**
+     * Verifies the given relations with their own predicates, using the
+     * prepared source geometry, when available.
+     *
+     * @param prepared the prepared source geometry, which is known to intersect the target one, or null
+     * @param candidateRelations the relations to be verified, which are not ruled out by the envelopes
+     */
+    private int getPredicateMask(Geometry sourceGeom, Geometry targetGeom, PreparedGeometry prepared, int candidateRelations) {
+        int relationMask = 0;
+        if (Relation.INTERSECTS.isIn(candidateRelations)
+                && (prepared != null || sourceGeom.intersects(targetGeom))) {
+            relationMask |= Relation.INTERSECTS.getMask();
+        }
+        if (Relation.CONTAINS.isIn(candidateRelations)
+                && (prepared != null ? prepared.contains(targetGeom) : sourceGeom.contains(targetGeom))) {
+            relationMask |= Relation.CONTAINS.getMask();
+        }
+        if (Relation.COVERS.isIn(candidateRelations)
+                && (prepared != null ? prepared.covers(targetGeom) : sourceGeom.covers(targetGeom))) {
+            relationMask |= Relation.COVERS.getMask();
+        }
+        if (Relation.COVERED_BY.isIn(candidateRelations) && sourceGeom.coveredBy(targetGeom)) {
+            relationMask |= Relation.COVERED_BY.getMask();
+        }
+        if (Relation.WITHIN.isIn(candidateRelations) && sourceGeom.within(targetGeom)) {
+            relationMask |= Relation.WITHIN.getMask();
+        }
+        return relationMask;
+    }
+
+    private int getRelationMask(Geometry sourceGeom, Geometry targetGeom) {
+        final int dimension1 = sourceGeom.getDimension();
+        final int dimension2 = targetGeom.getDimension();
+        final IntersectionMatrix im = sourceGeom.relate(targetGeom);
+
+        int relationMask = 0;
+        if (im.isContains()) {
+            relationMask |= Relation.CONTAINS.getMask();
+        }
+        if (im.isCoveredBy()) {
+            relationMask |= Relation.COVERED_BY.getMask();
+        }
+        if (im.isCovers()) {
+            relationMask |= Relation.COVERS.getMask();
+        }
+        if (im.isCrosses(dimension1, dimension2)) {
+            relationMask |= Relation.CROSSES.getMask();
+        }
+        if (im.isEquals(dimension1, dimension2)) {
+            relationMask |= Relation.EQUALS.getMask();
+        }
+        if (im.isIntersects()) {
+            relationMask |= Relation.INTERSECTS.getMask();
+        }
+        if (im.isOverlaps(dimension1, dimension2)) {
+            relationMask |= Relation.OVERLAPS.getMask();
+        }
+        if (im.isTouches(dimension1, dimension2)) {
+            relationMask |= Relation.TOUCHES.getMask();
+        }
+        if (im.isWithin()) {
+            relationMask |= Relation.WITHIN.getMask();
+        }
+        return relationMask;
+    }
+
+    /**
+     * Sets the writer that exports the related pairs, replacing the default
+     * N-Triples one, e.g., to use another format or compression.
+     * @param resultWriter the writer of the related pairs; null disables the export
+     */
+    public void setResultWriter(IResultWriter resultWriter) {
+        if (this.resultWriter != null) {
+            this.resultWriter.close();
+        }
+        this.resultWriter = resultWriter;
+    }
+
     public void close() {
-        if (toExport) rdfWriter.close();
+        if (resultWriter != null) resultWriter.close();
     }
 }
@@ -7,7 +7,7 @@ import org.locationtech.jts.geom.Envelope;
 import utilities.bplustree.BPlusTree;
 
 /**
- * Similar to LightIndex: instead of having nxm tiles it has n tiles Indexing is
+ * Similar to FlatGridIndex: instead of having nxm tiles it has n tiles Indexing is
  * only based on the x coordinate
  */
 @Getter
@@ -7,7 +7,7 @@ import gnu.trove.map.hash.TIntObjectHashMap;
 import lombok.Getter;
 
 /**
- * Similar to LightIndex: instead of having nxm tiles it has n tiles
+ * Similar to FlatGridIndex: instead of having nxm tiles it has n tiles
  * Indexing is only based on the x coordinate
  */
 @Getter
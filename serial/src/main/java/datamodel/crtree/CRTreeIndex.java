@@ -1,186 +1,198 @@
 package datamodel.crtree;
 
-import datamodel.GeometryProfile;
+import datamodel.EnvelopeStore;
+import datamodel.rtree.PackedRTreeIndex;
+import enums.RTreePacking;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 import org.locationtech.jts.geom.Envelope;
-import datamodel.Mbr;
-import enums.Axis;
-import utilities.quicksort.QuickSort;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /**
- * maxEntries = 4,  qlevel = 256 -> avg(vt)  =  13,655.8 (5 executions)
- * maxEntries = 8,  qlevel = 256 -> avg(vt)  =  13,501.4 (5 executions)
- * maxEntries = 16, qlevel = 256 -> avg(vt)  =  13,501.8 (5 executions)
- * maxEntries = 32, qlevel = 256 -> avg(vt)  =  14,034   (5 executions)
- *
- * maxEntries = 4,  qlevel = 512 -> avg(vt)  = 13,910    (5 executions)
- * maxEntries = 8,  qlevel = 512 -> avg(vt)  = 13,554.8  (5 executions)
- * maxEntries = 16, qlevel = 512 -> avg(vt)  = 13,254.6  (5 executions)
- * maxEntries = 32, qlevel = 512 -> avg(vt)  = 14,145    (5 executions)
+ * Cache-Conscious R-Tree of Kim et al.: every node keeps its own MBR, the
+ * reference MBR, in full precision, while the MBRs of its entries are stored
+ * relative to it, quantized to QLEVEL cells per axis, in a single byte per
+ * coordinate. With the default fanout of 16 entries, the quantized MBRs of a
+ * node occupy 64 bytes, i.e., a single cache line.
  *
- * maxEntries = 4,  qlevel = 1024 -> avg(vt) = 12,945.8  (5 executions)
- * maxEntries = 8,  qlevel = 1024 -> avg(vt) = 12,674.2  (5 executions)
- * maxEntries = 16, qlevel = 1024 -> avg(vt) = 13,052.2  (5 executions)
- * maxEntries = 32, qlevel = 1024 -> avg(vt) = 12,895.6  (5 executions)
+ * The tree is bulk-loaded with the Sort-Tile-Recursive packing and laid out
+ * in flat arrays: the leaves are followed by the internal nodes of every
+ * level, bottom-up, with the root last. The quantization is conservative,
+ * i.e., a quantized MBR covers the original one, so a range search returns
+ * a superset of the geometries whose envelopes intersect the query: those
+ * whose quantized MBRs intersect it in their leaf.
  */
 public class CRTreeIndex {
 
-    private Node root;
-    private final int maxEntries;
-    private final double fillFactor;
+    public static final int DEFAULT_FANOUT = 16;
+    public static final int DEFAULT_QLEVEL = 256;
+    public static final int MAX_QLEVEL = 256;
+
+    private int noOfLeaves;
+    private int noOfNodes;
+    private final int fanout;
     private final int QLEVEL;
 
+    // the ids of the geometries of the leaves and the child nodes of the internal nodes, fanout per node
+    private int[] children;
+    private int[] noOfEntries;
+    // the quantized minX, minY, maxX and maxY of the entries, 4 * fanout per node
+    private byte[] quantizedMbrs;
+    // the minX, minY, maxX and maxY of every node
+    private double[] referenceMbrs;
+
     public CRTreeIndex() {
-        this.maxEntries = 6;
-        this.fillFactor = 1.0;
-        this.QLEVEL = 1024;
+        this(DEFAULT_FANOUT, DEFAULT_QLEVEL);
     }
 
-    /***
-     * Sort Tile Recursive Bulk Loading
-     * @param sourceData
+    /**
+     * @param fanout the maximum number of entries per node
+     * @param qLevel the number of quantization cells per axis, up to MAX_QLEVEL
      */
-    public void bulkLoad(GeometryProfile[] sourceData) {
-        Node leaf;
-
-        int numInLeaf = (int) (fillFactor * maxEntries);
-        int P = (int) Math.ceil(sourceData.length / numInLeaf);
-        int S = (int) Math.sqrt(P);
-
-        QuickSort.quickSort(sourceData, Axis.X_AXIS);
-
-        int Sn = S * numInLeaf;
-
-        int i = 0;
-        for (; i < sourceData.length - Sn; i += Sn)
-            QuickSort.quickSort(sourceData, i, i + Sn, Axis.Y_AXIS);
-
-        QuickSort.quickSort(sourceData, Axis.Y_AXIS);
+    public CRTreeIndex(int fanout, int qLevel) {
+        this.fanout = Math.max(2, fanout);
+        this.QLEVEL = Math.max(2, Math.min(MAX_QLEVEL, qLevel));
+        noOfLeaves = 0;
+        noOfNodes = 0;
+    }
 
-        List<Node> tempNodes = new ArrayList<>();
-        i = 0;
-        for (; i < sourceData.length - numInLeaf; i += numInLeaf) {
-            Mbr referenceMBR = new Mbr();
-            referenceMBR.setIndex(i);
-            referenceMBR.setEnvelope(sourceData[i].getGeometry().getEnvelopeInternal());
+    /**
+     * Sort Tile Recursive Bulk Loading
+     * @param envelopes the envelopes of the source geometries, whose positions are their ids
+     */
+    public void bulkLoad(EnvelopeStore envelopes) {
+        final int[] ids = PackedRTreeIndex.getPackingOrder(envelopes, fanout, RTreePacking.STR);
 
-            for (int k = i; k < i + numInLeaf; k++) {
-                Mbr key = new Mbr();
-                key.setIndex(k);
-                key.setEnvelope(sourceData[k].getGeometry().getEnvelopeInternal());
+        noOfLeaves = (ids.length + fanout - 1) / fanout;
+        noOfNodes = noOfLeaves;
+        for (int levelSize = noOfLeaves; 1 < levelSize; levelSize = (levelSize + fanout - 1) / fanout) {
+            noOfNodes += (levelSize + fanout - 1) / fanout;
+        }
 
-                referenceMBR.getEnvelope().expandToInclude(key.getEnvelope());
+        children = new int[noOfNodes * fanout];
+        noOfEntries = new int[noOfNodes];
+        quantizedMbrs = new byte[4 * noOfNodes * fanout];
+        referenceMbrs = new double[4 * noOfNodes];
+
+        // leaves
+        final double[] entryMbr = new double[4];
+        for (int leaf = 0; leaf < noOfLeaves; leaf++) {
+            final int from = leaf * fanout;
+            final int to = Math.min(ids.length, from + fanout);
+            initializeReferenceMbr(leaf);
+            for (int i = from; i < to; i++) {
+                expandReferenceMbr(leaf, envelopes.getMinX(ids[i]), envelopes.getMinY(ids[i]), envelopes.getMaxX(ids[i]), envelopes.getMaxY(ids[i]));
             }
 
-            leaf = new Node(maxEntries, referenceMBR, QLEVEL, true);
-
-            for (int k = i; k < i + numInLeaf; k++) {
-                Mbr key = new Mbr();
-                key.setIndex(k);
-                key.setEnvelope(sourceData[k].getGeometry().getEnvelopeInternal());
-
-                Mbr qrmbr = leaf.computeQRMBR(referenceMBR, key, QLEVEL);
-                leaf.addEntry(qrmbr, sourceData[k]);
+            for (int i = from; i < to; i++) {
+                entryMbr[0] = envelopes.getMinX(ids[i]);
+                entryMbr[1] = envelopes.getMinY(ids[i]);
+                entryMbr[2] = envelopes.getMaxX(ids[i]);
+                entryMbr[3] = envelopes.getMaxY(ids[i]);
+                addEntry(leaf, ids[i], entryMbr, 0);
             }
-
-            tempNodes.add(leaf);
         }
 
-        // last leaf iteration
-        Mbr referenceMBR = new Mbr();
-        referenceMBR.setIndex(i);
-        referenceMBR.setEnvelope(sourceData[i].getGeometry().getEnvelopeInternal());
-
-        boolean added = false;
-        for (int k = i + 1; k < sourceData.length; k++) {
-            Mbr key = new Mbr();
-            key.setIndex(k);
-            key.setEnvelope(sourceData[k].getGeometry().getEnvelopeInternal());
-
-            referenceMBR.getEnvelope().expandToInclude(key.getEnvelope());
+        // internal nodes
+        int childStart = 0;
+        int childEnd = noOfLeaves;
+        int node = noOfLeaves;
+        while (node < noOfNodes) {
+            for (int from = childStart; from < childEnd; from += fanout) {
+                final int to = Math.min(childEnd, from + fanout);
+                initializeReferenceMbr(node);
+                for (int child = from; child < to; child++) {
+                    expandReferenceMbr(node, referenceMbrs[4 * child], referenceMbrs[4 * child + 1],
+                            referenceMbrs[4 * child + 2], referenceMbrs[4 * child + 3]);
+                }
+
+                for (int child = from; child < to; child++) {
+                    addEntry(node, child, referenceMbrs, 4 * child);
+                }
+                node++;
+            }
+            childStart = childEnd;
+            childEnd = node;
         }
+    }
 
-        leaf = new Node(maxEntries, referenceMBR, QLEVEL, true);
-
-        for (int k = i; k < sourceData.length; k++) {
-            Mbr key = new Mbr();
-            key.setIndex(k);
-            key.setEnvelope(sourceData[k].getGeometry().getEnvelopeInternal());
+    /**
+     * Adds the given entry to the given node, quantizing its MBR relative to the reference MBR of the node.
+     * @param mbr the array with the minX, minY, maxX and maxY of the entry
+     * @param offset the position of the minX of the entry in the array
+     */
+    private void addEntry(int node, int child, double[] mbr, int offset) {
+        final int entry = node * fanout + noOfEntries[node]++;
+        children[entry] = child;
+        quantizedMbrs[4 * entry] = (byte) quantize(referenceMbrs[4 * node], referenceMbrs[4 * node + 2], mbr[offset]);
+        quantizedMbrs[4 * entry + 1] = (byte) quantize(referenceMbrs[4 * node + 1], referenceMbrs[4 * node + 3], mbr[offset + 1]);
+        quantizedMbrs[4 * entry + 2] = (byte) quantize(referenceMbrs[4 * node], referenceMbrs[4 * node + 2], mbr[offset + 2]);
+        quantizedMbrs[4 * entry + 3] = (byte) quantize(referenceMbrs[4 * node + 1], referenceMbrs[4 * node + 3], mbr[offset + 3]);
+    }
 
-            Mbr qrmbr = leaf.computeQRMBR(referenceMBR, key, QLEVEL);
-            leaf.addEntry(qrmbr, sourceData[k]);
+    private void expandReferenceMbr(int node, double minX, double minY, double maxX, double maxY) {
+        referenceMbrs[4 * node] = Math.min(referenceMbrs[4 * node], minX);
+        referenceMbrs[4 * node + 1] = Math.min(referenceMbrs[4 * node + 1], minY);
+        referenceMbrs[4 * node + 2] = Math.max(referenceMbrs[4 * node + 2], maxX);
+        referenceMbrs[4 * node + 3] = Math.max(referenceMbrs[4 * node + 3], maxY);
+    }
 
-            added = true;
-        }
+    private void initializeReferenceMbr(int node) {
+        referenceMbrs[4 * node] = Double.POSITIVE_INFINITY;
+        referenceMbrs[4 * node + 1] = Double.POSITIVE_INFINITY;
+        referenceMbrs[4 * node + 2] = Double.NEGATIVE_INFINITY;
+        referenceMbrs[4 * node + 3] = Double.NEGATIVE_INFINITY;
+    }
 
-        if (added) {
-            tempNodes.add(leaf);
+    /**
+     * @return the cell of the given coordinate among the QLEVEL cells of the
+     * range [min, max], i.e., the cell that contains it, clamped to the range
+     */
+    private int quantize(double min, double max, double coordinate) {
+        if (coordinate <= min) {
+            return 0;
+        } else if (max <= coordinate) {
+            return QLEVEL - 1;
         }
-
-        build(tempNodes);
+        return Math.min(QLEVEL - 1, (int) (QLEVEL * ((coordinate - min) / (max - min))));
     }
 
-    public void build(List<Node> internalNodes) {
-        Node node;
-
-        if (internalNodes.size() == 1) {
-            root = internalNodes.get(0);
-            return;
+    public TIntList rangeSearch(Envelope candidate) {
+        final TIntList geometryIndexes = new TIntArrayList();
+        if (noOfNodes == 0) {
+            return geometryIndexes;
         }
 
-        List<Node> tempNodes = new ArrayList<>();
-        int numInNode = (int) (fillFactor * maxEntries);
-
-        int i = 0;
-        for (; i < internalNodes.size() - numInNode; i += numInNode) {
-            Mbr rMBR = internalNodes.get(i).getReferenceMBR();
-
-            for (int k = i + 1; k < i + numInNode; k++) {
-                rMBR.getEnvelope().expandToInclude(internalNodes.get(k).getReferenceMBR().getEnvelope());
+        final TIntList stack = new TIntArrayList();
+        stack.add(noOfNodes - 1);
+        while (!stack.isEmpty()) {
+            final int node = stack.removeAt(stack.size() - 1);
+            final int base = 4 * node;
+            if (candidate.getMaxX() < referenceMbrs[base] || referenceMbrs[base + 2] < candidate.getMinX()
+                    || candidate.getMaxY() < referenceMbrs[base + 1] || referenceMbrs[base + 3] < candidate.getMinY()) {
+                continue;
             }
 
-            node = new Node(maxEntries, rMBR, QLEVEL, false);
-
-            for (int k = i; k < i + numInNode; k++) {
-                Mbr ref = internalNodes.get(k).getReferenceMBR();
-                Mbr qrmbr = node.computeQRMBR(rMBR, ref, QLEVEL);
-                node.addEntry(qrmbr, internalNodes.get(k));
+            final int minX = quantize(referenceMbrs[base], referenceMbrs[base + 2], candidate.getMinX());
+            final int minY = quantize(referenceMbrs[base + 1], referenceMbrs[base + 3], candidate.getMinY());
+            final int maxX = quantize(referenceMbrs[base], referenceMbrs[base + 2], candidate.getMaxX());
+            final int maxY = quantize(referenceMbrs[base + 1], referenceMbrs[base + 3], candidate.getMaxY());
+            final boolean isLeaf = node < noOfLeaves;
+            final int firstEntry = node * fanout;
+            final int lastEntry = firstEntry + noOfEntries[node];
+            for (int entry = firstEntry; entry < lastEntry; entry++) {
+                final int offset = 4 * entry;
+                if (maxX < (quantizedMbrs[offset] & 0xFF) || (quantizedMbrs[offset + 2] & 0xFF) < minX
+                        || maxY < (quantizedMbrs[offset + 1] & 0xFF) || (quantizedMbrs[offset + 3] & 0xFF) < minY) {
+                    continue;
+                }
+
+                if (isLeaf) {
+                    geometryIndexes.add(children[entry]);
+                } else {
+                    stack.add(children[entry]);
+                }
             }
-
-            tempNodes.add(node);
         }
-
-        // last node iteration
-        boolean added = false;
-        Mbr rMBR = internalNodes.get(i).getReferenceMBR();
-        for (int k = i + 1; k < internalNodes.size(); k++) {
-            rMBR.getEnvelope().expandToInclude(internalNodes.get(k).getReferenceMBR().getEnvelope());
-        }
-
-        node = new Node(maxEntries, rMBR, QLEVEL, false);
-
-        for (int k = i; k < internalNodes.size(); k++) {
-            Mbr ref = internalNodes.get(k).getReferenceMBR();
-            Mbr qrmbr = node.computeQRMBR(rMBR, ref, QLEVEL);
-            node.addEntry(qrmbr, internalNodes.get(k));
-            added = true;
-        }
-
-        if (added) {
-            tempNodes.add(node);
-        }
-
-        build(tempNodes);
-    }
-
-    public TIntList rangeSearch(Envelope candidate) {
-        TIntList geometryIndexes = new TIntArrayList();
-        root.traverseTree(candidate, geometryIndexes);
-
         return geometryIndexes;
     }
 }
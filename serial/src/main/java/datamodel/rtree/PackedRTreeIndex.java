@@ -0,0 +1,271 @@
+package datamodel.rtree;
+
+import datamodel.EnvelopeStore;
+import enums.RTreePacking;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import org.locationtech.jts.geom.Envelope;
+
+import java.util.Arrays;
+
+/**
+ * Static R-Tree that is bulk-loaded from a dataset, instead of inserting its
+ * geometries one by one, as in Guttman's R-Tree: the geometries are sorted
+ * by the Sort-Tile-Recursive (STR) or the Hilbert packing, consecutive groups
+ * of fanout geometries form the leaves and consecutive groups of fanout
+ * nodes of every level form the nodes of the next one, up to the root. All
+ * nodes are thus full, except for the last one of every level.
+ *
+ * The tree is stored in a flat, array-based layout: the bounding boxes of all
+ * entries are kept in four contiguous arrays, the geometries followed by the
+ * nodes of every level, bottom-up. For a geometry, children holds its id,
+ * for a node, the position of its first child. The index is immutable, thus
+ * it can be searched by many threads concurrently.
+ */
+public class PackedRTreeIndex {
+
+    public static final int DEFAULT_FANOUT = 16;
+
+    // number of bits per axis of the grid of the Hilbert packing, so that the Hilbert values fit in 30 bits
+    private static final int HILBERT_ORDER = 15;
+
+    private final int fanout;
+    // the position of the first entry of every level, followed by the total number of entries
+    private final int[] levelStarts;
+
+    private final double[] maxX;
+    private final double[] maxY;
+    private final double[] minX;
+    private final double[] minY;
+    private final int[] children;
+
+    public PackedRTreeIndex(EnvelopeStore envelopes) {
+        this(envelopes, DEFAULT_FANOUT, RTreePacking.STR);
+    }
+
+    /**
+     * @param envelopes the envelopes of the indexed geometries, whose positions are their ids
+     * @param fanout the maximum number of children per node, e.g., 16 to 64
+     * @param packing the order of the geometries in the leaves
+     */
+    public PackedRTreeIndex(EnvelopeStore envelopes, int fanout, RTreePacking packing) {
+        this.fanout = Math.max(2, fanout);
+
+        final int[] ids = getPackingOrder(envelopes, this.fanout, packing);
+
+        int noOfEntries = ids.length;
+        int noOfLevels = 1;
+        for (int levelSize = ids.length; 1 < levelSize; levelSize = (levelSize + this.fanout - 1) / this.fanout) {
+            noOfEntries += (levelSize + this.fanout - 1) / this.fanout;
+            noOfLevels++;
+        }
+
+        levelStarts = new int[noOfLevels + 1];
+        maxX = new double[noOfEntries];
+        maxY = new double[noOfEntries];
+        minX = new double[noOfEntries];
+        minY = new double[noOfEntries];
+        children = new int[noOfEntries];
+        for (int i = 0; i < ids.length; i++) {
+            maxX[i] = envelopes.getMaxX(ids[i]);
+            maxY[i] = envelopes.getMaxY(ids[i]);
+            minX[i] = envelopes.getMinX(ids[i]);
+            minY[i] = envelopes.getMinY(ids[i]);
+            children[i] = ids[i];
+        }
+
+        int position = ids.length;
+        levelStarts[1] = ids.length;
+        for (int level = 1; level < noOfLevels; level++) {
+            final int childStart = levelStarts[level - 1];
+            final int childEnd = levelStarts[level];
+            for (int child = childStart; child < childEnd; child += this.fanout) {
+                final int lastChild = Math.min(childEnd, child + this.fanout);
+                double nodeMaxX = Double.NEGATIVE_INFINITY;
+                double nodeMaxY = Double.NEGATIVE_INFINITY;
+                double nodeMinX = Double.POSITIVE_INFINITY;
+                double nodeMinY = Double.POSITIVE_INFINITY;
+                for (int i = child; i < lastChild; i++) {
+                    nodeMaxX = Math.max(nodeMaxX, maxX[i]);
+                    nodeMaxY = Math.max(nodeMaxY, maxY[i]);
+                    nodeMinX = Math.min(nodeMinX, minX[i]);
+                    nodeMinY = Math.min(nodeMinY, minY[i]);
+                }
+                maxX[position] = nodeMaxX;
+                maxY[position] = nodeMaxY;
+                minX[position] = nodeMinX;
+                minY[position] = nodeMinY;
+                children[position] = child;
+                position++;
+            }
+            levelStarts[level + 1] = position;
+        }
+    }
+
+    /**
+     * Sorts the ids of the given envelopes in the order of the given packing,
+     * skipping the empty geometries, which intersect nothing.
+     * @param fanout the number of entries per leaf
+     * @return the ids of the non-empty envelopes in the order they are packed into the leaves
+     */
+    public static int[] getPackingOrder(EnvelopeStore envelopes, int fanout, RTreePacking packing) {
+        final TIntList validIds = new TIntArrayList();
+        for (int i = 0; i < envelopes.size(); i++) {
+            if (envelopes.getMinX(i) <= envelopes.getMaxX(i) && envelopes.getMinY(i) <= envelopes.getMaxY(i)) {
+                validIds.add(i);
+            }
+        }
+
+        final int[] ids = validIds.toArray();
+        if (packing == RTreePacking.HILBERT) {
+            sortByHilbertValue(ids, envelopes);
+        } else {
+            sortByStr(ids, envelopes, fanout);
+        }
+        return ids;
+    }
+
+    /**
+     * @return the position of the given cell along the Hilbert curve of the HILBERT_ORDER grid
+     */
+    private static long getHilbertValue(int x, int y) {
+        final int maxCell = (1 << HILBERT_ORDER) - 1;
+        long hilbertValue = 0;
+        for (int s = 1 << (HILBERT_ORDER - 1); 0 < s; s >>= 1) {
+            final int rx = (x & s) != 0 ? 1 : 0;
+            final int ry = (y & s) != 0 ? 1 : 0;
+            hilbertValue += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = maxCell - x;
+                    y = maxCell - y;
+                }
+                final int temp = x;
+                x = y;
+                y = temp;
+            }
+        }
+        return hilbertValue;
+    }
+
+    /**
+     * @return the ids of the geometries whose envelopes intersect the given one
+     */
+    public TIntList rangeSearch(Envelope envelope) {
+        final TIntList geometryIds = new TIntArrayList();
+        final int root = minX.length - 1;
+        if (root < 0 || !intersects(root, envelope)) {
+            return geometryIds;
+        }
+
+        // pairs of the position and the level of the nodes to be visited
+        final TIntList stack = new TIntArrayList();
+        stack.add(root);
+        stack.add(levelStarts.length - 2);
+        while (!stack.isEmpty()) {
+            final int level = stack.removeAt(stack.size() - 1);
+            final int node = stack.removeAt(stack.size() - 1);
+            if (level == 0) {
+                geometryIds.add(children[node]);
+                continue;
+            }
+
+            final int lastChild = Math.min(levelStarts[level], children[node] + fanout);
+            for (int child = children[node]; child < lastChild; child++) {
+                if (intersects(child, envelope)) {
+                    stack.add(child);
+                    stack.add(level - 1);
+                }
+            }
+        }
+        return geometryIds;
+    }
+
+    private boolean intersects(int position, Envelope envelope) {
+        return minX[position] <= envelope.getMaxX() && envelope.getMinX() <= maxX[position]
+                && minY[position] <= envelope.getMaxY() && envelope.getMinY() <= maxY[position];
+    }
+
+    /**
+     * Sorts the given ids in ascending order of the given keys with parallel
+     * sorts of primitive arrays: every key is replaced by its rank among the
+     * sorted keys and the ids are sorted through long values that hold the
+     * rank in their high 32 bits and the id in the low ones.
+     */
+    private static void sortByKey(int[] ids, int from, int to, double[] keys) {
+        final double[] sortedKeys = new double[to - from];
+        for (int i = from; i < to; i++) {
+            sortedKeys[i - from] = keys[ids[i]];
+        }
+        Arrays.parallelSort(sortedKeys);
+
+        final long[] rankedIds = new long[to - from];
+        for (int i = from; i < to; i++) {
+            final long rank = Arrays.binarySearch(sortedKeys, keys[ids[i]]);
+            rankedIds[i - from] = (rank << 32) | ids[i];
+        }
+        Arrays.parallelSort(rankedIds);
+
+        for (int i = from; i < to; i++) {
+            ids[i] = (int) rankedIds[i - from];
+        }
+    }
+
+    /**
+     * Sorts the given ids by the Hilbert value of the centers of their
+     * envelopes on a grid over the bounding box of all of them.
+     */
+    private static void sortByHilbertValue(int[] ids, EnvelopeStore envelopes) {
+        double boxMaxX = Double.NEGATIVE_INFINITY;
+        double boxMaxY = Double.NEGATIVE_INFINITY;
+        double boxMinX = Double.POSITIVE_INFINITY;
+        double boxMinY = Double.POSITIVE_INFINITY;
+        for (int id : ids) {
+            final double centerX = (envelopes.getMinX(id) + envelopes.getMaxX(id)) / 2;
+            final double centerY = (envelopes.getMinY(id) + envelopes.getMaxY(id)) / 2;
+            boxMaxX = Math.max(boxMaxX, centerX);
+            boxMaxY = Math.max(boxMaxY, centerY);
+            boxMinX = Math.min(boxMinX, centerX);
+            boxMinY = Math.min(boxMinY, centerY);
+        }
+
+        final int maxCell = (1 << HILBERT_ORDER) - 1;
+        final double cellsPerUnitX = boxMinX < boxMaxX ? maxCell / (boxMaxX - boxMinX) : 0;
+        final double cellsPerUnitY = boxMinY < boxMaxY ? maxCell / (boxMaxY - boxMinY) : 0;
+        final long[] hilbertIds = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            final double centerX = (envelopes.getMinX(ids[i]) + envelopes.getMaxX(ids[i])) / 2;
+            final double centerY = (envelopes.getMinY(ids[i]) + envelopes.getMaxY(ids[i])) / 2;
+            final int x = (int) ((centerX - boxMinX) * cellsPerUnitX);
+            final int y = (int) ((centerY - boxMinY) * cellsPerUnitY);
+            hilbertIds[i] = (getHilbertValue(x, y) << 32) | ids[i];
+        }
+        Arrays.parallelSort(hilbertIds);
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (int) hilbertIds[i];
+        }
+    }
+
+    /**
+     * Sorts the given ids by the Sort-Tile-Recursive packing: by the x of the
+     * centers of their envelopes and then, within every vertical slice of
+     * sqrt(#leaves) leaves, by the y of the centers.
+     */
+    private static void sortByStr(int[] ids, EnvelopeStore envelopes, int fanout) {
+        final double[] centerX = new double[envelopes.size()];
+        final double[] centerY = new double[envelopes.size()];
+        for (int id : ids) {
+            centerX[id] = (envelopes.getMinX(id) + envelopes.getMaxX(id)) / 2;
+            centerY[id] = (envelopes.getMinY(id) + envelopes.getMaxY(id)) / 2;
+        }
+        sortByKey(ids, 0, ids.length, centerX);
+
+        final int noOfLeaves = (ids.length + fanout - 1) / fanout;
+        final int noOfSlices = (int) Math.ceil(Math.sqrt(noOfLeaves));
+        final int sliceSize = fanout * (int) Math.ceil(noOfLeaves / (double) Math.max(1, noOfSlices));
+        for (int from = 0; from < ids.length; from += sliceSize) {
+            sortByKey(ids, from, Math.min(ids.length, from + sliceSize), centerY);
+        }
+    }
+}
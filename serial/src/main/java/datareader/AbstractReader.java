@@ -2,7 +2,9 @@ package datareader;
 
 import com.esotericsoftware.minlog.Log;
 import datamodel.GeometryProfile;
+import datamodel.MappedGeometryStore;
 import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutput;
@@ -39,10 +41,34 @@ public abstract class AbstractReader implements IGeometryReader, Iterator<Geomet
         return geometryProfiles.toArray(new GeometryProfile[geometryProfiles.size()]);
     }
 
+    /**
+     * @return the namespace of the URIs of the geometries in the exported
+     * results, i.e., the URI of the input file followed by '#', so that the
+     * URI of every geometry ends with its id
+     */
+    public String getEntityNamespace() {
+        if (inputFilePath == null) {
+            throw new IllegalStateException("The dataset has no input file to derive the URIs of its geometries from");
+        }
+        return new File(inputFilePath).toURI() + "#";
+    }
+
     public int getSize() {
         return geometryProfiles.isEmpty() ? counter : geometryProfiles.size();
     }
     
+    /**
+     * Converts the remaining geometries of the reader into a binary file,
+     * which can be loaded by the Binary Reader or the Memory-mapped Reader
+     * much faster than the original input. The reader is closed afterwards.
+     * @param outputPath the path to the binary file
+     */
+    @Override
+    public void storeBinaryDataset(String outputPath) {
+        MappedGeometryStore.write(this, outputPath);
+        close();
+    }
+
     @Override
     public void storeSerializedObject(Object object, String outputPath) {
         try {
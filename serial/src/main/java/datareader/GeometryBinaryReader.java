@@ -0,0 +1,57 @@
+package datareader;
+
+import datamodel.DecodedGeometryCache;
+import datamodel.GeometryProfile;
+import datamodel.LazyGeometryProfile;
+
+/**
+ * Reader of the binary files that are created by storeBinaryDataset() of any
+ * reader. Unlike the Memory-mapped Reader, it loads all geometries into main
+ * memory, but decoding their WKB encoding from the mapped file is much faster
+ * than parsing the original input, e.g., the WKT of a CSV file, which pays off
+ * when the same dataset is processed repeatedly.
+ *
+ * In lazy mode, it loads only the envelopes and the WKB encodings, which are
+ * decoded when the geometries are verified (see LazyGeometryProfile).
+ */
+public class GeometryBinaryReader extends MappedGeometryReader {
+
+    private final boolean lazy;
+    private final DecodedGeometryCache cache;
+
+    public GeometryBinaryReader(String filePath) {
+        super(filePath);
+
+        lazy = false;
+        cache = null;
+    }
+
+    /**
+     * Loads the geometries lazily.
+     * @param maxCachedPoints the maximum number of points of all decoded geometries that are cached; 0 disables the cache
+     */
+    public GeometryBinaryReader(String filePath, int maxCachedPoints) {
+        super(filePath);
+
+        lazy = true;
+        cache = 0 < maxCachedPoints ? new DecodedGeometryCache(maxCachedPoints) : null;
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it loads the geometries of a dataset from a binary file into main memory.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Binary Reader";
+    }
+
+    @Override
+    protected GeometryProfile getProfile(int index, boolean streamed) {
+        if (lazy) {
+            return new LazyGeometryProfile(store.getEnvelope(index), store.getWkb(index), cache);
+        }
+        return new GeometryProfile(store.getGeometry(index));
+    }
+}
@@ -24,16 +24,16 @@ import org.apache.jena.atlas.json.JsonObject;
 
 public class GeometryCSVReader extends AbstractReader {
 
-    private final boolean attributeNamesInFirstRow;
+    protected final boolean attributeNamesInFirstRow;
 
-    private final char separator;
+    protected final char separator;
 
-    private final int geoIndex;
+    protected final int geoIndex;
 
     private CSVReader csvReader;
     private String[] nextRecord;
-    private String[] attributeNames;
-    private final TIntSet attributesToExclude;
+    protected String[] attributeNames;
+    protected final TIntSet attributesToExclude;
     private final WKTReader wktReader;
 
     public GeometryCSVReader(boolean attrFirstRow, char separator, int geoIndex, int[] toExclude, String filePath) {
@@ -262,17 +262,30 @@ public class GeometryCSVReader extends AbstractReader {
 
     @Override
     public GeometryProfile next() {
-        if (nextRecord.length < attributeNames.length - 1) {
-            Log.warn("Line with missing attribute names : " + Arrays.toString(nextRecord));
+        final GeometryProfile newProfile = getGeometryProfile(nextRecord, attributeNames, geoIndex, attributesToExclude, wktReader);
+        if (newProfile != null) {
+            counter++;
+        }
+        return newProfile;
+    }
+
+    /**
+     * Converts a record of the CSV file into a geometry profile.
+     * @return the new profile or null if the record is malformed or its geometry is invalid
+     */
+    static GeometryProfile getGeometryProfile(String[] record, String[] attributeNames, int geoIndex,
+                                              TIntSet attributesToExclude, WKTReader wktReader) {
+        if (record.length < attributeNames.length - 1) {
+            Log.warn("Line with missing attribute names : " + Arrays.toString(record));
             return null;
-        } else if (attributeNames.length < nextRecord.length) {
-            Log.warn("Line with more attributes : " + Arrays.toString(nextRecord));
+        } else if (attributeNames.length < record.length) {
+            Log.warn("Line with more attributes : " + Arrays.toString(record));
             return null;
         }
 
         Geometry geometry = null;
         try {
-            geometry = wktReader.read(nextRecord[geoIndex].trim());
+            geometry = wktReader.read(record[geoIndex].trim());
         } catch (ParseException ex) {
             Log.error("Error while reading geometry : " + ex.getMessage());
         }
@@ -293,12 +306,11 @@ public class GeometryCSVReader extends AbstractReader {
                 continue;
             }
 
-            if (!nextRecord[i].trim().isEmpty()) {
-                newProfile.addAttribute(attributeNames[i], nextRecord[i]);
+            if (!record[i].trim().isEmpty()) {
+                newProfile.addAttribute(attributeNames[i], record[i]);
             }
         }
 
-        counter++;
         return newProfile;
     }
 }
@@ -9,12 +9,31 @@ import org.apache.jena.atlas.json.JsonObject;
 import org.apache.jena.atlas.json.JsonValue;
 import org.geotools.geojson.geom.GeometryJSON;
 import org.locationtech.jts.geom.Geometry;
-import java.util.Iterator;
 
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Streaming GeoJSON reader: instead of parsing the whole document, it scans
+ * the input and extracts one feature at a time, so that its memory footprint
+ * depends on the size of the largest feature rather than the size of the file.
+ * It supports:
+ * - a FeatureCollection, whose "features" array is streamed,
+ * - a sequence of features, as in GeoJSONSeq (RFC 8142) or newline-delimited
+ *   GeoJSON files, with or without record separators,
+ * - a plain array of features.
+ */
 public class GeometryGeoJSONReader extends AbstractReader{
 
-    private Iterator<JsonValue> jsonIterator;
-    private JsonValue nextRecord;
+    private static final int END_OF_INPUT = -1;
+    private static final char RECORD_SEPARATOR = '\u001e';
+
+    private boolean inFeatureArray;
+    private int pushedBack;
+    private String nextRecord;
+    private final BufferedReader reader;
     private final GeometryJSON geometryJSON;
 
     public GeometryGeoJSONReader(String filePath) {
@@ -26,12 +45,76 @@ public class GeometryGeoJSONReader extends AbstractReader{
         }
 
         // set iterator
-        final JsonObject jsonObject = JSON.read(inputFilePath);
-        final JsonArray features = jsonObject.get("features").getAsArray();
-        jsonIterator = features.iterator();
+        try {
+            reader = new BufferedReader(new FileReader(inputFilePath), 1 << 16);
+        } catch (FileNotFoundException ex) {
+            Log.error("Error while creating reader : " + ex.getMessage());
+            throw new InputFileException("GeoJSON Reader input path not found.");
+        }
+        inFeatureArray = false;
+        pushedBack = END_OF_INPUT;
         geometryJSON = new GeometryJSON();
     }
 
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException ex) {
+            Log.warn("Error while closing GeoJSON Reader : " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Copies the JSON value that starts with the given character, i.e., an
+     * object, an array, a string or a literal, to the given buffer.
+     * @param builder the buffer of the value; null if the value is skipped
+     */
+    private void copyValue(int first, StringBuilder builder) throws IOException {
+        int c = first;
+        if (c != '{' && c != '[' && c != '"') { // a number, a boolean or null
+            while (c != END_OF_INPUT && c != ',' && c != ':' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+                append(builder, c);
+                c = read();
+            }
+            pushedBack = c;
+            return;
+        }
+
+        int depth = 0;
+        boolean inString = false;
+        while (true) {
+            if (c == END_OF_INPUT) {
+                throw new IOException("Unexpected end of input.");
+            }
+
+            append(builder, c);
+            if (inString) {
+                if (c == '\\') {
+                    append(builder, read());
+                } else if (c == '"') {
+                    inString = false;
+                    if (depth == 0) {
+                        return;
+                    }
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if ((c == '}' || c == ']') && --depth == 0) {
+                return;
+            }
+            c = read();
+        }
+    }
+
+    private static void append(StringBuilder builder, int c) {
+        if (builder != null) {
+            builder.append((char) c);
+        }
+    }
+
     @Override
     public String getMethodConfiguration() {
         return null;
@@ -70,21 +153,20 @@ public class GeometryGeoJSONReader extends AbstractReader{
     @Override
     public boolean hasNext() {
         try {
-            nextRecord = jsonIterator.next();
+            nextRecord = readNextFeature();
             return nextRecord != null;
-        } catch (Exception ex) {
+        } catch (IOException ex) {
+            Log.error("Error while reading next feature : " + ex.getMessage());
             return false;
         }
     }
 
     @Override
     public GeometryProfile next() {
-        String geometryStr = nextRecord.getAsObject().get("geometry")
-                .getAsObject().toString();
-
         GeometryProfile geometryProfile;
         try {
-            Geometry geometry = geometryJSON.read(geometryStr);
+            final JsonValue geometryValue = JSON.parseAny(nextRecord).getAsObject().get("geometry");
+            Geometry geometry = geometryJSON.read(geometryValue.getAsObject().toString());
             geometryProfile = new GeometryProfile(geometry);
         } catch (Exception ex) {
             Log.error("GeoTools: Error when reading geometry." + ex.getMessage());
@@ -95,8 +177,103 @@ public class GeometryGeoJSONReader extends AbstractReader{
         return geometryProfile;
     }
 
-    @Override
-    public void close() {
+    private int read() throws IOException {
+        if (pushedBack != END_OF_INPUT) {
+            final int c = pushedBack;
+            pushedBack = END_OF_INPUT;
+            return c;
+        }
+        return reader.read();
+    }
+
+    /**
+     * @return the text of the next feature or null if there are no more features
+     */
+    private String readNextFeature() throws IOException {
+        while (true) {
+            int c = readToken();
+            if (inFeatureArray) {
+                if (c == END_OF_INPUT) {
+                    throw new IOException("Unexpected end of input within the features.");
+                }
+                if (c == ']') {
+                    inFeatureArray = false;
+                    skipObjectRemainder();
+                    continue;
+                }
+
+                final StringBuilder feature = new StringBuilder();
+                copyValue(c, feature);
+                return feature.toString();
+            }
+
+            if (c == END_OF_INPUT) {
+                return null;
+            }
+
+            if (c == '[') { // a plain array of features
+                inFeatureArray = true;
+                continue;
+            }
+
+            if (c != '{') {
+                throw new IOException("Unexpected character '" + (char) c + "' instead of a feature.");
+            }
 
+            // the members of the top-level object are kept, unless it is a FeatureCollection
+            final StringBuilder object = new StringBuilder("{");
+            while ((c = readToken()) != '}') {
+                final StringBuilder key = new StringBuilder();
+                copyValue(c, key);
+                if (readToken() != ':') {
+                    throw new IOException("Expected ':' after key " + key + ".");
+                }
+
+                c = readToken();
+                if (key.toString().equals("\"features\"") && c == '[') {
+                    inFeatureArray = true;
+                    break;
+                }
+
+                if (1 < object.length()) {
+                    object.append(',');
+                }
+                object.append(key).append(':');
+                copyValue(c, object);
+            }
+
+            if (!inFeatureArray) {
+                return object.append('}').toString();
+            }
+        }
+    }
+
+    /**
+     * @return the next character that is not whitespace, a comma or a record separator
+     */
+    private int readToken() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == ',' || c == RECORD_SEPARATOR || Character.isWhitespace(c));
+        return c;
+    }
+
+    /**
+     * Skips the members of a FeatureCollection that follow its features.
+     */
+    private void skipObjectRemainder() throws IOException {
+        int c;
+        while ((c = readToken()) != '}') {
+            if (c == END_OF_INPUT) { // the features of a plain array
+                return;
+            }
+
+            copyValue(c, null);
+            if (readToken() != ':') {
+                throw new IOException("Expected ':' after key.");
+            }
+            copyValue(readToken(), null);
+        }
     }
 }
@@ -0,0 +1,219 @@
+package datareader;
+
+import com.esotericsoftware.minlog.Log;
+import datamodel.GeometryProfile;
+import exception.InputFileException;
+import org.apache.jena.atlas.json.JsonArray;
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.lang.PipedRDFIterator;
+import org.apache.jena.riot.lang.PipedTriplesStream;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Streaming RDF reader: unlike the RDF Reader, which loads the entire graph
+ * into a Jena Model, it parses the input with the streaming parser of RIOT in
+ * a separate thread and converts every triple whose predicate is one of the
+ * given geometry predicates into a geometry profile, as soon as it is parsed.
+ * The object of every such triple should be a WKT literal, optionally
+ * preceded by the IRI of its coordinate reference system, as in GeoSPARQL.
+ * Any syntax that is supported by RIOT can be read, e.g., N-Triples or Turtle;
+ * it is determined by the extension of the file.
+ */
+public class GeometryRDFStreamReader extends AbstractReader {
+
+    public static final String AS_WKT = "http://www.opengis.net/ont/geosparql#asWKT";
+
+    private static final int BUFFER_SIZE = 10000;
+
+    protected final Set<String> geometryPredicates;
+
+    private PipedRDFIterator<Triple> tripleIterator;
+    private Triple nextTriple;
+    private final WKTReader wktReader;
+
+    /**
+     * @param filePath the path to the RDF file
+     * @param geometryPredicates the IRIs of the predicates that associate the
+     * entities with their geometries; if empty, GeoSPARQL's asWKT is used
+     */
+    public GeometryRDFStreamReader(String filePath, Set<String> geometryPredicates) {
+        super(filePath);
+
+        if (inputFilePath == null) {
+            Log.error("Input file path has not been set!");
+            throw new InputFileException("Geometry RDF Stream Reader input path not given.");
+        }
+
+        this.geometryPredicates = geometryPredicates.isEmpty() ? Collections.singleton(AS_WKT) : new HashSet<>(geometryPredicates);
+        wktReader = new WKTReader();
+    }
+
+    @Override
+    public void close() {
+        if (tripleIterator != null) {
+            tripleIterator.close();
+        }
+    }
+
+    @Override
+    public String getMethodConfiguration() {
+        return getParameterName(0) + "=" + inputFilePath + "\t"
+                + getParameterName(1) + "=" + geometryPredicates;
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it streams the triples of an RDF file and converts those with a WKT literal into geometry profiles.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "RDF Stream Reader";
+    }
+
+    @Override
+    public String getMethodParameters() {
+        return getMethodName() + " involves two parameters:\n"
+                + "1)" + getParameterDescription(0) + ".\n"
+                + "2)" + getParameterDescription(1) + ".";
+    }
+
+    @Override
+    public JsonArray getParameterConfiguration() {
+        final JsonObject obj1 = new JsonObject();
+        obj1.put("class", "java.lang.String");
+        obj1.put("name", getParameterName(0));
+        obj1.put("defaultValue", "-");
+        obj1.put("minValue", "-");
+        obj1.put("maxValue", "-");
+        obj1.put("stepValue", "-");
+        obj1.put("description", getParameterDescription(0));
+
+        final JsonObject obj2 = new JsonObject();
+        obj2.put("class", "java.util.Set");
+        obj2.put("name", getParameterName(1));
+        obj2.put("defaultValue", AS_WKT);
+        obj2.put("minValue", "-");
+        obj2.put("maxValue", "-");
+        obj2.put("stepValue", "-");
+        obj2.put("description", getParameterDescription(1));
+
+        final JsonArray array = new JsonArray();
+        array.add(obj1);
+        array.add(obj2);
+        return array;
+    }
+
+    @Override
+    public String getParameterDescription(int parameterId) {
+        switch (parameterId) {
+            case 0:
+                return "The " + getParameterName(0) + " determines the absolute path to the RDF file that will be streamed.";
+            case 1:
+                return "The " + getParameterName(1) + " specifies the IRIs of the predicates whose objects are the WKT literals of the geometries.";
+            default:
+                return "invalid parameter id";
+        }
+    }
+
+    @Override
+    public String getParameterName(int parameterId) {
+        switch (parameterId) {
+            case 0:
+                return "File Path";
+            case 1:
+                return "Geometry Predicates";
+            default:
+                return "invalid parameter id";
+        }
+    }
+
+    /**
+     * Converts the given triple into a geometry profile.
+     * @return the new profile or null if the object is not a valid WKT literal
+     */
+    protected static GeometryProfile getGeometryProfile(Triple triple, WKTReader wktReader) {
+        String wkt = triple.getObject().getLiteralLexicalForm().trim();
+        if (wkt.startsWith("<")) { // the IRI of the coordinate reference system
+            wkt = wkt.substring(wkt.indexOf('>') + 1).trim();
+        }
+
+        try {
+            final Geometry geometry = wktReader.read(wkt);
+            if (geometry.getGeometryType().equals("GeometryCollection")) {
+                Log.error("Geometry collection was read!");
+                return null;
+            }
+            return new GeometryProfile(geometry);
+        } catch (ParseException ex) {
+            Log.error("Error while reading geometry of " + triple.getSubject() + " : " + ex.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextTriple != null) {
+            return true;
+        }
+
+        if (tripleIterator == null) {
+            startParser();
+        }
+
+        try {
+            while (tripleIterator.hasNext()) {
+                final Triple triple = tripleIterator.next();
+                if (isGeometryTriple(triple)) {
+                    nextTriple = triple;
+                    return true;
+                }
+            }
+        } catch (RiotException ex) {
+            Log.error("Error while streaming the input file : " + ex.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the predicate of the given triple is a geometry predicate and its object is a literal
+     */
+    protected boolean isGeometryTriple(Triple triple) {
+        final Node predicate = triple.getPredicate();
+        return predicate.isURI() && geometryPredicates.contains(predicate.getURI()) && triple.getObject().isLiteral();
+    }
+
+    @Override
+    public GeometryProfile next() {
+        final GeometryProfile newProfile = getGeometryProfile(nextTriple, wktReader);
+        nextTriple = null;
+        if (newProfile != null) {
+            counter++;
+        }
+        return newProfile;
+    }
+
+    private void startParser() {
+        tripleIterator = new PipedRDFIterator<>(BUFFER_SIZE);
+        final PipedTriplesStream tripleStream = new PipedTriplesStream(tripleIterator);
+        final Thread parser = new Thread(() -> {
+            try {
+                RDFDataMgr.parse(tripleStream, inputFilePath);
+            } catch (RiotException ex) { // the triples parsed so far are still consumed
+                Log.error("Error while parsing the input file : " + ex.getMessage());
+            }
+        });
+        parser.setDaemon(true);
+        parser.start();
+    }
+}
@@ -7,5 +7,7 @@ public interface IGeometryReader extends IDocumentation {
     
     GeometryProfile[] getGeometryProfiles();
     
+    void storeBinaryDataset(String outputPath);
+    
     void storeSerializedObject(Object object, String outputPath);
 }
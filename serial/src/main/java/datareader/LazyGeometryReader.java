@@ -0,0 +1,97 @@
+package datareader;
+
+import com.esotericsoftware.minlog.Log;
+import datamodel.DecodedGeometryCache;
+import datamodel.GeometryProfile;
+import datamodel.LazyGeometryProfile;
+import org.apache.jena.atlas.json.JsonArray;
+
+/**
+ * Wrapper of any reader that converts its profiles into lazy ones, which keep
+ * only the envelope and the WKB encoding of their geometry until it is
+ * verified (see LazyGeometryProfile). The input is still parsed once, but the
+ * parsed geometries are released, reducing the memory footprint of the
+ * dataset. Geometries that cannot be encoded as WKB, e.g., empty points, are
+ * kept as they are.
+ */
+public class LazyGeometryReader extends AbstractReader {
+
+    private final AbstractReader reader;
+    private final DecodedGeometryCache cache;
+
+    public LazyGeometryReader(AbstractReader reader) {
+        this(reader, 0);
+    }
+
+    /**
+     * @param reader the reader of the original dataset
+     * @param maxCachedPoints the maximum number of points of all decoded geometries that are cached; 0 disables the cache
+     */
+    public LazyGeometryReader(AbstractReader reader, int maxCachedPoints) {
+        super(reader.inputFilePath);
+
+        this.reader = reader;
+        cache = 0 < maxCachedPoints ? new DecodedGeometryCache(maxCachedPoints) : null;
+    }
+
+    @Override
+    public void close() {
+        reader.close();
+    }
+
+    @Override
+    public String getMethodConfiguration() {
+        return reader.getMethodConfiguration();
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it loads the geometries of the wrapped reader in WKB form, decoding them on demand.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Lazy " + reader.getMethodName();
+    }
+
+    @Override
+    public String getMethodParameters() {
+        return reader.getMethodParameters();
+    }
+
+    @Override
+    public JsonArray getParameterConfiguration() {
+        return reader.getParameterConfiguration();
+    }
+
+    @Override
+    public String getParameterDescription(int parameterId) {
+        return reader.getParameterDescription(parameterId);
+    }
+
+    @Override
+    public String getParameterName(int parameterId) {
+        return reader.getParameterName(parameterId);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return reader.hasNext();
+    }
+
+    @Override
+    public GeometryProfile next() {
+        final GeometryProfile profile = reader.next();
+        if (profile == null) {
+            return null;
+        }
+
+        counter++;
+        try {
+            return new LazyGeometryProfile(profile.getGeometry(), cache);
+        } catch (IllegalArgumentException ex) {
+            Log.warn("Geometry cannot be encoded as WKB and will be kept decoded : " + ex.getMessage());
+            return profile;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package datareader;
+
+import datamodel.GeometryProfile;
+import datamodel.MappedGeometryProfile;
+import datamodel.MappedGeometryStore;
+import org.apache.jena.atlas.json.JsonArray;
+import org.apache.jena.atlas.json.JsonObject;
+
+/**
+ * Reader over a dataset that is stored off-heap in a memory-mapped binary
+ * file (see MappedGeometryStore), so that it can be larger than the heap. It can be used as the source or the
+ * target reader of any algorithm: its profiles are lightweight handles whose
+ * geometries are decoded only when they are actually needed, e.g., for the
+ * candidate pairs that survive the filtering.
+ */
+public class MappedGeometryReader extends AbstractReader {
+
+    private int nextIndex;
+    private int recordId;
+    protected final MappedGeometryStore store;
+
+    /**
+     * Opens a dataset that has already been converted into the given binary file.
+     * @param filePath the path to the binary file
+     */
+    public MappedGeometryReader(String filePath) {
+        super(filePath);
+
+        nextIndex = 0;
+        recordId = 0;
+        store = new MappedGeometryStore(filePath);
+    }
+
+    /**
+     * Converts all geometries of the given reader into the given binary file
+     * and opens them from there.
+     * @param reader the reader of the original dataset, which is consumed and closed
+     * @param filePath the path to the binary file
+     */
+    public MappedGeometryReader(AbstractReader reader, String filePath) {
+        super(filePath);
+
+        reader.storeBinaryDataset(filePath);
+
+        nextIndex = 0;
+        recordId = 0;
+        store = new MappedGeometryStore(filePath);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public GeometryProfile[] getGeometryProfiles() {
+        final GeometryProfile[] profiles = new GeometryProfile[store.getSize()];
+        for (int i = 0; i < profiles.length; i++) {
+            profiles[i] = getProfile(i, false);
+        }
+        return profiles;
+    }
+
+    @Override
+    public String getMethodConfiguration() {
+        return getParameterName(0) + "=" + inputFilePath;
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it reads the geometries of a dataset from a memory-mapped binary file, decoding them on demand.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Memory-mapped Reader";
+    }
+
+    @Override
+    public String getMethodParameters() {
+        return getMethodName() + " involves a single parameter:\n"
+                + "1)" + getParameterDescription(0) + ".";
+    }
+
+    @Override
+    public JsonArray getParameterConfiguration() {
+        final JsonObject obj1 = new JsonObject();
+        obj1.put("class", "java.lang.String");
+        obj1.put("name", getParameterName(0));
+        obj1.put("defaultValue", "-");
+        obj1.put("minValue", "-");
+        obj1.put("maxValue", "-");
+        obj1.put("stepValue", "-");
+        obj1.put("description", getParameterDescription(0));
+
+        final JsonArray array = new JsonArray();
+        array.add(obj1);
+        return array;
+    }
+
+    @Override
+    public String getParameterDescription(int parameterId) {
+        switch (parameterId) {
+            case 0:
+                return "The " + getParameterName(0) + " determines the absolute path to the binary file of the dataset.";
+            default:
+                return "invalid parameter id";
+        }
+    }
+
+    @Override
+    public String getParameterName(int parameterId) {
+        switch (parameterId) {
+            case 0:
+                return "File Path";
+            default:
+                return "invalid parameter id";
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return store.getSize();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextIndex < store.getSize();
+    }
+
+    @Override
+    public GeometryProfile next() {
+        recordId++;
+        // records of the original input that were skipped are reported as null,
+        // so that the ids of the streamed geometries remain the same
+        if (recordId < store.getRecordId(nextIndex)) {
+            return null;
+        }
+
+        counter++;
+        return getProfile(nextIndex++, true);
+    }
+
+    /**
+     * @param index the position of the geometry in the store
+     * @param streamed true for the profiles that are returned one by one, e.g., the target geometries
+     */
+    protected GeometryProfile getProfile(int index, boolean streamed) {
+        return new MappedGeometryProfile(index, store, streamed);
+    }
+}
@@ -0,0 +1,174 @@
+package datareader;
+
+import com.esotericsoftware.minlog.Log;
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
+import datamodel.GeometryProfile;
+import exception.InputFileException;
+import org.locationtech.jts.io.WKTReader;
+import utilities.LineChunker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Multi-threaded version of the CSV Reader: the file is split into chunks of
+ * about CHUNK_SIZE bytes that are aligned on line boundaries and the lines of
+ * every chunk are parsed by a pool of threads, each one with its own WKT reader.
+ * The chunks are consumed in their order in the file, so the profiles are
+ * returned in the same order as by the CSV Reader, including the nulls of the
+ * invalid records, and the positional ids of the geometries remain the same.
+ *
+ * Unlike the CSV Reader, it assumes that every record lies in a single line,
+ * i.e., that quoted values do not contain line breaks.
+ */
+public class ParallelGeometryCSVReader extends GeometryCSVReader {
+
+    private static final int CHUNK_SIZE = 1 << 22;
+    private static final int CHUNKS_PER_THREAD = 2;
+
+    private int nextChunk;
+    private int nextPosition;
+    private final int noOfThreads;
+
+    private final Deque<Future<List<GeometryProfile>>> pendingChunks;
+    private final ExecutorService executor;
+    private List<GeometryProfile> currentChunk;
+    private final long[] chunkBoundaries;
+    private final ThreadLocal<WKTReader> wktReaders;
+
+    public ParallelGeometryCSVReader(boolean attrFirstRow, char separator, int geoIndex, int[] toExclude, String filePath) {
+        this(attrFirstRow, separator, geoIndex, toExclude, filePath, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelGeometryCSVReader(boolean attrFirstRow, char separator, int geoIndex, int[] toExclude, String filePath, int noOfThreads) {
+        super(attrFirstRow, separator, geoIndex, toExclude, filePath);
+
+        this.noOfThreads = Math.max(1, noOfThreads);
+        chunkBoundaries = getChunkBoundaries();
+
+        nextChunk = 0;
+        nextPosition = 0;
+        currentChunk = Collections.emptyList();
+        pendingChunks = new ArrayDeque<>();
+        wktReaders = ThreadLocal.withInitial(WKTReader::new);
+        executor = Executors.newFixedThreadPool(this.noOfThreads, runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        submitChunks();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        super.close();
+    }
+
+    /**
+     * @return the offsets of the chunks of the file, i.e., the start of every
+     * chunk followed by the end of the last one; the first chunk starts after
+     * the row with the attribute names
+     */
+    private long[] getChunkBoundaries() {
+        try {
+            long start = 0;
+            if (attributeNamesInFirstRow) {
+                try (RandomAccessFile file = new RandomAccessFile(inputFilePath, "r")) {
+                    start = LineChunker.getNextLineStart(file, 0);
+                }
+            }
+            return LineChunker.getChunkBoundaries(inputFilePath, start, CHUNK_SIZE);
+        } catch (IOException ex) {
+            Log.error("Error while splitting the input file : " + ex.getMessage());
+            throw new InputFileException("Parallel CSV Reader input path cannot be split.");
+        }
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it converts a CSV file into a set of geometry profiles, parsing its lines in parallel.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel CSV Reader";
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (nextPosition == currentChunk.size()) {
+            if (pendingChunks.isEmpty()) {
+                return false;
+            }
+
+            try {
+                currentChunk = pendingChunks.poll().get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                Log.error("Interrupted while reading the input file", ex);
+                return false;
+            } catch (ExecutionException ex) {
+                Log.error("Error while reading the input file", ex.getCause());
+                throw new InputFileException("Parallel CSV Reader input path cannot be read.");
+            }
+            nextPosition = 0;
+            submitChunks();
+        }
+        return true;
+    }
+
+    @Override
+    public GeometryProfile next() {
+        final GeometryProfile newProfile = currentChunk.get(nextPosition++);
+        if (newProfile != null) {
+            counter++;
+        }
+        return newProfile;
+    }
+
+    /**
+     * @return the profiles of the lines of the given chunk, in their order,
+     * with nulls for the invalid records
+     */
+    private List<GeometryProfile> readChunk(int chunkId) throws IOException {
+        final byte[] bytes = LineChunker.readChunk(inputFilePath, chunkBoundaries[chunkId], chunkBoundaries[chunkId + 1]);
+
+        // a parser keeps the state of multi-line records, thus it cannot be shared
+        final CSVParser parser = new CSVParserBuilder().withSeparator(separator).build();
+        final WKTReader wktReader = wktReaders.get();
+        final List<GeometryProfile> profiles = new ArrayList<>();
+        final String text = new String(bytes, Charset.defaultCharset());
+        try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] record = parser.parseLine(line);
+                profiles.add(getGeometryProfile(record, attributeNames, geoIndex, attributesToExclude, wktReader));
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Keeps up to CHUNKS_PER_THREAD chunks per thread under processing.
+     */
+    private void submitChunks() {
+        while (pendingChunks.size() < CHUNKS_PER_THREAD * noOfThreads && nextChunk < chunkBoundaries.length - 1) {
+            final int chunkId = nextChunk++;
+            pendingChunks.add(executor.submit(() -> readChunk(chunkId)));
+        }
+    }
+}
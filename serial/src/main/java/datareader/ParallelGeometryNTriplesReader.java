@@ -0,0 +1,187 @@
+package datareader;
+
+import com.esotericsoftware.minlog.Log;
+import datamodel.GeometryProfile;
+import exception.InputFileException;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.locationtech.jts.io.WKTReader;
+import utilities.LineChunker;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-threaded version of the RDF Stream Reader for N-Triples files: as
+ * every line is an independent triple, the file is split into chunks of about
+ * CHUNK_SIZE bytes that are aligned on line boundaries and are parsed by a
+ * pool of threads. The chunks are consumed in their order in the file, so the
+ * profiles are returned in the same order as by the RDF Stream Reader.
+ *
+ * Blank nodes are scoped to the chunk they appear in, which does not affect
+ * the geometries, as they are identified by their position. Like the RDF
+ * Stream Reader, it stops at the first malformed triple, so that the positions
+ * of the geometries are the same in both readers.
+ */
+public class ParallelGeometryNTriplesReader extends GeometryRDFStreamReader {
+
+    private static final int CHUNK_SIZE = 1 << 22;
+    private static final int CHUNKS_PER_THREAD = 2;
+
+    private int currentChunkId;
+    private int nextChunk;
+    private int nextPosition;
+    private final int noOfThreads;
+
+    // the lowest id of the chunks that contain a malformed triple
+    private final AtomicInteger firstMalformedChunk;
+    private final Deque<Future<List<GeometryProfile>>> pendingChunks;
+    private final ExecutorService executor;
+    private List<GeometryProfile> currentChunk;
+    private final long[] chunkBoundaries;
+    private final ThreadLocal<WKTReader> wktReaders;
+
+    public ParallelGeometryNTriplesReader(String filePath, Set<String> geometryPredicates) {
+        this(filePath, geometryPredicates, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelGeometryNTriplesReader(String filePath, Set<String> geometryPredicates, int noOfThreads) {
+        super(filePath, geometryPredicates);
+
+        this.noOfThreads = Math.max(1, noOfThreads);
+        try {
+            chunkBoundaries = LineChunker.getChunkBoundaries(inputFilePath, 0, CHUNK_SIZE);
+        } catch (IOException ex) {
+            Log.error("Error while splitting the input file : " + ex.getMessage());
+            throw new InputFileException("Parallel N-Triples Reader input path cannot be split.");
+        }
+
+        currentChunkId = -1;
+        nextChunk = 0;
+        nextPosition = 0;
+        currentChunk = Collections.emptyList();
+        firstMalformedChunk = new AtomicInteger(Integer.MAX_VALUE);
+        pendingChunks = new ArrayDeque<>();
+        wktReaders = ThreadLocal.withInitial(WKTReader::new);
+        executor = Executors.newFixedThreadPool(this.noOfThreads, runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        submitChunks();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Drops the chunks after a malformed one, as the RDF Stream Reader does not
+     * read past the first malformed triple.
+     */
+    private void discardChunks() {
+        for (Future<List<GeometryProfile>> chunk : pendingChunks) {
+            chunk.cancel(true);
+        }
+        pendingChunks.clear();
+        nextChunk = chunkBoundaries.length - 1;
+    }
+
+    @Override
+    public String getMethodInfo() {
+        return getMethodName() + ": it parses the lines of an N-Triples file in parallel and converts the triples with a WKT literal into geometry profiles.";
+    }
+
+    @Override
+    public String getMethodName() {
+        return "Parallel N-Triples Reader";
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (nextPosition == currentChunk.size()) {
+            if (pendingChunks.isEmpty()) {
+                return false;
+            }
+
+            try {
+                currentChunk = pendingChunks.poll().get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                Log.error("Interrupted while reading the input file", ex);
+                return false;
+            } catch (ExecutionException ex) {
+                Log.error("Error while reading the input file", ex.getCause());
+                throw new InputFileException("Parallel N-Triples Reader input path cannot be read.");
+            }
+            currentChunkId++;
+            nextPosition = 0;
+            if (currentChunkId == firstMalformedChunk.get()) {
+                discardChunks();
+            } else {
+                submitChunks();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public GeometryProfile next() {
+        final GeometryProfile newProfile = currentChunk.get(nextPosition++);
+        if (newProfile != null) {
+            counter++;
+        }
+        return newProfile;
+    }
+
+    /**
+     * @return the profiles of the geometry triples of the given chunk, in
+     * their order, with nulls for the invalid WKT literals; if the chunk
+     * contains a malformed triple, only the profiles before it
+     */
+    private List<GeometryProfile> readChunk(int chunkId) throws IOException {
+        final byte[] bytes = LineChunker.readChunk(inputFilePath, chunkBoundaries[chunkId], chunkBoundaries[chunkId + 1]);
+
+        final WKTReader wktReader = wktReaders.get();
+        final List<GeometryProfile> profiles = new ArrayList<>();
+        try {
+            RDFDataMgr.parse(new StreamRDFBase() {
+                @Override
+                public void triple(Triple triple) {
+                    if (isGeometryTriple(triple)) {
+                        profiles.add(getGeometryProfile(triple, wktReader));
+                    }
+                }
+            }, new ByteArrayInputStream(bytes), Lang.NTRIPLES);
+        } catch (RiotException ex) {
+            Log.error("Error while parsing chunk " + chunkId + " of the input file : " + ex.getMessage());
+            firstMalformedChunk.accumulateAndGet(chunkId, Math::min);
+        }
+        return profiles;
+    }
+
+    /**
+     * Keeps up to CHUNKS_PER_THREAD chunks per thread under processing.
+     */
+    private void submitChunks() {
+        while (pendingChunks.size() < CHUNKS_PER_THREAD * noOfThreads && nextChunk < chunkBoundaries.length - 1) {
+            final int chunkId = nextChunk++;
+            pendingChunks.add(executor.submit(() -> readChunk(chunkId)));
+        }
+    }
+}
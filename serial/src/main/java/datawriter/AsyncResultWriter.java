@@ -0,0 +1,254 @@
+package datawriter;
+
+import com.esotericsoftware.minlog.Log;
+import enums.Relation;
+import enums.ResultFormat;
+import org.apache.jena.tdb.base.file.FileException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writer of the related pairs that moves their encoding and output off the
+ * verification threads: writePair() merely appends the ids and the relation
+ * mask of every pair to a batch, while full batches are encoded and written
+ * by a background thread. The supported formats are:
+ * - N_TRIPLES: a triple per detected relation, with the GeoSPARQL predicates
+ *   and entity URIs that consist of an absolute namespace and the id of the
+ *   geometry,
+ * - TSV: a line per detected relation with the source id, the target id and
+ *   the name of the relation,
+ * - BINARY: a header with BINARY_MAGIC_NUMBER and BINARY_VERSION (ints),
+ *   followed by the source id, the target id (ints) and the relation mask
+ *   (short) of every pair.
+ * The output can optionally be compressed with gzip.
+ */
+public class AsyncResultWriter implements IResultWriter {
+
+    public static final int BINARY_MAGIC_NUMBER = 0x4A535052;
+    public static final int BINARY_VERSION = 1;
+
+    private static final int BATCH_SIZE = 3 * (1 << 14);
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_PENDING_BATCHES = 4;
+    private static final int[] END_OF_PAIRS = new int[0];
+    private static final String GEOSPARQL = "http://www.opengis.net/ont/geosparql#";
+
+    private int batchSize;
+    private int[] batch;
+
+    private final BlockingQueue<int[]> pendingBatches;
+    private final DataOutputStream output;
+    private volatile Throwable failure;
+    private final ResultFormat format;
+    private final String sourcePrefix;
+    private final String[] relationLabels;
+    private final String targetPrefix;
+    private final Thread writerThread;
+
+    /**
+     * Constructor for the formats without entity URIs, i.e., TSV and BINARY.
+     */
+    public AsyncResultWriter(String path, ResultFormat format, boolean compress) {
+        this(path, format, compress, null, null);
+    }
+
+    /**
+     * @param path the path to the output file
+     * @param format the format of the output file
+     * @param compress true if the output is compressed with gzip
+     * @param sourceNamespace the absolute namespace of the URIs of the source geometries in N-Triples, e.g., http://example.org/source/
+     * @param targetNamespace the absolute namespace of the URIs of the target geometries in N-Triples
+     * @throws IllegalArgumentException if the format is N_TRIPLES and a namespace is missing or relative
+     */
+    public AsyncResultWriter(String path, ResultFormat format, boolean compress, String sourceNamespace, String targetNamespace) {
+        if (format == ResultFormat.N_TRIPLES && (!isAbsolute(sourceNamespace) || !isAbsolute(targetNamespace))) {
+            throw new IllegalArgumentException("N-Triples export requires absolute namespaces for the URIs of the geometries : "
+                    + sourceNamespace + " , " + targetNamespace);
+        }
+
+        this.format = format;
+        sourcePrefix = "<" + sourceNamespace;
+        targetPrefix = "<" + targetNamespace;
+        relationLabels = new String[Relation.values().length];
+        for (Relation relation : Relation.values()) {
+            relationLabels[relation.ordinal()] = format == ResultFormat.N_TRIPLES ? "> " + getPredicate(relation) + " " : relation.name();
+        }
+
+        try {
+            OutputStream stream = new BufferedOutputStream(new FileOutputStream(path), BUFFER_SIZE);
+            if (compress) {
+                stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+            }
+            output = new DataOutputStream(stream);
+            if (format == ResultFormat.BINARY) {
+                output.writeInt(BINARY_MAGIC_NUMBER);
+                output.writeInt(BINARY_VERSION);
+            }
+        } catch (IOException ex) {
+            Log.error("Something went wrong when creating an output file");
+            throw new FileException("Result Export File Creation Exception");
+        }
+
+        batchSize = 0;
+        batch = new int[BATCH_SIZE];
+        pendingBatches = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+        writerThread = new Thread(this::writeBatches);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Writes the remaining pairs and waits for the background thread to finish.
+     */
+    @Override
+    public synchronized void close() {
+        submitBatch();
+        enqueue(END_OF_PAIRS);
+        try {
+            writerThread.join();
+            output.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            Log.error("Interrupted while closing result writer");
+        } catch (IOException ex) {
+            Log.error("Something went wrong when closing result writer");
+            throw new FileException("Result Writer Close Exception");
+        }
+
+        if (failure != null) {
+            Log.error("Something went wrong when exporting pairs", failure);
+            throw new FileException("Result Export File Exception");
+        }
+    }
+
+    private void encode(int[] pairs) throws IOException {
+        if (format == ResultFormat.BINARY) {
+            for (int i = 0; i < pairs.length; i += 3) {
+                output.writeInt(pairs[i]);
+                output.writeInt(pairs[i + 1]);
+                output.writeShort(pairs[i + 2]);
+            }
+            return;
+        }
+
+        final StringBuilder text = new StringBuilder(32 * pairs.length);
+        for (int i = 0; i < pairs.length; i += 3) {
+            for (Relation relation : Relation.values()) {
+                if (!relation.isIn(pairs[i + 2])) {
+                    continue;
+                }
+
+                if (format == ResultFormat.N_TRIPLES) {
+                    text.append(sourcePrefix).append(pairs[i]).append(relationLabels[relation.ordinal()])
+                            .append(targetPrefix).append(pairs[i + 1]).append("> .\n");
+                } else {
+                    text.append(pairs[i]).append('\t').append(pairs[i + 1]).append('\t')
+                            .append(relationLabels[relation.ordinal()]).append('\n');
+                }
+            }
+        }
+        output.write(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void enqueue(int[] pairs) {
+        try {
+            pendingBatches.put(pairs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            Log.error("Interrupted while exporting pairs");
+            throw new FileException("Result Export File Exception");
+        }
+    }
+
+    private static String getPredicate(Relation relation) {
+        switch (relation) {
+            case CONTAINS:
+                return "<" + GEOSPARQL + "sfContains>";
+            case COVERED_BY:
+                return "<" + GEOSPARQL + "sfCoveredBy>";
+            case COVERS:
+                return "<" + GEOSPARQL + "sfCovers>";
+            case CROSSES:
+                return "<" + GEOSPARQL + "sfCrosses>";
+            case EQUALS:
+                return "<" + GEOSPARQL + "sfEquals>";
+            case INTERSECTS:
+                return "<" + GEOSPARQL + "sfIntersects>";
+            case OVERLAPS:
+                return "<" + GEOSPARQL + "sfOverlaps>";
+            case TOUCHES:
+                return "<" + GEOSPARQL + "sfTouches>";
+            case WITHIN:
+                return "<" + GEOSPARQL + "sfWithin>";
+        }
+        return null;
+    }
+
+    private static boolean isAbsolute(String namespace) {
+        if (namespace == null) {
+            return false;
+        }
+
+        try {
+            return new URI(namespace).isAbsolute();
+        } catch (URISyntaxException ex) {
+            return false;
+        }
+    }
+
+    private void submitBatch() {
+        if (batchSize == 0) {
+            return;
+        }
+
+        enqueue(batchSize == batch.length ? batch : Arrays.copyOf(batch, batchSize));
+        batch = new int[BATCH_SIZE];
+        batchSize = 0;
+    }
+
+    /**
+     * The loop of the background thread; after any failure, including runtime
+     * exceptions and errors, it keeps consuming the batches, so that the
+     * verification threads never block.
+     */
+    private void writeBatches() {
+        try {
+            int[] pairs;
+            while ((pairs = pendingBatches.take()) != END_OF_PAIRS) {
+                if (failure == null) {
+                    try {
+                        encode(pairs);
+                    } catch (Throwable th) {
+                        failure = th;
+                    }
+                }
+            }
+            output.flush();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable th) {
+            failure = th;
+        }
+    }
+
+    @Override
+    public synchronized void writePair(int sourceId, int targetId, int relationMask) {
+        batch[batchSize++] = sourceId;
+        batch[batchSize++] = targetId;
+        batch[batchSize++] = relationMask;
+        if (batchSize == batch.length) {
+            submitBatch();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package datawriter;
+
+/**
+ * Exports the related pairs that are detected during verification.
+ */
+public interface IResultWriter {
+
+    /**
+     * @param relationMask the relations that hold for the pair, with one bit per Relation
+     */
+    void writePair(int sourceId, int targetId, int relationMask);
+
+    void close();
+}
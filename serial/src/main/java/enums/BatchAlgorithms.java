@@ -1,10 +1,13 @@
 package enums;
 
 import batch.partitionbased.PBSM;
+import batch.partitionbased.ParallelPBSM;
+import batch.planesweep.ForwardScanPlaneSweep;
 import batch.planesweep.PlaneSweep;
 import batch.stripebased.StripeSTRSweep;
 import batch.stripebased.StripeSweep;
 import batch.tilebased.GIAnt;
+import batch.tilebased.ParallelRADON;
 import batch.tilebased.RADON;
 import batch.treebased.CRTree;
 import batch.treebased.QuadTree;
@@ -23,7 +26,12 @@ public enum BatchAlgorithms {
     QUAD_TREE,
     CR_TREE,
     STRIP_SWEEP,
-    STRIP_STR_SWEEP;
+    STRIP_STR_SWEEP,
+    PARALLEL_RADON,
+    PARALLEL_PBSM,
+    PLANE_SWEEP_INTERVAL,
+    PBSM_INTERVAL,
+    FORWARD_SCAN_PLANE_SWEEP;
 
     public static void runAlgorithm(BatchAlgorithms batchAlgorithms, AbstractReader sourceReader, AbstractReader targetReader) {
         switch (batchAlgorithms) {
@@ -92,6 +100,36 @@ public enum BatchAlgorithms {
                 stripeSTRSweep.applyProcessing();
                 stripeSTRSweep.printResults();
                 break;
+
+            case PARALLEL_RADON:
+                ParallelRADON parallelRadon = new ParallelRADON(0, sourceReader, targetReader);
+                parallelRadon.applyProcessing();
+                parallelRadon.printResults();
+                break;
+
+            case PARALLEL_PBSM:
+                ParallelPBSM parallelPbsm = new ParallelPBSM(0, sourceReader, targetReader, PlaneSweepStructure.LIST_SWEEP);
+                parallelPbsm.applyProcessing();
+                parallelPbsm.printResults();
+                break;
+
+            case PLANE_SWEEP_INTERVAL:
+                PlaneSweep planeSweepInterval = new PlaneSweep(0, sourceReader, targetReader, PlaneSweepStructure.INTERVAL_SWEEP);
+                planeSweepInterval.applyProcessing();
+                planeSweepInterval.printResults();
+                break;
+
+            case PBSM_INTERVAL:
+                PBSM pbsmInterval = new PBSM(0, sourceReader, targetReader, PlaneSweepStructure.INTERVAL_SWEEP);
+                pbsmInterval.applyProcessing();
+                pbsmInterval.printResults();
+                break;
+
+            case FORWARD_SCAN_PLANE_SWEEP:
+                ForwardScanPlaneSweep forwardScan = new ForwardScanPlaneSweep(0, sourceReader, targetReader);
+                forwardScan.applyProcessing();
+                forwardScan.printResults();
+                break;
         }
     }
 
@@ -162,6 +200,36 @@ public enum BatchAlgorithms {
                 stripeSTRSweep.applyProcessing();
                 stripeSTRSweep.printResults();
                 break;
+
+            case PARALLEL_RADON:
+                ParallelRADON parallelRadon = new ParallelRADON(0, sourceReader, targetReader, exportFile);
+                parallelRadon.applyProcessing();
+                parallelRadon.printResults();
+                break;
+
+            case PARALLEL_PBSM:
+                ParallelPBSM parallelPbsm = new ParallelPBSM(0, sourceReader, targetReader, PlaneSweepStructure.LIST_SWEEP, exportFile);
+                parallelPbsm.applyProcessing();
+                parallelPbsm.printResults();
+                break;
+
+            case PLANE_SWEEP_INTERVAL:
+                PlaneSweep planeSweepInterval = new PlaneSweep(0, sourceReader, targetReader, PlaneSweepStructure.INTERVAL_SWEEP, exportFile);
+                planeSweepInterval.applyProcessing();
+                planeSweepInterval.printResults();
+                break;
+
+            case PBSM_INTERVAL:
+                PBSM pbsmInterval = new PBSM(0, sourceReader, targetReader, PlaneSweepStructure.INTERVAL_SWEEP, exportFile);
+                pbsmInterval.applyProcessing();
+                pbsmInterval.printResults();
+                break;
+
+            case FORWARD_SCAN_PLANE_SWEEP:
+                ForwardScanPlaneSweep forwardScan = new ForwardScanPlaneSweep(0, sourceReader, targetReader, exportFile);
+                forwardScan.applyProcessing();
+                forwardScan.printResults();
+                break;
         }
     }
 }
@@ -12,7 +12,8 @@ public enum DataType {
     TSV,
     GeoJSON,
     JSONRDF,
-    RDF;
+    RDF,
+    Binary;
 
     public static AbstractReader getReader(DataType dataType, String filepath) {
 
@@ -39,6 +40,9 @@ public enum DataType {
 
             case GeoJSON:
                 return new GeometryGeoJSONReader(filepath);
+
+            case Binary:
+                return new GeometryBinaryReader(filepath);
         }
 
         return null;
@@ -5,5 +5,6 @@ public enum InputDataType {
     GeoJSON,
     JSONRDF,
     RDF,
-    Serialization
+    Serialization,
+    Binary
 }
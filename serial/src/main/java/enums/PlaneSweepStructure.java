@@ -2,5 +2,6 @@ package enums;
 
 public enum PlaneSweepStructure {
     LIST_SWEEP,
-    STRIPED_SWEEP
+    STRIPED_SWEEP,
+    INTERVAL_SWEEP
 }
@@ -0,0 +1,11 @@
+package enums;
+
+/**
+ * The order in which the geometries are packed into the leaves of a bulk-loaded R-Tree:
+ * - STR: Sort-Tile-Recursive, i.e., vertical slices sorted by the y of the centers,
+ * - HILBERT: ascending order of the Hilbert value of the centers.
+ */
+public enum RTreePacking {
+    STR,
+    HILBERT
+}
@@ -0,0 +1,44 @@
+package enums;
+
+/**
+ * The topological relations of the DE-9IM model that are detected between
+ * source and target geometries. Every relation corresponds to one bit of the
+ * relation masks stored by RelatedGeometries.
+ */
+public enum Relation {
+    CONTAINS,
+    COVERED_BY,
+    COVERS,
+    CROSSES,
+    EQUALS,
+    INTERSECTS,
+    OVERLAPS,
+    TOUCHES,
+    WITHIN;
+
+    /**
+     * @return the mask with the bits of the given relations
+     */
+    public static int getMask(Relation... relations) {
+        int mask = 0;
+        for (Relation relation : relations) {
+            mask |= relation.getMask();
+        }
+        return mask;
+    }
+
+    /**
+     * @return the mask with the bits of all relations
+     */
+    public static int getAllMask() {
+        return (1 << values().length) - 1;
+    }
+
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    public boolean isIn(int mask) {
+        return (mask & getMask()) != 0;
+    }
+}
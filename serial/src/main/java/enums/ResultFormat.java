@@ -0,0 +1,10 @@
+package enums;
+
+/**
+ * The formats of the files with the related pairs, see AsyncResultWriter.
+ */
+public enum ResultFormat {
+    BINARY,
+    N_TRIPLES,
+    TSV
+}
@@ -2,7 +2,7 @@ package progressiveAlgorithms;
 
 import datareader.AbstractReader;
 import datamodel.GeometryProfile;
-import datamodel.LightIndex;
+import datamodel.FlatGridIndex;
 import datamodel.RelatedGeometries;
 import datamodel.Tile;
 import utilities.WeightingScheme;
@@ -26,7 +26,7 @@ public abstract class AbstractProgressiveAlgorithm implements IDocumentation {
     protected final AbstractReader targetReader;
     protected ChiSquareTest chiSquaredTest;
     protected final GeometryProfile[] sourceData;
-    protected LightIndex spatialIndex;
+    protected FlatGridIndex spatialIndex;
     protected final RelatedGeometries relations;
     protected final WeightingScheme wScheme;
 
@@ -54,25 +54,12 @@ public abstract class AbstractProgressiveAlgorithm implements IDocumentation {
         this.targetReader = targetReader;
         
         datasetDelimiter = sourceData.length;
-        relations = new RelatedGeometries(qPairs, exportPath);
+        relations = new RelatedGeometries(qPairs, exportPath, sourceReader.getEntityNamespace(), targetReader.getEntityNamespace());
         if (wScheme.equals(WeightingScheme.X2)) {
             chiSquaredTest = new ChiSquareTest();
         }
     }
 
-    protected void addToIndex(int geometryId, Envelope envelope, LightIndex spatialIndex) {
-        int maxX = (int) Math.ceil(envelope.getMaxX() / thetaX);
-        int maxY = (int) Math.ceil(envelope.getMaxY() / thetaY);
-        int minX = (int) Math.floor(envelope.getMinX() / thetaX);
-        int minY = (int) Math.floor(envelope.getMinY() / thetaY);
-
-        for (int latIndex = minX; latIndex <= maxX; latIndex++) {
-            for (int longIndex = minY; longIndex <= maxY; longIndex++) {
-                spatialIndex.add(latIndex, longIndex, geometryId);
-            }
-        }
-    }
-
     public void applyProcessing() {
         long time1 = System.currentTimeMillis();
         filtering();
@@ -105,7 +92,7 @@ public abstract class AbstractProgressiveAlgorithm implements IDocumentation {
             case CF:
                 return commonBlocks;
             case JS:
-                final Envelope sourceEnv = sourceData[sourceId].getGeometry().getEnvelopeInternal();
+                final Envelope sourceEnv = sourceData[sourceId].getEnvelope();
                 return commonBlocks / (getNoOfBlocks(sourceEnv) + getNoOfBlocks(targetEnv) - commonBlocks);
             case X2:
                 long[] va  = new long[2];
@@ -113,7 +100,7 @@ public abstract class AbstractProgressiveAlgorithm implements IDocumentation {
                 va[1] = getNoOfBlocks(targetEnv) - va[0];
 
                 long[] va_ = new long[2];
-                va_[0] = getNoOfBlocks(sourceData[sourceId].getGeometry().getEnvelopeInternal()) - va[0];
+                va_[0] = getNoOfBlocks(sourceData[sourceId].getEnvelope()) - va[0];
                 va_[1] = (int) Math.max(1, noOfApproxBlocks - (va[0] + va[1] + va_[0]));
 
                 return (float) chiSquaredTest.chiSquare(new long[][]{va, va_});
@@ -123,10 +110,7 @@ public abstract class AbstractProgressiveAlgorithm implements IDocumentation {
     }
 
     protected void indexSource() {
-        spatialIndex = new LightIndex();
-        for (int i = 0; i < datasetDelimiter; i++) {
-            addToIndex(i, sourceData[i].getGeometry().getEnvelopeInternal(), spatialIndex);
-        }
+        spatialIndex = new FlatGridIndex(thetaX, thetaY, sourceData);
 
         if (wScheme.equals(WeightingScheme.X2)) {
             setApproximateNoOfBlocks();
@@ -147,7 +131,7 @@ public abstract class AbstractProgressiveAlgorithm implements IDocumentation {
         int globalMinX = 0;
         int globalMinY = 0;
         for (GeometryProfile sEntity : sourceData) {
-            final Envelope envelope = sEntity.getGeometry().getEnvelopeInternal();
+            final Envelope envelope = sEntity.getEnvelope();
             int maxX = (int) Math.ceil(envelope.getMaxX() / thetaX);
             int maxY = (int) Math.ceil(envelope.getMaxY() / thetaY);
             int minX = (int) Math.floor(envelope.getMinX() / thetaX);
@@ -1,13 +1,12 @@
 package progressiveAlgorithms;
 
 import com.google.common.collect.MinMaxPriorityQueue;
+import datamodel.CandidateBuffer;
 import datamodel.GeometryProfile;
 import datamodel.Pair;
 import datamodel.WeightedGeometry;
 import datareader.AbstractReader;
 import utilities.WeightingScheme;
-import gnu.trove.iterator.TIntIterator;
-import gnu.trove.set.TIntSet;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -49,13 +48,11 @@ public class GeometryOrderedAlgorithm extends IterativeAlgorithm {
                 continue;
             }
 
-            final TIntSet candidateMatches = getCandidates(counter, profile.getGeometry());
-
-            final TIntIterator intIterator = candidateMatches.iterator();
-            while (intIterator.hasNext()) {
-                int candidateMatchId = intIterator.next();
-                if (validCandidate(candidateMatchId, profile.getGeometry().getEnvelopeInternal(), null)) {
-                    float weight = getWeight(candidateMatchId, profile.getGeometry().getEnvelopeInternal());
+            final CandidateBuffer candidateMatches = getCandidates(profile.getGeometry());
+            for (int i = 0; i < candidateMatches.size(); i++) {
+                int candidateMatchId = candidateMatches.get(i);
+                if (validCandidate(candidateMatchId, profile.getEnvelope(), null)) {
+                    float weight = getWeight(candidateMatchId, profile.getEnvelope());
                     if (minimumWeights[candidateMatchId] < weight) {
                         final Pair p = new Pair(candidateMatchId, counter, weight, profile.getGeometry());
                         localTopKPairs[candidateMatchId].add(p);
@@ -1,12 +1,11 @@
 package progressiveAlgorithms;
 
 import com.google.common.collect.MinMaxPriorityQueue;
+import datamodel.CandidateBuffer;
 import datamodel.GeometryProfile;
 import datamodel.Pair;
 import datareader.AbstractReader;
 import utilities.WeightingScheme;
-import gnu.trove.iterator.TIntIterator;
-import gnu.trove.set.TIntSet;
 import org.apache.jena.atlas.json.JsonArray;
 import utilities.IncPairWeightComparator;
 
@@ -44,13 +43,11 @@ public class IterativeAlgorithm extends ProgressiveGIAnt {
                 continue;
             }
 
-            final TIntSet candidateMatches = getCandidates(counter, profile.getGeometry());
-
-            final TIntIterator intIterator = candidateMatches.iterator();
-            while (intIterator.hasNext()) {
-                int candidateMatchId = intIterator.next();
-                if (validCandidate(candidateMatchId, profile.getGeometry().getEnvelopeInternal(), null)) {
-                    float weight = getWeight(candidateMatchId, profile.getGeometry().getEnvelopeInternal());
+            final CandidateBuffer candidateMatches = getCandidates(profile.getGeometry());
+            for (int i = 0; i < candidateMatches.size(); i++) {
+                int candidateMatchId = candidateMatches.get(i);
+                if (validCandidate(candidateMatchId, profile.getEnvelope(), null)) {
+                    float weight = getWeight(candidateMatchId, profile.getEnvelope());
                     if (minimumWeights[candidateMatchId] < weight) {
                         final Pair p = new Pair(candidateMatchId, counter, weight, profile.getGeometry());
                         localTopKPairs[candidateMatchId].add(p);
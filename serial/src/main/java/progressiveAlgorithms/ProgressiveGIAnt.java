@@ -1,15 +1,12 @@
 package progressiveAlgorithms;
 
 import com.google.common.collect.MinMaxPriorityQueue;
+import datamodel.CandidateBuffer;
 import datamodel.GeometryProfile;
 import datamodel.Pair;
 import datamodel.Tile;
 import datareader.AbstractReader;
 import utilities.WeightingScheme;
-import gnu.trove.iterator.TIntIterator;
-import gnu.trove.list.TIntList;
-import gnu.trove.set.TIntSet;
-import gnu.trove.set.hash.TIntHashSet;
 import org.apache.jena.atlas.json.JsonArray;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
@@ -17,9 +14,10 @@ import utilities.IncPairWeightComparator;
 
 public class ProgressiveGIAnt extends AbstractProgressiveAlgorithm {
 
-    protected int[] flag;
     protected int[] frequency;
 
+    protected final CandidateBuffer candidateMatches;
+
     protected double minimumWeight;
 
     protected MinMaxPriorityQueue topKPairs;
@@ -30,7 +28,7 @@ public class ProgressiveGIAnt extends AbstractProgressiveAlgorithm {
         super(budget, qPairs, sourceReader, targetReader, wScheme);
 
         minimumWeight = 0;
-        flag = new int[datasetDelimiter];
+        candidateMatches = new CandidateBuffer(datasetDelimiter);
         frequency = new int[datasetDelimiter];
         topKPairs = MinMaxPriorityQueue.orderedBy(new IncPairWeightComparator()).maximumSize(2 * budget).create();
     }
@@ -41,34 +39,34 @@ public class ProgressiveGIAnt extends AbstractProgressiveAlgorithm {
         super(budget, qPairs, sourceReader, targetReader, wScheme, exportPath);
 
         minimumWeight = 0;
-        flag = new int[datasetDelimiter];
+        candidateMatches = new CandidateBuffer(datasetDelimiter);
         frequency = new int[datasetDelimiter];
         topKPairs = MinMaxPriorityQueue.orderedBy(new IncPairWeightComparator()).maximumSize(2 * budget).create();
     }
 
-    protected TIntSet getCandidates(int referenceId, Geometry tEntity) {
-        final TIntSet candidateMatches = new TIntHashSet();
+    // the returned buffer is reused by the next call
+    protected CandidateBuffer getCandidates(Geometry tEntity) {
+        candidateMatches.clear();
 
         final Envelope envelope = tEntity.getEnvelopeInternal();
-        int maxX = (int) Math.ceil(envelope.getMaxX() / thetaX);
-        int maxY = (int) Math.ceil(envelope.getMaxY() / thetaY);
-        int minX = (int) Math.floor(envelope.getMinX() / thetaX);
-        int minY = (int) Math.floor(envelope.getMinY() / thetaY);
+        int maxX = spatialIndex.getMaxLat(envelope);
+        int maxY = spatialIndex.getMaxLon(envelope);
+        int minX = spatialIndex.getMinLat(envelope);
+        int minY = spatialIndex.getMinLon(envelope);
 
         for (int latIndex = minX; latIndex <= maxX; latIndex++) {
             for (int longIndex = minY; longIndex <= maxY; longIndex++) {
-                final TIntList partialCandidates = spatialIndex.getSquare(latIndex, longIndex);
-                if (partialCandidates != null) {
-                    final TIntIterator iterator = partialCandidates.iterator();
-                    while (iterator.hasNext()) {
-                        int currentId = iterator.next();
-                        if (flag[currentId] != referenceId) {
-                            flag[currentId] = referenceId;
-                            frequency[currentId] = 0;
-                        }
-                        frequency[currentId]++;
-                        candidateMatches.add(currentId);
+                final int cell = spatialIndex.getCellIndex(latIndex, longIndex);
+                if (cell < 0) {
+                    continue;
+                }
+
+                for (int i = spatialIndex.getCellStart(cell); i < spatialIndex.getCellEnd(cell); i++) {
+                    int currentId = spatialIndex.getGeometryId(i);
+                    if (candidateMatches.add(currentId)) {
+                        frequency[currentId] = 0;
                     }
+                    frequency[currentId]++;
                 }
             }
         }
@@ -96,13 +94,11 @@ public class ProgressiveGIAnt extends AbstractProgressiveAlgorithm {
                 continue;
             }
             
-            final TIntSet candidateMatches = getCandidates(counter, profile.getGeometry());
-
-            final TIntIterator intIterator = candidateMatches.iterator();
-            while (intIterator.hasNext()) {
-                int candidateMatchId = intIterator.next();
-                if (validCandidate(candidateMatchId, profile.getGeometry().getEnvelopeInternal(), null)) {
-                    float weight = getWeight(candidateMatchId, profile.getGeometry().getEnvelopeInternal());
+            final CandidateBuffer candidateMatches = getCandidates(profile.getGeometry());
+            for (int i = 0; i < candidateMatches.size(); i++) {
+                int candidateMatchId = candidateMatches.get(i);
+                if (validCandidate(candidateMatchId, profile.getEnvelope(), null)) {
+                    float weight = getWeight(candidateMatchId, profile.getEnvelope());
                     if (minimumWeight < weight) {
                         final Pair p = new Pair(candidateMatchId, counter, weight, profile.getGeometry());
                         topKPairs.add(p);
@@ -123,7 +119,7 @@ public class ProgressiveGIAnt extends AbstractProgressiveAlgorithm {
         thetaX = 0;
         thetaY = 0;
         for (GeometryProfile sEntity : sourceData) {
-            final Envelope en = sEntity.getGeometry().getEnvelopeInternal();
+            final Envelope en = sEntity.getEnvelope();
             thetaX += en.getWidth();
             thetaY += en.getHeight();
         }
@@ -134,7 +130,7 @@ public class ProgressiveGIAnt extends AbstractProgressiveAlgorithm {
 
     @Override
     protected boolean validCandidate(int candidateId, Envelope e2, Tile bTile) {
-        return sourceData[candidateId].getGeometry().getEnvelopeInternal().intersects(e2);
+        return sourceData[candidateId].getEnvelope().intersects(e2);
     }
 
     @Override
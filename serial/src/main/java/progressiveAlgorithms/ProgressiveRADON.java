@@ -2,11 +2,8 @@ package progressiveAlgorithms;
 
 import datamodel.*;
 import datareader.AbstractReader;
-import gnu.trove.iterator.TIntIterator;
-import gnu.trove.iterator.TIntObjectIterator;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
-import gnu.trove.map.TIntObjectMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -41,43 +38,30 @@ public class ProgressiveRADON extends AbstractProgressiveAlgorithm {
         targetData = targetReader.getGeometryProfiles();
     }
 
-    private List<Tile> getBlocks(LightIndex spatialIndex) {
+    private List<Tile> getBlocks(FlatGridIndex spatialIndex) {
         final List<Tile> blocks = new ArrayList<>();
-        final TIntObjectMap<TIntObjectMap<TIntList>> map = spatialIndex.getMap();
-        final TIntObjectIterator<TIntObjectMap<TIntList>> outerIterator = map.iterator();
-        while (outerIterator.hasNext()) {
-            outerIterator.advance();
-
-            final int xDimension = outerIterator.key();
-            final TIntObjectMap<TIntList> value = outerIterator.value();
-            final TIntObjectIterator<TIntList> innerIterator = value.iterator();
-            while (innerIterator.hasNext()) {
-                innerIterator.advance();
-
-                if (innerIterator.value().size() < 2) {
-                    continue;
-                }
-
-                final int yDimension = innerIterator.key();
-                final TIntList entitiesD1 = new TIntArrayList();
-                final TIntList entitiesD2 = new TIntArrayList();
-                final TIntIterator entityIterator = innerIterator.value().iterator();
-                while (entityIterator.hasNext()) {
-                    int currentId = entityIterator.next();
-                    if (currentId < datasetDelimiter) {
-                        entitiesD1.add(currentId);
-                    } else {
-                        entitiesD2.add(currentId - datasetDelimiter);
-                    }
-                }
+        for (int cell = 0; cell < spatialIndex.getNoOfCells(); cell++) {
+            if (spatialIndex.getCellSize(cell) < 2) {
+                continue;
+            }
 
-                // each block should contain entities from both dataset
-                if (entitiesD1.isEmpty() || entitiesD2.isEmpty()) {
-                    continue;
+            final TIntList entitiesD1 = new TIntArrayList();
+            final TIntList entitiesD2 = new TIntArrayList();
+            for (int i = spatialIndex.getCellStart(cell); i < spatialIndex.getCellEnd(cell); i++) {
+                int currentId = spatialIndex.getGeometryId(i);
+                if (currentId < datasetDelimiter) {
+                    entitiesD1.add(currentId);
+                } else {
+                    entitiesD2.add(currentId - datasetDelimiter);
                 }
+            }
 
-                blocks.add(new Tile(xDimension, yDimension, entitiesD1.toArray(), entitiesD2.toArray()));
+            // each block should contain entities from both dataset
+            if (entitiesD1.isEmpty() || entitiesD2.isEmpty()) {
+                continue;
             }
+
+            blocks.add(new Tile(spatialIndex.getCellLat(cell), spatialIndex.getCellLon(cell), entitiesD1.toArray(), entitiesD2.toArray()));
         }
 
         return blocks;
@@ -122,18 +106,11 @@ public class ProgressiveRADON extends AbstractProgressiveAlgorithm {
         return 1.0f;
     }
 
+    // the target geometries share the grid of the source ones, with ids following theirs
     @Override
     protected void filtering() {
-        super.filtering();
-        indexTarget();
-    }
-
-    private void indexTarget() {
-        int geometryId = datasetDelimiter;
-        for (GeometryProfile tEntity : targetData) {
-            final Envelope envelope = tEntity.getGeometry().getEnvelopeInternal();
-            addToIndex(geometryId++, envelope, spatialIndex);
-        }
+        setThetas();
+        spatialIndex = new FlatGridIndex(thetaX, thetaY, sourceData, targetData);
     }
 
     @Override
@@ -152,7 +129,7 @@ public class ProgressiveRADON extends AbstractProgressiveAlgorithm {
         float thetaXa = 0;
         float thetaYa = 0;
         for (GeometryProfile sEntity : sourceData) {
-            final Envelope en = sEntity.getGeometry().getEnvelopeInternal();
+            final Envelope en = sEntity.getEnvelope();
             thetaXa += en.getWidth();
             thetaYa += en.getHeight();
         }
@@ -162,7 +139,7 @@ public class ProgressiveRADON extends AbstractProgressiveAlgorithm {
         float thetaXb = 0;
         float thetaYb = 0;
         for (GeometryProfile tEntity : targetData) {
-            final Envelope en = tEntity.getGeometry().getEnvelopeInternal();
+            final Envelope en = tEntity.getEnvelope();
             thetaXb += en.getWidth();
             thetaYb += en.getHeight();
         }
@@ -182,7 +159,7 @@ public class ProgressiveRADON extends AbstractProgressiveAlgorithm {
             final PairIterator iterator = block.getPairIterator();
             while (iterator.hasNext()) {
                 final Pair pair = iterator.next();
-                if (validCandidate(pair.getEntityId1(), targetData[pair.getEntityId2()].getGeometry().getEnvelopeInternal(), (Tile) block)) {
+                if (validCandidate(pair.getEntityId1(), targetData[pair.getEntityId2()].getEnvelope(), (Tile) block)) {
                     float weight = getWeight(pair.getEntityId1(), pair.getEntityId2() + datasetDelimiter);
                     pair.setWeight(weight);
                     topPairs.add(pair);
@@ -206,10 +183,10 @@ public class ProgressiveRADON extends AbstractProgressiveAlgorithm {
 
     @Override
     protected boolean validCandidate(int candidateId, Envelope e2, Tile bTile) {
-        int xDimension = (int) Math.max(sourceData[candidateId].getGeometry().getEnvelopeInternal().getMinX() / thetaX, e2.getMinX() / thetaX);
-        int yDimension = (int) Math.min(sourceData[candidateId].getGeometry().getEnvelopeInternal().getMaxY() / thetaY, e2.getMaxY() / thetaY);
+        int xDimension = (int) Math.max(sourceData[candidateId].getEnvelope().getMinX() / thetaX, e2.getMinX() / thetaX);
+        int yDimension = (int) Math.min(sourceData[candidateId].getEnvelope().getMaxY() / thetaY, e2.getMaxY() / thetaY);
         if (xDimension == bTile.getXDimension() && yDimension == bTile.getYDimension()) {
-            return sourceData[candidateId].getGeometry().getEnvelopeInternal().intersects(e2);
+            return sourceData[candidateId].getEnvelope().intersects(e2);
         }
         return false;
     }
@@ -0,0 +1,83 @@
+package utilities;
+
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Splits line-based files into chunks of about the same size that are aligned
+ * on line boundaries, so that they can be parsed independently of each other,
+ * e.g., by different threads.
+ */
+public class LineChunker {
+
+    private LineChunker() {
+    }
+
+    /**
+     * @param filePath the path to the file
+     * @param start the offset of the first chunk, which must be the start of a line
+     * @param chunkSize the minimum size of every chunk, except for the last one
+     * @return the offsets of the chunks, i.e., the start of every chunk followed by the end of the last one
+     */
+    public static long[] getChunkBoundaries(String filePath, long start, int chunkSize) throws IOException {
+        final TLongList boundaries = new TLongArrayList();
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "r")) {
+            final long fileSize = file.length();
+            long offset = start;
+            while (offset < fileSize) {
+                boundaries.add(offset);
+                offset = getNextLineStart(file, offset + chunkSize);
+            }
+            boundaries.add(fileSize);
+        }
+        return boundaries.toArray();
+    }
+
+    /**
+     * @return the offset of the first line that starts after the given position
+     * or the size of the file if there is no such line
+     */
+    public static long getNextLineStart(RandomAccessFile file, long position) throws IOException {
+        final long fileSize = file.length();
+        if (fileSize <= position) {
+            return fileSize;
+        }
+
+        file.seek(position);
+        final byte[] buffer = new byte[8192];
+        long offset = position;
+        int noOfBytes;
+        while ((noOfBytes = file.read(buffer)) != -1) {
+            for (int i = 0; i < noOfBytes; i++) {
+                if (buffer[i] == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += noOfBytes;
+        }
+        return fileSize;
+    }
+
+    /**
+     * @return the bytes of the file from the given start (inclusive) to the given end (exclusive)
+     */
+    public static byte[] readChunk(String filePath, long start, long end) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        }
+        return buffer.position() == buffer.capacity() ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+}
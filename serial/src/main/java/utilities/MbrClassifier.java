@@ -0,0 +1,90 @@
+package utilities;
+
+import enums.Relation;
+import org.locationtech.jts.geom.Dimension;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Polygonal;
+
+/**
+ * Classifies a pair of geometries based on their minimum bounding rectangles
+ * and dimensions only, i.e., before evaluating their intersection matrix, by
+ * eliminating the relations that cannot hold between them:
+ * - none of the relations holds for disjoint envelopes,
+ * - contains and covers require the source envelope to cover the target one,
+ * - within and covered-by require the target envelope to cover the source one,
+ * - equals requires equal envelopes and dimensions,
+ * - overlaps requires equal dimensions, crosses requires different dimensions
+ *   or two lines, and touches is not defined for two points,
+ * - two polygons whose envelopes meet only at their borders have disjoint
+ *   interiors, thus they can only touch.
+ */
+public class MbrClassifier {
+
+    private static final int CONTAINMENT = Relation.getMask(Relation.CONTAINS, Relation.COVERS);
+    private static final int INCLUSION = Relation.getMask(Relation.COVERED_BY, Relation.WITHIN);
+    private static final int INTERIOR_RELATIONS = Relation.getMask(Relation.CONTAINS, Relation.COVERED_BY,
+            Relation.COVERS, Relation.CROSSES, Relation.EQUALS, Relation.OVERLAPS, Relation.WITHIN);
+
+    private MbrClassifier() {
+    }
+
+    /**
+     * @return the mask of the relations that may hold between the given geometries;
+     * 0 if none of them holds
+     */
+    public static int getPossibleRelations(Geometry sourceGeom, Geometry targetGeom) {
+        final Envelope sourceEnv = sourceGeom.getEnvelopeInternal();
+        final Envelope targetEnv = targetGeom.getEnvelopeInternal();
+        if (!sourceEnv.intersects(targetEnv)) {
+            return 0;
+        }
+
+        int mask = Relation.getAllMask();
+        if (!sourceEnv.covers(targetEnv)) {
+            mask &= ~CONTAINMENT;
+        }
+        if (!targetEnv.covers(sourceEnv)) {
+            mask &= ~INCLUSION;
+        }
+        if (!sourceEnv.equals(targetEnv)) {
+            mask &= ~Relation.EQUALS.getMask();
+        }
+
+        final int sourceDim = sourceGeom.getDimension();
+        final int targetDim = targetGeom.getDimension();
+        if (sourceDim < targetDim) {
+            mask &= ~(CONTAINMENT | Relation.EQUALS.getMask() | Relation.OVERLAPS.getMask());
+        } else if (targetDim < sourceDim) {
+            mask &= ~(INCLUSION | Relation.EQUALS.getMask() | Relation.OVERLAPS.getMask());
+        } else if (sourceDim == Dimension.P) {
+            mask &= ~(Relation.CROSSES.getMask() | Relation.TOUCHES.getMask());
+        } else if (sourceDim == Dimension.A) {
+            mask &= ~Relation.CROSSES.getMask();
+        }
+
+        if (isBorderContact(sourceGeom, targetGeom)) {
+            mask &= ~INTERIOR_RELATIONS;
+        }
+        return mask;
+    }
+
+    /**
+     * @return the mask of the relations that hold for the given geometries whenever they intersect,
+     * i.e., touches for polygons whose envelopes meet only at their borders
+     */
+    public static int getImpliedRelations(Geometry sourceGeom, Geometry targetGeom) {
+        return isBorderContact(sourceGeom, targetGeom) ? Relation.TOUCHES.getMask() : 0;
+    }
+
+    private static boolean isBorderContact(Geometry sourceGeom, Geometry targetGeom) {
+        if (!(sourceGeom instanceof Polygonal) || !(targetGeom instanceof Polygonal)) {
+            return false;
+        }
+
+        final Envelope sourceEnv = sourceGeom.getEnvelopeInternal();
+        final Envelope targetEnv = targetGeom.getEnvelopeInternal();
+        return Math.max(sourceEnv.getMinX(), targetEnv.getMinX()) == Math.min(sourceEnv.getMaxX(), targetEnv.getMaxX())
+                || Math.max(sourceEnv.getMinY(), targetEnv.getMinY()) == Math.min(sourceEnv.getMaxY(), targetEnv.getMaxY());
+    }
+}
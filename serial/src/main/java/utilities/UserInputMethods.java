@@ -1,6 +1,7 @@
 package utilities;
 
 import datareader.AbstractReader;
+import datareader.GeometryBinaryReader;
 import datareader.GeometryCSVReader;
 import datareader.GeometryGeoJSONReader;
 import datareader.GeometrySerializationReader;
@@ -24,6 +25,8 @@ public class UserInputMethods {
 //                return new GeometryJSONRDFReader(sourceFilePath, "");
             case Serialization:
                 return new GeometrySerializationReader(sourceFilePath);
+            case Binary:
+                return new GeometryBinaryReader(sourceFilePath);
         }
         return null;
     }
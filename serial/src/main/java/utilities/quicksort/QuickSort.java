@@ -65,9 +65,9 @@ public class QuickSort {
                 .max(candidates, Comparator
                         .comparingDouble(o -> {
                             if (axis == Axis.X_AXIS)
-                                return o.getGeometry().getEnvelopeInternal().getMinX();
+                                return o.getEnvelope().getMinX();
                             else
-                                return o.getGeometry().getEnvelopeInternal().getMinY();
+                                return o.getEnvelope().getMinY();
                         }));
     }
 
@@ -45,14 +45,17 @@ public class CommandLineInterfaceUtils {
         return scanner.nextLine();
     }
 
-    public final static String[] DATA_TYPE = {"CSV", "TSV", "GeoJSON", "JSONRDF", "RDF"};
+    public final static String[] DATA_TYPE = {"CSV", "TSV", "GeoJSON", "JSONRDF", "RDF", "Binary"};
     public final static String[] YES_OR_NO = {"Yes", "No"};
     public final static String[] EXPERIMENT_TYPE = {"Batch", "Progressive"};
     public final static String[] BATCH_ALGORITHMS = {
             "GIA.nt", "RADON", "Plane Sweep (List)",
             "Plane Sweep (Strips)", "PBSM (List)",
             "PBSM (Strips)", "R-Tree", "Quad Tree",
-            "CR-Tree", "Strip Sweep", "Strip STR Sweep"};
+            "CR-Tree", "Strip Sweep", "Strip STR Sweep",
+            "Parallel RADON", "Parallel PBSM",
+            "Plane Sweep (Intervals)", "PBSM (Intervals)",
+            "Plane Sweep (Forward Scan)"};
     public final static String[] PROGRESSIVE_ALGORITHMS = {"GIA.nt", "RADON"};
 
 }
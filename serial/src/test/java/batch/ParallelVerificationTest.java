@@ -0,0 +1,122 @@
+package batch;
+
+import batch.stripebased.StripeSTRSweep;
+import batch.stripebased.StripeSweep;
+import batch.tilebased.GIAnt;
+import batch.tilebased.RADON;
+import batch.treebased.CRTree;
+import batch.treebased.QuadTree;
+import batch.treebased.RTree;
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.SyntheticDatasets;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+public class ParallelVerificationTest {
+
+    private static final String SOURCE = SyntheticDatasets.SOURCE;
+    private static final String TARGET = SyntheticDatasets.TARGET;
+
+    private static void assertParallelVerification(Supplier<AbstractBatchAlgorithm> supplier) {
+        for (int noOfThreads : new int[]{1, 3, 8}) {
+            final AbstractBatchAlgorithm algorithm = supplier.get();
+            algorithm.setNoOfThreads(noOfThreads);
+            algorithm.applyProcessing();
+            BruteForceVerifier.assertResults(algorithm.getMethodName() + " with " + noOfThreads + " threads",
+                    SOURCE, TARGET, algorithm.getResults());
+        }
+    }
+
+    @Test
+    public void testGIAnt() {
+        assertParallelVerification(() -> new GIAnt(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)));
+    }
+
+    @Test
+    public void testRADON() {
+        assertParallelVerification(() -> new RADON(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)));
+    }
+
+    @Test
+    public void testStripeSweep() {
+        assertParallelVerification(() -> new StripeSweep(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)));
+    }
+
+    @Test
+    public void testStripeSTRSweep() {
+        assertParallelVerification(() -> new StripeSTRSweep(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)));
+    }
+
+    @Test
+    public void testQuadTree() {
+        assertParallelVerification(() -> new QuadTree(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)));
+    }
+
+    @Test
+    public void testRTree() {
+        assertParallelVerification(() -> new RTree(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)));
+    }
+
+    @Test
+    public void testCRTree() {
+        assertParallelVerification(() -> new CRTree(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)));
+    }
+
+    // fewer than one thread falls back to the sequential verification
+    @Test
+    public void testNoThreads() {
+        final AbstractBatchAlgorithm algorithm = new GIAnt(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET));
+        algorithm.setNoOfThreads(0);
+        algorithm.applyProcessing();
+        BruteForceVerifier.assertResults("GIAnt with 0 threads", SOURCE, TARGET, algorithm.getResults());
+    }
+
+    /**
+     * @return 100 empty tasks followed by a failure, optionally with the
+     * producing thread interrupted
+     */
+    private static Iterator<VerificationTask> getFailingTasks(boolean interrupt) {
+        return new Iterator<VerificationTask>() {
+            private int counter = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (counter == 100) {
+                    if (interrupt) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalArgumentException("Malformed input");
+                }
+                return true;
+            }
+
+            @Override
+            public VerificationTask next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                counter++;
+                return results -> {};
+            }
+        };
+    }
+
+    // a failure of the producer has to stop the workers instead of leaving them blocked
+    @Test(timeout = 10000, expected = IllegalArgumentException.class)
+    public void testFailingTasks() {
+        final AbstractBatchAlgorithm algorithm = new GIAnt(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET));
+        algorithm.setNoOfThreads(4);
+        algorithm.verifyInParallel(getFailingTasks(false));
+    }
+
+    // an interruption while stopping the workers does not hide the failure of the producer
+    @Test(timeout = 10000, expected = IllegalArgumentException.class)
+    public void testInterruptedFailingTasks() {
+        final AbstractBatchAlgorithm algorithm = new GIAnt(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET));
+        algorithm.setNoOfThreads(4);
+        algorithm.verifyInParallel(getFailingTasks(true));
+    }
+}
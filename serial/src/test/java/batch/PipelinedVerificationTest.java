@@ -0,0 +1,84 @@
+package batch;
+
+import batch.partitionbased.PBSM;
+import batch.planesweep.PlaneSweep;
+import batch.stripebased.StripeSTRSweep;
+import batch.stripebased.StripeSweep;
+import batch.tilebased.GIAnt;
+import batch.tilebased.RADON;
+import batch.treebased.CRTree;
+import batch.treebased.QuadTree;
+import batch.treebased.RTree;
+import datamodel.GeometryProfile;
+import enums.PlaneSweepStructure;
+import gnu.trove.list.TIntList;
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.SyntheticDatasets;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+public class PipelinedVerificationTest {
+
+    private static final String SOURCE = SyntheticDatasets.SOURCE;
+    private static final String TARGET = SyntheticDatasets.TARGET;
+
+    @Test
+    public void testPipelinedAlgorithms() {
+        final List<Supplier<AbstractBatchAlgorithm>> algorithms = Arrays.asList(
+                () -> new GIAnt(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)),
+                () -> new StripeSweep(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)),
+                () -> new StripeSTRSweep(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)),
+                () -> new CRTree(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)),
+                () -> new QuadTree(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)),
+                () -> new RTree(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)));
+        for (Supplier<AbstractBatchAlgorithm> supplier : algorithms) {
+            for (int noOfThreads : new int[]{1, 4}) {
+                final AbstractBatchAlgorithm algorithm = supplier.get();
+                algorithm.setPipelined(true);
+                algorithm.setNoOfThreads(noOfThreads);
+                algorithm.applyProcessing();
+                BruteForceVerifier.assertResults("pipelined " + algorithm.getMethodName() + " with " + noOfThreads + " threads",
+                        SOURCE, TARGET, algorithm.getResults());
+            }
+        }
+    }
+
+    // a failure of the filtering stage has to stop the parser and the workers instead of leaving them blocked
+    @Test(timeout = 10000, expected = IllegalArgumentException.class)
+    public void testFailingFiltering() {
+        final AbstractBatchAlgorithm algorithm = new GIAnt(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)) {
+            private int counter = 0;
+
+            @Override
+            protected void filterTarget(GeometryProfile profile, TIntList candidates) {
+                if (++counter == 10) {
+                    throw new IllegalArgumentException("Malformed envelope");
+                }
+                super.filterTarget(profile, candidates);
+            }
+        };
+        algorithm.setPipelined(true);
+        algorithm.setNoOfThreads(4);
+        algorithm.applyProcessing();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPipelinedPBSM() {
+        new PBSM(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET),
+                PlaneSweepStructure.LIST_SWEEP).setPipelined(true);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPipelinedPlaneSweep() {
+        new PlaneSweep(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET),
+                PlaneSweepStructure.LIST_SWEEP).setPipelined(true);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPipelinedRADON() {
+        new RADON(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)).setPipelined(true);
+    }
+}
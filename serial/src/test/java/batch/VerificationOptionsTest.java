@@ -0,0 +1,90 @@
+package batch;
+
+import batch.partitionbased.PBSM;
+import batch.planesweep.PlaneSweep;
+import batch.tilebased.GIAnt;
+import batch.tilebased.RADON;
+import batch.treebased.RTree;
+import enums.PlaneSweepStructure;
+import enums.Relation;
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.SyntheticDatasets;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The verification options speed up the verification, but must not change
+ * its results, neither sequentially nor in parallel.
+ */
+public class VerificationOptionsTest {
+
+    private static final String SOURCE = SyntheticDatasets.SOURCE;
+    private static final String TARGET = SyntheticDatasets.TARGET;
+
+    private static final List<Supplier<AbstractBatchAlgorithm>> ALGORITHMS = Arrays.asList(
+            () -> new GIAnt(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)),
+            () -> new RADON(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)),
+            () -> new PBSM(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET), PlaneSweepStructure.LIST_SWEEP),
+            () -> new RTree(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET)),
+            () -> new PlaneSweep(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET), PlaneSweepStructure.LIST_SWEEP));
+
+    private static void assertOption(String option, Consumer<AbstractBatchAlgorithm> setOption, Relation... relationsOfInterest) {
+        for (Supplier<AbstractBatchAlgorithm> supplier : ALGORITHMS) {
+            for (int noOfThreads : new int[]{1, 4}) {
+                final AbstractBatchAlgorithm algorithm = supplier.get();
+                setOption.accept(algorithm);
+                algorithm.setNoOfThreads(noOfThreads);
+                algorithm.applyProcessing();
+                BruteForceVerifier.assertResults(algorithm.getMethodName() + " with " + option + " and " + noOfThreads + " threads",
+                        SOURCE, TARGET, algorithm.getResults(), relationsOfInterest);
+            }
+        }
+    }
+
+    @Test
+    public void testPreparedGeometryCache() {
+        assertOption("prepared geometries", algorithm -> algorithm.setPreparedGeometryCache(100000, 2));
+        // a small cache that keeps evicting the prepared geometries
+        assertOption("small prepared geometry cache", algorithm -> algorithm.setPreparedGeometryCache(30, 1));
+    }
+
+    @Test
+    public void testRelationsOfInterest() {
+        final Relation[][] relationSets = {{Relation.INTERSECTS}, {Relation.CONTAINS}, {Relation.WITHIN, Relation.COVERS},
+                {Relation.COVERED_BY}, {Relation.TOUCHES}, {Relation.CONTAINS, Relation.COVERS, Relation.INTERSECTS},
+                {Relation.EQUALS, Relation.OVERLAPS}};
+        for (Relation[] relations : relationSets) {
+            final String option = "relations " + Arrays.toString(relations);
+            assertOption(option, algorithm -> algorithm.setRelationsOfInterest(relations), relations);
+            // the predicates use the prepared source geometries, when available
+            assertOption(option + " and prepared geometries", algorithm -> {
+                algorithm.setRelationsOfInterest(relations);
+                algorithm.setPreparedGeometryCache(100000, 1);
+            }, relations);
+        }
+    }
+
+    @Test
+    public void testRasterFilter() {
+        assertOption("raster filter of order 8", algorithm -> algorithm.setRasterFilter(8));
+        // a coarse grid, whose cells contain many geometries
+        assertOption("raster filter of order 3", algorithm -> algorithm.setRasterFilter(3));
+        assertOption("raster filter and prepared geometries", algorithm -> {
+            algorithm.setRasterFilter(10);
+            algorithm.setPreparedGeometryCache(100000, 1);
+        });
+
+        final Relation[][] relationSets = {{Relation.INTERSECTS}, {Relation.CONTAINS}, {Relation.WITHIN, Relation.COVERS},
+                {Relation.COVERED_BY, Relation.TOUCHES}};
+        for (Relation[] relations : relationSets) {
+            assertOption("raster filter and relations " + Arrays.toString(relations), algorithm -> {
+                algorithm.setRasterFilter(9);
+                algorithm.setRelationsOfInterest(relations);
+            }, relations);
+        }
+    }
+}
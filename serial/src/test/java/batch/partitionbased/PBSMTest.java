@@ -0,0 +1,105 @@
+package batch.partitionbased;
+
+import enums.PlaneSweepStructure;
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.SyntheticDatasets;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+
+public class PBSMTest {
+
+    // a cover whose extent divided by its tile width rounds up to more tiles than the grid has
+    private static final double MIN_X = 6.9081581306368065;
+    private static final double MAX_X = 52.31508206499401;
+    private static final int X_TILES = 31;
+    private static final double MAX_Y = 10;
+    private static final int Y_TILES = 61;
+
+    private static void assertPBSM(PBSM pbsm, String sourcePath, String targetPath, int noOfThreads) {
+        pbsm.setNoOfThreads(noOfThreads);
+        pbsm.applyProcessing();
+        BruteForceVerifier.assertResults(pbsm.getMethodName() + " with " + noOfThreads + " threads",
+                sourcePath, targetPath, pbsm.getResults());
+    }
+
+    @Test
+    public void testPBSM() {
+        for (PlaneSweepStructure structure : PlaneSweepStructure.values()) {
+            for (int noOfThreads : new int[]{1, 4}) {
+                assertPBSM(new PBSM(0, SyntheticDatasets.getReader(SyntheticDatasets.SOURCE),
+                        SyntheticDatasets.getReader(SyntheticDatasets.TARGET), structure),
+                        SyntheticDatasets.SOURCE, SyntheticDatasets.TARGET, noOfThreads);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelPBSM() {
+        for (PlaneSweepStructure structure : PlaneSweepStructure.values()) {
+            for (int noOfThreads : new int[]{1, 3, 8}) {
+                assertPBSM(new ParallelPBSM(0, SyntheticDatasets.getReader(SyntheticDatasets.SOURCE),
+                        SyntheticDatasets.getReader(SyntheticDatasets.TARGET), structure, noOfThreads),
+                        SyntheticDatasets.SOURCE, SyntheticDatasets.TARGET, noOfThreads);
+            }
+        }
+    }
+
+    // the y-range of the targets of a partition may exceed that of its sources by far
+    @Test
+    public void testProjectedCoordinates() {
+        for (PlaneSweepStructure structure : PlaneSweepStructure.values()) {
+            for (int noOfThreads : new int[]{1, 4}) {
+                assertPBSM(new PBSM(0, SyntheticDatasets.getReader(SyntheticDatasets.PROJECTED_SOURCE),
+                        SyntheticDatasets.getReader(SyntheticDatasets.PROJECTED_TARGET), structure),
+                        SyntheticDatasets.PROJECTED_SOURCE, SyntheticDatasets.PROJECTED_TARGET, noOfThreads);
+                assertPBSM(new ParallelPBSM(0, SyntheticDatasets.getReader(SyntheticDatasets.PROJECTED_SOURCE),
+                        SyntheticDatasets.getReader(SyntheticDatasets.PROJECTED_TARGET), structure, noOfThreads),
+                        SyntheticDatasets.PROJECTED_SOURCE, SyntheticDatasets.PROJECTED_TARGET, noOfThreads);
+            }
+        }
+    }
+
+    /**
+     * @return the path to random rectangles within [MIN_X, MAX_X] x [0, MAX_Y],
+     * along with a rectangle that touches every border of it
+     */
+    private static String writeRectangles(String name, int size, long seed) throws IOException {
+        final File file = File.createTempFile(name, ".tsv");
+        file.deleteOnExit();
+        final Random random = new Random(seed);
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.println(getRectangle(MIN_X, 0, MIN_X + 1, 1) + "\tid0");
+            writer.println(getRectangle(MAX_X - 1, MAX_Y - 1, MAX_X, MAX_Y) + "\tid1");
+            for (int i = 2; i < size; i++) {
+                final double minX = MIN_X + random.nextDouble() * (MAX_X - MIN_X - 2);
+                final double minY = random.nextDouble() * (MAX_Y - 1);
+                writer.println(getRectangle(minX, minY, minX + 2 * random.nextDouble(), minY + random.nextDouble()) + "\tid" + i);
+            }
+        }
+        return file.getAbsolutePath();
+    }
+
+    // the exact coordinates matter, thus they are not formatted
+    private static String getRectangle(double minX, double minY, double maxX, double maxY) {
+        return "POLYGON ((" + minX + " " + minY + ", " + maxX + " " + minY + ", " + maxX + " " + maxY + ", "
+                + minX + " " + maxY + ", " + minX + " " + minY + "))";
+    }
+
+    // the geometries on the upper borders of the cover are kept in the last partitions
+    @Test
+    public void testCoverBorders() throws IOException {
+        final String sourcePath = writeRectangles("source", 500, 5);
+        final String targetPath = writeRectangles("target", 700, 7);
+        for (PlaneSweepStructure structure : PlaneSweepStructure.values()) {
+            for (int noOfThreads : new int[]{1, 4}) {
+                assertPBSM(new PBSM(0, X_TILES, Y_TILES, SyntheticDatasets.getReader(sourcePath),
+                        SyntheticDatasets.getReader(targetPath), structure), sourcePath, targetPath, noOfThreads);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package batch.planesweep;
+
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.SyntheticDatasets;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+public class ForwardScanPlaneSweepTest {
+
+    private static final String SOURCE = SyntheticDatasets.SOURCE;
+    private static final String TARGET = SyntheticDatasets.TARGET;
+
+    private static void assertForwardScan(String message, String sourcePath, String targetPath, int noOfThreads) {
+        final ForwardScanPlaneSweep forwardScan = new ForwardScanPlaneSweep(0, SyntheticDatasets.getReader(sourcePath),
+                SyntheticDatasets.getReader(targetPath));
+        forwardScan.setNoOfThreads(noOfThreads);
+        forwardScan.applyProcessing();
+        BruteForceVerifier.assertResults(message + " with " + noOfThreads + " threads", sourcePath, targetPath, forwardScan.getResults());
+    }
+
+    /**
+     * @return the path to a grid of unit squares that share their edges, so
+     * that many envelopes have the same minimum x
+     */
+    private static String writeGrid(int size) throws IOException {
+        final File file = File.createTempFile("grid", ".tsv");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    writer.println("POLYGON ((" + x + " " + y + ", " + (x + 1) + " " + y + ", " + (x + 1) + " " + (y + 1) + ", "
+                            + x + " " + (y + 1) + ", " + x + " " + y + "))\tid" + x + "_" + y);
+                }
+            }
+        }
+        return file.getAbsolutePath();
+    }
+
+    @Test
+    public void testForwardScan() {
+        for (int noOfThreads : new int[]{1, 3, 8}) {
+            assertForwardScan("Forward Scan", SOURCE, TARGET, noOfThreads);
+        }
+        assertForwardScan("Forward Scan with projected coordinates", SyntheticDatasets.PROJECTED_SOURCE,
+                SyntheticDatasets.PROJECTED_TARGET, 4);
+    }
+
+    // every geometry of a self-join has the same minimum x as its copy
+    @Test
+    public void testTies() throws IOException {
+        for (int noOfThreads : new int[]{1, 3}) {
+            assertForwardScan("self-join", SOURCE, SOURCE, noOfThreads);
+        }
+        final String grid = writeGrid(30);
+        assertForwardScan("grid self-join", grid, grid, 4);
+    }
+}
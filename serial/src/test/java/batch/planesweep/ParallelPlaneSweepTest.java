@@ -0,0 +1,67 @@
+package batch.planesweep;
+
+import enums.PlaneSweepStructure;
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.SyntheticDatasets;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+public class ParallelPlaneSweepTest {
+
+    private static final String SOURCE = SyntheticDatasets.SOURCE;
+    private static final String TARGET = SyntheticDatasets.TARGET;
+
+    private static void assertPlaneSweep(String sourcePath, String targetPath, PlaneSweepStructure structure, int noOfThreads) {
+        final PlaneSweep planeSweep = new PlaneSweep(0, SyntheticDatasets.getReader(sourcePath),
+                SyntheticDatasets.getReader(targetPath), structure);
+        planeSweep.setNoOfThreads(noOfThreads);
+        planeSweep.applyProcessing();
+        BruteForceVerifier.assertResults(structure + " with " + noOfThreads + " threads", sourcePath, targetPath,
+                planeSweep.getResults());
+    }
+
+    /**
+     * @return the path to thin horizontal strips that span most of the extent
+     * of the synthetic datasets, i.e., several slabs of the parallel sweep,
+     * along with an empty geometry
+     */
+    private static String writeStrips(int size) throws IOException {
+        final File file = File.createTempFile("strips", ".tsv");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            for (int i = 0; i < size; i++) {
+                final double minX = i % 5;
+                final double minY = 10.0 * i / size;
+                writer.println(String.format(Locale.US, "POLYGON ((%f %f, %f %f, %f %f, %f %f, %f %f))\tid%d", minX, minY,
+                        10.0, minY, 10.0, minY + 0.01, minX, minY + 0.01, minX, minY, i));
+            }
+            writer.println("POLYGON EMPTY\tid" + size);
+        }
+        return file.getAbsolutePath();
+    }
+
+    @Test
+    public void testStructures() {
+        for (PlaneSweepStructure structure : PlaneSweepStructure.values()) {
+            for (int noOfThreads : new int[]{1, 3, 8}) {
+                assertPlaneSweep(SOURCE, TARGET, structure, noOfThreads);
+            }
+        }
+    }
+
+    // the pairs of geometries that span several slabs are verified once
+    @Test
+    public void testWideGeometries() throws IOException {
+        final String strips = writeStrips(300);
+        for (PlaneSweepStructure structure : PlaneSweepStructure.values()) {
+            assertPlaneSweep(strips, TARGET, structure, 4);
+            assertPlaneSweep(SOURCE, strips, structure, 4);
+            assertPlaneSweep(SOURCE, SOURCE, structure, 5);
+        }
+    }
+}
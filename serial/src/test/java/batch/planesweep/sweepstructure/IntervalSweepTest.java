@@ -0,0 +1,64 @@
+package batch.planesweep.sweepstructure;
+
+import datamodel.GeometryProfile;
+import gnu.trove.TIntCollection;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class IntervalSweepTest {
+
+    private static GeometryProfile[] getSortedRectangles(int size, Random random) {
+        final GeometryFactory factory = new GeometryFactory();
+        final GeometryProfile[] rectangles = new GeometryProfile[size];
+        for (int i = 0; i < size; i++) {
+            final double x = random.nextDouble() * 1000;
+            final double y = random.nextDouble() * 1000;
+            // a few wide rectangles stay active for long, spanning many trees
+            final double width = random.nextInt(10) == 0 ? random.nextDouble() * 200 : random.nextDouble() * 5;
+            final double height = random.nextDouble() * 20;
+            rectangles[i] = new GeometryProfile(factory.toGeometry(new Envelope(x, x + width, y, y + height)));
+        }
+        Arrays.sort(rectangles, Comparator.comparingDouble(GeometryProfile::getMinX));
+        return rectangles;
+    }
+
+    // every query must report exactly the active targets that overlap on the y-axis, once
+    @Test
+    public void testReportOverlap() {
+        final Random random = new Random(9);
+        final GeometryProfile[] sources = getSortedRectangles(5000, random);
+        final GeometryProfile[] targets = getSortedRectangles(5000, random);
+
+        final IntervalSweep sweepStructure = new IntervalSweep();
+        int targetIndex = 0;
+        for (int sourceIndex = 0; sourceIndex < sources.length; sourceIndex++) {
+            final GeometryProfile source = sources[sourceIndex];
+            while (targetIndex < targets.length && targets[targetIndex].getMinX() <= source.getMaxX()) {
+                sweepStructure.insert(targets[targetIndex], targetIndex);
+                targetIndex++;
+            }
+            sweepStructure.removeExpired(source);
+
+            final TIntSet expected = new TIntHashSet();
+            for (int i = 0; i < targetIndex; i++) {
+                if (source.getMinX() <= targets[i].getMaxX() && targets[i].getMinY() <= source.getMaxY()
+                        && source.getMinY() <= targets[i].getMaxY()) {
+                    expected.add(i);
+                }
+            }
+
+            final TIntCollection candidates = sweepStructure.reportOverlap(source, sourceIndex);
+            assertEquals("source " + sourceIndex + " : duplicates", new TIntHashSet(candidates).size(), candidates.size());
+            assertEquals("source " + sourceIndex, expected, new TIntHashSet(candidates));
+        }
+    }
+}
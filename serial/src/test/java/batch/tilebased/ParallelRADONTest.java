@@ -0,0 +1,59 @@
+package batch.tilebased;
+
+import enums.Relation;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.SyntheticDatasets;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelRADONTest {
+
+    private static final String SOURCE = SyntheticDatasets.SOURCE;
+    private static final String TARGET = SyntheticDatasets.TARGET;
+
+    @Test
+    public void testParallelRADON() {
+        for (int noOfThreads : new int[]{1, 3, 8}) {
+            final ParallelRADON radon = new ParallelRADON(0, SyntheticDatasets.getReader(SOURCE),
+                    SyntheticDatasets.getReader(TARGET), noOfThreads);
+            radon.applyProcessing();
+            BruteForceVerifier.assertResults("Parallel RADON with " + noOfThreads + " threads", SOURCE, TARGET, radon.getResults());
+        }
+
+        final ParallelRADON radon = new ParallelRADON(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET));
+        radon.applyProcessing();
+        BruteForceVerifier.assertResults("Parallel RADON with all processors", SOURCE, TARGET, radon.getResults());
+    }
+
+    @Test
+    public void testProjectedCoordinates() {
+        final ParallelRADON radon = new ParallelRADON(0, SyntheticDatasets.getReader(SyntheticDatasets.PROJECTED_SOURCE),
+                SyntheticDatasets.getReader(SyntheticDatasets.PROJECTED_TARGET), 4);
+        radon.applyProcessing();
+        BruteForceVerifier.assertResults("Parallel RADON with projected coordinates", SyntheticDatasets.PROJECTED_SOURCE,
+                SyntheticDatasets.PROJECTED_TARGET, radon.getResults());
+    }
+
+    // the export constructor writes all related pairs to the given file
+    @Test
+    public void testExport() throws IOException {
+        final File file = File.createTempFile("radon", ".nt");
+        file.deleteOnExit();
+        final ParallelRADON radon = new ParallelRADON(0, SyntheticDatasets.getReader(SOURCE),
+                SyntheticDatasets.getReader(TARGET), file.getPath());
+        radon.applyProcessing();
+        BruteForceVerifier.assertResults("exporting Parallel RADON", SOURCE, TARGET, radon.getResults());
+
+        int detectedLinks = 0;
+        for (Relation relation : Relation.values()) {
+            detectedLinks += radon.getResults().getNoOfRelations(relation);
+        }
+        assertEquals(detectedLinks, RDFDataMgr.loadModel(file.getPath(), Lang.NTRIPLES).size());
+    }
+}
@@ -0,0 +1,36 @@
+package batch.treebased;
+
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.SyntheticDatasets;
+
+public class CRTreeTest {
+
+    private static final String SOURCE = SyntheticDatasets.SOURCE;
+    private static final String TARGET = SyntheticDatasets.TARGET;
+
+    @Test
+    public void testQuantizationLevels() {
+        for (int fanout : new int[]{2, 16, 64}) {
+            for (int qLevel : new int[]{2, 16, 256}) {
+                for (int noOfThreads : new int[]{1, 4}) {
+                    final CRTree crTree = new CRTree(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET),
+                            fanout, qLevel);
+                    crTree.setNoOfThreads(noOfThreads);
+                    crTree.applyProcessing();
+                    BruteForceVerifier.assertResults("CR-Tree with fanout " + fanout + ", qLevel " + qLevel + " and "
+                            + noOfThreads + " threads", SOURCE, TARGET, crTree.getResults());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testProjectedCoordinates() {
+        final CRTree crTree = new CRTree(0, SyntheticDatasets.getReader(SyntheticDatasets.PROJECTED_SOURCE),
+                SyntheticDatasets.getReader(SyntheticDatasets.PROJECTED_TARGET));
+        crTree.applyProcessing();
+        BruteForceVerifier.assertResults("CR-Tree with projected coordinates", SyntheticDatasets.PROJECTED_SOURCE,
+                SyntheticDatasets.PROJECTED_TARGET, crTree.getResults());
+    }
+}
@@ -0,0 +1,28 @@
+package batch.treebased;
+
+import enums.RTreePacking;
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.SyntheticDatasets;
+
+public class RTreeTest {
+
+    private static final String SOURCE = SyntheticDatasets.SOURCE;
+    private static final String TARGET = SyntheticDatasets.TARGET;
+
+    @Test
+    public void testPackings() {
+        for (RTreePacking packing : RTreePacking.values()) {
+            for (int fanout : new int[]{2, 16, 64}) {
+                for (int noOfThreads : new int[]{1, 4}) {
+                    final RTree rTree = new RTree(0, SyntheticDatasets.getReader(SOURCE), SyntheticDatasets.getReader(TARGET),
+                            fanout, packing);
+                    rTree.setNoOfThreads(noOfThreads);
+                    rTree.applyProcessing();
+                    BruteForceVerifier.assertResults(packing + " R-Tree with fanout " + fanout + " and " + noOfThreads + " threads",
+                            SOURCE, TARGET, rTree.getResults());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package datamodel;
+
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CandidateBufferTest {
+
+    // the buffer has to behave like a set that is cleared before every target geometry
+    @Test
+    public void testAgainstHashSet() {
+        final int noOfGeometries = 1000;
+        final Random random = new Random(3);
+        final CandidateBuffer buffer = new CandidateBuffer(noOfGeometries);
+        for (int target = 0; target < 200; target++) {
+            buffer.clear();
+            assertTrue(buffer.isEmpty());
+
+            final TIntSet expected = new TIntHashSet();
+            final int noOfCandidates = random.nextInt(300);
+            for (int i = 0; i < noOfCandidates; i++) {
+                final int geometryId = random.nextInt(noOfGeometries);
+                assertEquals(expected.add(geometryId), buffer.add(geometryId));
+            }
+
+            assertEquals(expected.size(), buffer.size());
+            final TIntSet actual = new TIntHashSet();
+            for (int i = 0; i < buffer.size(); i++) {
+                actual.add(buffer.get(i));
+            }
+            assertEquals(expected, actual);
+            for (int geometryId = 0; geometryId < noOfGeometries; geometryId++) {
+                assertEquals(expected.contains(geometryId), buffer.contains(geometryId));
+            }
+        }
+    }
+
+    @Test
+    public void testInsertionOrder() {
+        final CandidateBuffer buffer = new CandidateBuffer(100);
+        final int[] ids = {42, 7, 99, 0, 7, 42, 13};
+        for (int id : ids) {
+            buffer.add(id);
+        }
+        assertEquals(5, buffer.size());
+        assertEquals(42, buffer.get(0));
+        assertEquals(7, buffer.get(1));
+        assertEquals(99, buffer.get(2));
+        assertEquals(0, buffer.get(3));
+        assertEquals(13, buffer.get(4));
+    }
+
+    // the stamps are reset when the epoch overflows, so that no stale id is reported as contained
+    @Test
+    public void testEpochOverflow() {
+        final CandidateBuffer buffer = new CandidateBuffer(10);
+        buffer.add(3);
+        for (int i = 1; i < Integer.MAX_VALUE - 1; i++) {
+            buffer.clear();
+        }
+        buffer.add(5);
+        buffer.clear();
+
+        for (int geometryId = 0; geometryId < 10; geometryId++) {
+            assertFalse(buffer.contains(geometryId));
+        }
+        assertTrue(buffer.add(5));
+        assertTrue(buffer.add(3));
+        assertFalse(buffer.add(5));
+    }
+}
@@ -0,0 +1,134 @@
+package datamodel;
+
+import enums.Relation;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import org.junit.Test;
+import utilities.SyntheticDatasets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConcurrentRelatedGeometriesTest {
+
+    private static final int NO_OF_THREADS = 8;
+
+    private static final GeometryProfile[] SOURCE_DATA = SyntheticDatasets.getReader(SyntheticDatasets.SOURCE).getGeometryProfiles();
+    private static final GeometryProfile[] TARGET_DATA = SyntheticDatasets.getReader(SyntheticDatasets.TARGET).getGeometryProfiles();
+
+    private static void assertSameResults(RelatedGeometries expected, RelatedGeometries actual) {
+        for (Relation relation : Relation.values()) {
+            assertEquals(relation.toString(), expected.getNoOfRelations(relation), actual.getNoOfRelations(relation));
+        }
+        assertEquals("interlinked pairs", expected.getInterlinkedPairs(), actual.getInterlinkedPairs());
+        assertEquals("verified pairs", expected.getVerifiedPairs(), actual.getVerifiedPairs());
+        assertEquals("related pairs", getRelatedPairs(expected), getRelatedPairs(actual));
+    }
+
+    /**
+     * @return the pairs of the given results, as the source id in the high bits and the target id in the low ones,
+     * mapped to their relation masks
+     */
+    private static TLongIntMap getRelatedPairs(RelatedGeometries results) {
+        final TLongIntMap relatedPairs = new TLongIntHashMap();
+        for (int i = 0; i < results.getInterlinkedPairs(); i++) {
+            final long pair = ((long) results.getLinkedSource(i) << 32) | results.getLinkedTarget(i);
+            assertEquals("duplicate pair", 0, relatedPairs.put(pair, results.getRelationMask(i)));
+        }
+        return relatedPairs;
+    }
+
+    /**
+     * @return the source and target ids of the pairs with intersecting envelopes, interleaved
+     */
+    private static TIntList getCandidatePairs() {
+        final TIntList candidatePairs = new TIntArrayList();
+        for (int i = 0; i < SOURCE_DATA.length; i++) {
+            for (int j = 0; j < TARGET_DATA.length; j++) {
+                if (SOURCE_DATA[i].getEnvelope().intersects(TARGET_DATA[j].getEnvelope())) {
+                    candidatePairs.add(i);
+                    candidatePairs.add(j);
+                }
+            }
+        }
+        return candidatePairs;
+    }
+
+    private static RelatedGeometries verifySequentially(TIntList candidatePairs) {
+        final RelatedGeometries results = new RelatedGeometries(0);
+        for (int i = 0; i < candidatePairs.size(); i += 2) {
+            verifyPair(results, candidatePairs, i);
+        }
+        results.close();
+        return results;
+    }
+
+    /**
+     * Verifies the candidate pairs with NO_OF_THREADS threads, which take
+     * turns over the pairs, so that every shard gets pairs of all sources.
+     */
+    private static void verifyInParallel(ConcurrentRelatedGeometries results, TIntList candidatePairs) throws InterruptedException {
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < NO_OF_THREADS; t++) {
+            final int firstPair = 2 * t;
+            threads.add(new Thread(() -> {
+                for (int i = firstPair; i < candidatePairs.size(); i += 2 * NO_OF_THREADS) {
+                    verifyPair(results, candidatePairs, i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void verifyPair(RelatedGeometries results, TIntList candidatePairs, int position) {
+        final int sourceId = candidatePairs.get(position);
+        final int targetId = candidatePairs.get(position + 1);
+        results.verifyRelations(sourceId, targetId, SOURCE_DATA[sourceId].getGeometry(), TARGET_DATA[targetId].getGeometry());
+    }
+
+    @Test
+    public void testConcurrentVerification() throws InterruptedException {
+        final TIntList candidatePairs = getCandidatePairs();
+        final ConcurrentRelatedGeometries results = new ConcurrentRelatedGeometries(0);
+        verifyInParallel(results, candidatePairs);
+        results.close();
+        assertSameResults(verifySequentially(candidatePairs), results);
+    }
+
+    // the shards that are merged early are not merged again, while later calls fill new ones
+    @Test
+    public void testMergeShards() throws InterruptedException {
+        final TIntList candidatePairs = getCandidatePairs();
+        final int half = candidatePairs.size() / 4 * 2;
+        final ConcurrentRelatedGeometries results = new ConcurrentRelatedGeometries(0);
+        verifyInParallel(results, candidatePairs.subList(0, half));
+        results.mergeShards();
+        verifyInParallel(results, candidatePairs.subList(half, candidatePairs.size()));
+        results.close();
+        assertSameResults(verifySequentially(candidatePairs), results);
+    }
+
+    // every shard inherits the verification options of the overall results
+    @Test
+    public void testRelationsOfInterest() throws InterruptedException {
+        final TIntList candidatePairs = getCandidatePairs();
+        final ConcurrentRelatedGeometries results = new ConcurrentRelatedGeometries(0);
+        results.setRelationsOfInterest(Relation.TOUCHES);
+        verifyInParallel(results, candidatePairs);
+        results.close();
+
+        final RelatedGeometries all = verifySequentially(candidatePairs);
+        assertEquals(all.getNoOfRelations(Relation.TOUCHES), results.getNoOfRelations(Relation.TOUCHES));
+        assertEquals(all.getNoOfRelations(Relation.TOUCHES), results.getInterlinkedPairs());
+        assertEquals(0, results.getNoOfRelations(Relation.INTERSECTS));
+    }
+}
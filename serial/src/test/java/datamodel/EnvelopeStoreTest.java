@@ -0,0 +1,76 @@
+package datamodel;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class EnvelopeStoreTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory();
+
+    private static GeometryProfile[] getProfiles(int size, Random random) {
+        final GeometryProfile[] profiles = new GeometryProfile[size];
+        for (int i = 0; i < size; i++) {
+            switch (random.nextInt(10)) {
+                case 0:
+                    profiles[i] = null;
+                    break;
+                case 1:
+                    profiles[i] = new GeometryProfile(FACTORY.createLineString());
+                    break;
+                default:
+                    final double x = random.nextInt(100);
+                    final double y = random.nextInt(100);
+                    // integer coordinates produce pairs that only touch
+                    profiles[i] = new GeometryProfile(FACTORY.toGeometry(new Envelope(x, x + random.nextInt(10),
+                            y, y + random.nextInt(10))));
+            }
+        }
+        return profiles;
+    }
+
+    private static Envelope getEnvelope(GeometryProfile profile) {
+        return profile == null ? new Envelope() : profile.getEnvelope();
+    }
+
+    @Test
+    public void testCoordinates() {
+        final GeometryProfile[] profiles = getProfiles(500, new Random(1));
+        final EnvelopeStore store = new EnvelopeStore(profiles);
+        assertEquals(profiles.length, store.size());
+        for (int i = 0; i < profiles.length; i++) {
+            final Envelope envelope = getEnvelope(profiles[i]);
+            if (envelope.isNull()) {
+                assertFalse(store.getMinX(i) <= store.getMaxX(i));
+                assertFalse(store.getMinY(i) <= store.getMaxY(i));
+            } else {
+                assertEquals(envelope.getMaxX(), store.getMaxX(i), 0);
+                assertEquals(envelope.getMaxY(), store.getMaxY(i), 0);
+                assertEquals(envelope.getMinX(), store.getMinX(i), 0);
+                assertEquals(envelope.getMinY(), store.getMinY(i), 0);
+            }
+        }
+    }
+
+    // empty and missing geometries intersect nothing, like the null Envelope of JTS
+    @Test
+    public void testIntersects() {
+        final Random random = new Random(2);
+        final GeometryProfile[] sources = getProfiles(300, random);
+        final GeometryProfile[] targets = getProfiles(300, random);
+        final EnvelopeStore sourceStore = new EnvelopeStore(sources);
+        final EnvelopeStore targetStore = new EnvelopeStore(targets);
+        for (int i = 0; i < sources.length; i++) {
+            for (int j = 0; j < targets.length; j++) {
+                final boolean expected = getEnvelope(sources[i]).intersects(getEnvelope(targets[j]));
+                assertEquals(i + ", " + j, expected, sourceStore.intersects(i, getEnvelope(targets[j])));
+                assertEquals(i + ", " + j, expected, sourceStore.intersects(i, targetStore, j));
+            }
+        }
+    }
+}
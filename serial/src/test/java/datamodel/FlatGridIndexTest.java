@@ -0,0 +1,128 @@
+package datamodel;
+
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FlatGridIndexTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory();
+    private static final double THETA = 0.5;
+
+    /**
+     * Asserts that every cell that is covered by a geometry contains exactly
+     * the ids of the geometries that cover it, in increasing order.
+     */
+    private static void assertCells(FlatGridIndex index, GeometryProfile[]... datasets) {
+        final List<GeometryProfile> profiles = new ArrayList<>();
+        for (GeometryProfile[] dataset : datasets) {
+            profiles.addAll(Arrays.asList(dataset));
+        }
+
+        int noOfEntries = 0;
+        for (int cell = 0; cell < index.getNoOfCells(); cell++) {
+            if (index.getCellSize(cell) == 0) {
+                continue;
+            }
+
+            final int lat = index.getCellLat(cell);
+            final int lon = index.getCellLon(cell);
+            assertEquals(cell, index.getCellIndex(lat, lon));
+
+            final TIntList expected = new TIntArrayList();
+            for (int id = 0; id < profiles.size(); id++) {
+                final Envelope envelope = profiles.get(id).getEnvelope();
+                if (!envelope.isNull() && index.getMinLat(envelope) <= lat && lat <= index.getMaxLat(envelope)
+                        && index.getMinLon(envelope) <= lon && lon <= index.getMaxLon(envelope)) {
+                    expected.add(id);
+                }
+            }
+
+            final TIntList actual = new TIntArrayList();
+            for (int position = index.getCellStart(cell); position < index.getCellEnd(cell); position++) {
+                actual.add(index.getGeometryId(position));
+            }
+            assertEquals("cell " + lat + ", " + lon, expected, actual);
+            noOfEntries += actual.size();
+        }
+
+        int expectedEntries = 0;
+        for (GeometryProfile profile : profiles) {
+            final Envelope envelope = profile.getEnvelope();
+            if (!envelope.isNull()) {
+                expectedEntries += (index.getMaxLat(envelope) - index.getMinLat(envelope) + 1)
+                        * (index.getMaxLon(envelope) - index.getMinLon(envelope) + 1);
+            }
+        }
+        assertEquals("cell entries", expectedEntries, noOfEntries);
+    }
+
+    private static GeometryProfile getEmptyProfile() {
+        return new GeometryProfile(FACTORY.createPolygon());
+    }
+
+    private static GeometryProfile[] getRectangles(int size, double originX, double originY, double extent, Random random) {
+        final GeometryProfile[] rectangles = new GeometryProfile[size];
+        for (int i = 0; i < size; i++) {
+            final double x = originX + random.nextDouble() * extent;
+            final double y = originY + random.nextDouble() * extent;
+            rectangles[i] = new GeometryProfile(FACTORY.toGeometry(new Envelope(x, x + random.nextDouble() * 2 * THETA,
+                    y, y + random.nextDouble() * 2 * THETA)));
+        }
+        return rectangles;
+    }
+
+    @Test
+    public void testDenseGrid() {
+        final Random random = new Random(5);
+        final GeometryProfile[] sources = getRectangles(500, -5, -5, 10, random);
+        final GeometryProfile[] targets = getRectangles(300, 0, 0, 10, random);
+        final FlatGridIndex index = new FlatGridIndex(THETA, THETA, sources, targets);
+        assertTrue(index.isDense());
+        assertCells(index, sources, targets);
+    }
+
+    // two clusters far apart leave most of the bounding box empty
+    @Test
+    public void testSparseGrid() {
+        final Random random = new Random(7);
+        final GeometryProfile[] sources = getRectangles(400, 0, 0, 5, random);
+        final GeometryProfile[] targets = getRectangles(400, 10000, 10000, 5, random);
+        final FlatGridIndex index = new FlatGridIndex(THETA, THETA, sources, targets);
+        assertFalse(index.isDense());
+        assertCells(index, sources, targets);
+        assertEquals(-1, index.getCellIndex(1000, 1000));
+    }
+
+    // empty geometries belong to no cell, but keep their ids
+    @Test
+    public void testEmptyGeometries() {
+        final Random random = new Random(9);
+        final GeometryProfile[] sources = getRectangles(100, 0, 0, 10, random);
+        sources[0] = getEmptyProfile();
+        sources[50] = getEmptyProfile();
+        final GeometryProfile[] targets = getRectangles(100, 0, 0, 10, random);
+        targets[99] = getEmptyProfile();
+        final FlatGridIndex index = new FlatGridIndex(THETA, THETA, sources, targets);
+        assertTrue(index.isDense());
+        assertCells(index, sources, targets);
+    }
+
+    @Test
+    public void testOnlyEmptyGeometries() {
+        final FlatGridIndex index = new FlatGridIndex(THETA, THETA, new GeometryProfile[]{getEmptyProfile(), getEmptyProfile()});
+        assertEquals(0, index.getNoOfCells());
+        assertEquals(-1, index.getCellIndex(0, 0));
+    }
+}
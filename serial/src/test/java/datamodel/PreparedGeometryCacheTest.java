@@ -0,0 +1,74 @@
+package datamodel;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PreparedGeometryCacheTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory();
+
+    // a rectangle has 5 points
+    private static Geometry getRectangle(int i) {
+        return FACTORY.toGeometry(new Envelope(i, i + 1, 0, 1));
+    }
+
+    @Test
+    public void testMinFrequency() {
+        final PreparedGeometryCache cache = new PreparedGeometryCache(1000, 3);
+        final Geometry geometry = getRectangle(0);
+        assertNull(cache.get(0, geometry));
+        assertNull(cache.get(0, geometry));
+        final PreparedGeometry prepared = cache.get(0, geometry);
+        assertNotNull(prepared);
+        assertSame(geometry, prepared.getGeometry());
+        assertSame(prepared, cache.get(0, geometry));
+        assertEquals(1, cache.getNoOfCachedGeometries());
+    }
+
+    @Test
+    public void testTooLargeGeometry() {
+        final PreparedGeometryCache cache = new PreparedGeometryCache(4, 1);
+        assertNull(cache.get(0, getRectangle(0)));
+        assertEquals(0, cache.getNoOfCachedGeometries());
+    }
+
+    // the least recently used geometries are evicted once the cached points exceed the maximum
+    @Test
+    public void testEviction() {
+        final PreparedGeometryCache cache = new PreparedGeometryCache(10, 1);
+        final PreparedGeometry first = cache.get(0, getRectangle(0));
+        final PreparedGeometry second = cache.get(1, getRectangle(1));
+        assertSame(first, cache.get(0, getRectangle(0)));
+        cache.get(2, getRectangle(2));
+        assertEquals(2, cache.getNoOfCachedGeometries());
+
+        // geometry 1 was the least recently used
+        assertSame(first, cache.get(0, getRectangle(0)));
+        assertNotSame(second, cache.get(1, getRectangle(1)));
+        assertEquals(2, cache.getNoOfCachedGeometries());
+    }
+
+    // aging the counts of the many geometries that are requested once keeps those of the frequent ones
+    @Test
+    public void testManyInfrequentGeometries() {
+        final PreparedGeometryCache cache = new PreparedGeometryCache(1000, 2);
+        final Geometry geometry = getRectangle(0);
+        for (int id = 1; id < 1 << 18; id++) {
+            assertNull(cache.get(id, geometry));
+            if (id % 1000 == 0) {
+                cache.get(0, geometry);
+            }
+        }
+        assertNotNull(cache.get(0, geometry));
+        assertEquals(1, cache.getNoOfCachedGeometries());
+    }
+}
@@ -0,0 +1,74 @@
+package datamodel;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+import utilities.BruteForceVerifier;
+import utilities.SyntheticDatasets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RasterFilterTest {
+
+    /**
+     * Asserts that, for every pair with intersecting envelopes, the filter
+     * rules out only relations that do not hold and confirms only relations
+     * that hold.
+     * @return the number of pairs whose candidate relations are all confirmed or ruled out
+     */
+    private static int assertFilter(int order, GeometryProfile[] sourceData, GeometryProfile[] targetData) {
+        final RasterFilter filter = new RasterFilter(order, sourceData);
+        int classifiedPairs = 0;
+        for (GeometryProfile target : targetData) {
+            final RasterApproximation targetApprox = filter.approximate(target.getGeometry());
+            for (int i = 0; i < sourceData.length; i++) {
+                if (!sourceData[i].getEnvelope().intersects(target.getEnvelope())) {
+                    continue;
+                }
+
+                final RasterApproximation sourceApprox = filter.getSourceApproximation(i);
+                final int relationMask = BruteForceVerifier.getRelationMask(sourceData[i].getGeometry(), target.getGeometry());
+                final int possibleRelations = filter.getPossibleRelations(sourceApprox, targetApprox);
+                final String pair = "order " + order + " : " + sourceData[i].getGeometry() + " - " + target.getGeometry();
+                assertEquals(pair + " : ruled out relations", relationMask, relationMask & possibleRelations);
+
+                final int trueRelations = filter.getTrueRelations(sourceData[i].getGeometry(), target.getGeometry(), sourceApprox, targetApprox);
+                assertEquals(pair + " : confirmed relations", trueRelations, relationMask & trueRelations);
+                if (possibleRelations == 0 || (possibleRelations & ~trueRelations) == 0) {
+                    classifiedPairs++;
+                }
+            }
+        }
+        return classifiedPairs;
+    }
+
+    @Test
+    public void testApproximations() {
+        final GeometryProfile[] sourceData = SyntheticDatasets.getReader(SyntheticDatasets.SOURCE).getGeometryProfiles();
+        final GeometryProfile[] targetData = SyntheticDatasets.getReader(SyntheticDatasets.TARGET).getGeometryProfiles();
+        assertFilter(1, sourceData, targetData);
+        assertFilter(4, sourceData, targetData);
+        // a fine grid classifies many pairs without relate()
+        assertTrue(0 < assertFilter(10, sourceData, targetData));
+    }
+
+    // the parts of the target geometries outside the extent of the sources are not rasterized
+    @Test
+    public void testTargetsBeyondSourceExtent() {
+        final String targetPath = SyntheticDatasets.write("largeTarget", 1500, 29, -5, -5, 20);
+        final GeometryProfile[] sourceData = SyntheticDatasets.getReader(SyntheticDatasets.SOURCE).getGeometryProfiles();
+        final GeometryProfile[] targetData = SyntheticDatasets.getReader(targetPath).getGeometryProfiles();
+        for (int order : new int[]{4, 10}) {
+            assertFilter(order, sourceData, targetData);
+        }
+    }
+
+    @Test
+    public void testEmptyGeometry() {
+        final GeometryProfile[] sourceData = SyntheticDatasets.getReader(SyntheticDatasets.SOURCE).getGeometryProfiles();
+        final RasterFilter filter = new RasterFilter(8, sourceData);
+        final RasterApproximation empty = filter.approximate(new GeometryFactory().createPolygon());
+        assertEquals(0, empty.getNoOfAllIntervals());
+        assertEquals(0, filter.getPossibleRelations(filter.getSourceApproximation(0), empty));
+    }
+}
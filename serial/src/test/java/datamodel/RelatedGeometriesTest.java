@@ -0,0 +1,86 @@
+package datamodel;
+
+import enums.Relation;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RelatedGeometriesTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory();
+
+    private static Geometry getRectangle(double minX, double minY, double maxX, double maxY) {
+        return FACTORY.toGeometry(new Envelope(minX, maxX, minY, maxY));
+    }
+
+    // a pair with many relations is stored once, with all of them in its mask
+    @Test
+    public void testEqualPair() {
+        final RelatedGeometries results = new RelatedGeometries(0);
+        assertTrue(results.verifyRelations(3, 5, getRectangle(0, 0, 1, 1), getRectangle(0, 0, 1, 1)));
+
+        assertEquals(1, results.getInterlinkedPairs());
+        assertEquals(3, results.getLinkedSource(0));
+        assertEquals(5, results.getLinkedTarget(0));
+        assertEquals(Relation.getMask(Relation.CONTAINS, Relation.COVERED_BY, Relation.COVERS, Relation.EQUALS,
+                Relation.INTERSECTS, Relation.WITHIN), results.getRelationMask(0));
+        for (Relation relation : Relation.values()) {
+            assertEquals(relation.toString(), relation.isIn(results.getRelationMask(0)) ? 1 : 0, results.getNoOfRelations(relation));
+        }
+    }
+
+    @Test
+    public void testUnrelatedPair() {
+        final RelatedGeometries results = new RelatedGeometries(0);
+        assertFalse(results.verifyRelations(0, 0, getRectangle(0, 0, 1, 1), getRectangle(2, 2, 3, 3)));
+        assertEquals(0, results.getInterlinkedPairs());
+        assertEquals(1, results.getVerifiedPairs());
+        for (Relation relation : Relation.values()) {
+            assertEquals(relation.toString(), 0, results.getNoOfRelations(relation));
+        }
+    }
+
+    @Test
+    public void testRelationMasks() {
+        final RelatedGeometries results = new RelatedGeometries(0);
+        results.verifyRelations(0, 0, getRectangle(0, 0, 1, 1), getRectangle(1, 0, 2, 1));
+        results.verifyRelations(1, 1, getRectangle(0, 0, 2, 2), getRectangle(1, 1, 3, 3));
+        results.verifyRelations(2, 2, getRectangle(0, 0, 4, 4), getRectangle(1, 1, 2, 2));
+
+        assertEquals(3, results.getInterlinkedPairs());
+        assertEquals(Relation.getMask(Relation.INTERSECTS, Relation.TOUCHES), results.getRelationMask(0));
+        assertEquals(Relation.getMask(Relation.INTERSECTS, Relation.OVERLAPS), results.getRelationMask(1));
+        assertEquals(Relation.getMask(Relation.CONTAINS, Relation.COVERS, Relation.INTERSECTS), results.getRelationMask(2));
+        assertEquals(3, results.getNoOfIntersects());
+        assertEquals(1, results.getNoOfTouches());
+        assertEquals(1, results.getNoOfOverlaps());
+        assertEquals(1, results.getNoOfContains());
+        assertEquals(1, results.getNoOfCovers());
+        assertEquals(0, results.getNoOfWithin());
+    }
+
+    // the merged pairs are appended after the current ones, with their masks
+    @Test
+    public void testMerge() {
+        final RelatedGeometries results = new RelatedGeometries(0);
+        results.verifyRelations(0, 0, getRectangle(0, 0, 1, 1), getRectangle(1, 0, 2, 1));
+        final RelatedGeometries partialResults = new RelatedGeometries(0);
+        partialResults.verifyRelations(1, 2, getRectangle(0, 0, 4, 4), getRectangle(1, 1, 2, 2));
+        partialResults.verifyRelations(2, 3, getRectangle(0, 0, 1, 1), getRectangle(2, 2, 3, 3));
+
+        results.merge(partialResults);
+        assertEquals(2, results.getInterlinkedPairs());
+        assertEquals(3, results.getVerifiedPairs());
+        assertEquals(1, results.getLinkedSource(1));
+        assertEquals(2, results.getLinkedTarget(1));
+        assertEquals(Relation.getMask(Relation.CONTAINS, Relation.COVERS, Relation.INTERSECTS), results.getRelationMask(1));
+        assertEquals(2, results.getNoOfIntersects());
+        assertEquals(1, results.getNoOfContains());
+        assertEquals(1, results.getNoOfTouches());
+    }
+}
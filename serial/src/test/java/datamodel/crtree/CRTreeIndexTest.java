@@ -0,0 +1,74 @@
+package datamodel.crtree;
+
+import datamodel.EnvelopeStore;
+import datamodel.GeometryProfile;
+import gnu.trove.list.TIntList;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertTrue;
+
+public class CRTreeIndexTest {
+
+    /**
+     * @return random rectangles in [-50, 50] x [0, 100], mixed with empty
+     * geometries and with points on the line y = 7
+     */
+    private static GeometryProfile[] getData(int size, Random random) {
+        final GeometryFactory factory = new GeometryFactory();
+        final GeometryProfile[] data = new GeometryProfile[size];
+        for (int i = 0; i < size; i++) {
+            final double x = random.nextDouble() * 100 - 50;
+            final double y = random.nextDouble() * 100;
+            if (i % 97 == 5) {
+                data[i] = new GeometryProfile(factory.createPolygon());
+            } else if (i % 31 == 3) {
+                data[i] = new GeometryProfile(factory.createPoint(new Coordinate(x, 7)));
+            } else {
+                data[i] = new GeometryProfile(factory.toGeometry(new Envelope(x, x + random.nextDouble() * 3, y, y + random.nextDouble())));
+            }
+        }
+        return data;
+    }
+
+    // the quantized MBRs may return false positives, but never miss an intersecting envelope
+    @Test
+    public void testRangeSearch() {
+        final Random random = new Random(8);
+        for (int size : new int[]{0, 1, 2, 17, 1000, 20000}) {
+            final EnvelopeStore envelopes = new EnvelopeStore(getData(size, random));
+            for (int fanout : new int[]{2, 16, 64}) {
+                for (int qLevel : new int[]{2, 256}) {
+                    final CRTreeIndex index = new CRTreeIndex(fanout, qLevel);
+                    index.bulkLoad(envelopes);
+                    for (int i = 0; i < 300; i++) {
+                        final double x = random.nextDouble() * 100 - 50;
+                        final double y = random.nextDouble() * 100;
+                        // every tenth query is a point on the line of the point geometries
+                        final Envelope query = i % 10 == 0 ? new Envelope(x, x, 7, 7)
+                                : new Envelope(x, x + random.nextDouble() * 5, y, y + random.nextDouble() * 5);
+
+                        final Set<Integer> expected = new TreeSet<>();
+                        for (int id = 0; id < size; id++) {
+                            if (envelopes.intersects(id, query)) {
+                                expected.add(id);
+                            }
+                        }
+                        final Set<Integer> actual = new TreeSet<>();
+                        final TIntList candidates = index.rangeSearch(query);
+                        for (int j = 0; j < candidates.size(); j++) {
+                            assertTrue("duplicate candidate", actual.add(candidates.get(j)));
+                        }
+                        assertTrue(size + " envelopes, fanout " + fanout + ", qLevel " + qLevel, actual.containsAll(expected));
+                    }
+                }
+            }
+        }
+    }
+}
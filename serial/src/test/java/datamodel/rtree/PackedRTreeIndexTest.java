@@ -0,0 +1,87 @@
+package datamodel.rtree;
+
+import datamodel.EnvelopeStore;
+import datamodel.GeometryProfile;
+import enums.RTreePacking;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PackedRTreeIndexTest {
+
+    /**
+     * @return random rectangles in [-50, 50] x [0, 100], with an empty
+     * geometry every 97 ones
+     */
+    private static GeometryProfile[] getData(int size, Random random) {
+        final GeometryFactory factory = new GeometryFactory();
+        final GeometryProfile[] data = new GeometryProfile[size];
+        for (int i = 0; i < size; i++) {
+            final double x = random.nextDouble() * 100 - 50;
+            final double y = random.nextDouble() * 100;
+            data[i] = new GeometryProfile(i % 97 == 5 ? factory.createPolygon()
+                    : factory.toGeometry(new Envelope(x, x + random.nextDouble() * 3, y, y + random.nextDouble())));
+        }
+        return data;
+    }
+
+    @Test
+    public void testRangeSearch() {
+        final Random random = new Random(4);
+        for (int size : new int[]{0, 1, 2, 17, 1000, 20000}) {
+            final EnvelopeStore envelopes = new EnvelopeStore(getData(size, random));
+            for (RTreePacking packing : RTreePacking.values()) {
+                for (int fanout : new int[]{2, 16, 64}) {
+                    final PackedRTreeIndex index = new PackedRTreeIndex(envelopes, fanout, packing);
+                    for (int i = 0; i < 200; i++) {
+                        final double x = random.nextDouble() * 100 - 50;
+                        final double y = random.nextDouble() * 100;
+                        final Envelope query = new Envelope(x, x + random.nextDouble() * 5, y, y + random.nextDouble() * 5);
+
+                        final Set<Integer> expected = new TreeSet<>();
+                        for (int id = 0; id < size; id++) {
+                            if (envelopes.intersects(id, query)) {
+                                expected.add(id);
+                            }
+                        }
+                        final Set<Integer> actual = new TreeSet<>();
+                        final TIntList candidates = index.rangeSearch(query);
+                        for (int j = 0; j < candidates.size(); j++) {
+                            assertTrue("duplicate candidate", actual.add(candidates.get(j)));
+                        }
+                        assertEquals(size + " envelopes, " + packing + " packing, fanout " + fanout, expected, actual);
+                    }
+                }
+            }
+        }
+    }
+
+    // every non-empty envelope is packed exactly once
+    @Test
+    public void testPackingOrder() {
+        final GeometryProfile[] data = getData(5000, new Random(6));
+        final EnvelopeStore envelopes = new EnvelopeStore(data);
+        final TIntList expected = new TIntArrayList();
+        for (int id = 0; id < data.length; id++) {
+            if (!data[id].getGeometry().isEmpty()) {
+                expected.add(id);
+            }
+        }
+        for (RTreePacking packing : RTreePacking.values()) {
+            final int[] order = PackedRTreeIndex.getPackingOrder(envelopes, 16, packing);
+            Arrays.sort(order);
+            assertArrayEquals(packing.toString(), expected.toArray(), order);
+        }
+    }
+}
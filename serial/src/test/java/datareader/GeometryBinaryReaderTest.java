@@ -0,0 +1,90 @@
+package datareader;
+
+import batch.AbstractBatchAlgorithm;
+import batch.partitionbased.PBSM;
+import batch.tilebased.GIAnt;
+import batch.treebased.RTree;
+import enums.PlaneSweepStructure;
+import exception.InputFileException;
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.ReaderAssertions;
+import utilities.SyntheticDatasets;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.assertEquals;
+
+public class GeometryBinaryReaderTest {
+
+    private static final String SOURCE = SyntheticDatasets.SOURCE;
+    private static final String TARGET = SyntheticDatasets.TARGET;
+    private static final String BINARY_SOURCE = storeBinaryDataset(SOURCE);
+    private static final String BINARY_TARGET = storeBinaryDataset(TARGET);
+
+    private static String storeBinaryDataset(String inputPath) {
+        try {
+            final File file = File.createTempFile("dataset", ".bin");
+            file.deleteOnExit();
+            SyntheticDatasets.getReader(inputPath).storeBinaryDataset(file.getPath());
+            return file.getAbsolutePath();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String writeInput(String content) throws IOException {
+        final File file = File.createTempFile("input", ".tsv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file.getAbsolutePath();
+    }
+
+    @Test
+    public void testGeometryProfiles() {
+        ReaderAssertions.assertSameProfiles("source", SyntheticDatasets.getReader(SOURCE).getGeometryProfiles(),
+                new GeometryBinaryReader(BINARY_SOURCE).getGeometryProfiles());
+        ReaderAssertions.assertSameStream("target", SyntheticDatasets.getReader(TARGET), new GeometryBinaryReader(BINARY_TARGET));
+    }
+
+    // the invalid records are not stored, but they keep their positions in the stream
+    @Test
+    public void testInvalidRecords() throws IOException {
+        final String inputPath = writeInput("invalid\tx\nPOINT (1 2)\ty\nPOINT (\tv\nPOINT (3 4)\tz\n");
+        final String binaryPath = storeBinaryDataset(inputPath);
+        ReaderAssertions.assertSameStream("invalid records", SyntheticDatasets.getReader(inputPath), new GeometryBinaryReader(binaryPath));
+        assertEquals(2, new GeometryBinaryReader(binaryPath).getGeometryProfiles().length);
+    }
+
+    @Test
+    public void testEmptyDataset() throws IOException {
+        final String binaryPath = storeBinaryDataset(writeInput("invalid\tx\n"));
+        assertEquals(0, new GeometryBinaryReader(binaryPath).getGeometryProfiles().length);
+    }
+
+    @Test(expected = InputFileException.class)
+    public void testInvalidFile() {
+        new GeometryBinaryReader(SOURCE);
+    }
+
+    @Test
+    public void testAlgorithms() {
+        final List<BiFunction<AbstractReader, AbstractReader, AbstractBatchAlgorithm>> algorithms = Arrays.asList(
+                (source, target) -> new GIAnt(0, source, target),
+                (source, target) -> new PBSM(0, source, target, PlaneSweepStructure.LIST_SWEEP),
+                (source, target) -> new RTree(0, source, target));
+        for (BiFunction<AbstractReader, AbstractReader, AbstractBatchAlgorithm> constructor : algorithms) {
+            final AbstractBatchAlgorithm algorithm = constructor.apply(new GeometryBinaryReader(BINARY_SOURCE),
+                    new GeometryBinaryReader(BINARY_TARGET));
+            algorithm.setNoOfThreads(3);
+            algorithm.applyProcessing();
+            BruteForceVerifier.assertResults("binary " + algorithm.getMethodName(), SOURCE, TARGET, algorithm.getResults());
+        }
+    }
+}
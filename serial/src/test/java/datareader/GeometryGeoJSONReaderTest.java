@@ -0,0 +1,151 @@
+package datareader;
+
+import batch.tilebased.GIAnt;
+import datamodel.GeometryProfile;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Polygon;
+import utilities.BruteForceVerifier;
+import utilities.ReaderAssertions;
+import utilities.SyntheticDatasets;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class GeometryGeoJSONReaderTest {
+
+    private static final String POINT = "{\"type\":\"Point\",\"coordinates\":[1.5,-2e1]}";
+    private static final String LINE = "{ \"type\" : \"LineString\", \"coordinates\" : [ [0, 0], [1, 1] ] }";
+    private static final String POLYGON = "{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[2,0],[2,2],[0,0]]]}";
+    private static final String[] FEATURES = {
+            getFeature(POINT, "{\"name\": \"a \\\"}]\\\\\", \"n\": null, \"b\": true, \"x\": [1, {\"y\": -3.5}], \"features\": [1]}"),
+            getFeature(LINE, "{}"),
+            getFeature("{\"type\":\"Circle\",\"coordinates\":[]}", "null"),
+            getFeature(POLYGON, "{\"z\":1}")};
+    // the unsupported geometry is returned as null, without counting it
+    private static final List<String> EXPECTED = Arrays.asList("POINT (1.5 -20)", "LINESTRING (0 0, 1 1)", "null",
+            "POLYGON ((0 0, 2 0, 2 2, 0 0))", "size=3");
+
+    private static String getFeature(String geometry, String properties) {
+        return "{\"type\": \"Feature\", \"properties\": " + properties + ", \"geometry\": " + geometry + "}";
+    }
+
+    private static String writeInput(String content) throws IOException {
+        final File file = File.createTempFile("input", ".geojson");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file.getAbsolutePath();
+    }
+
+    /**
+     * @return the WKT of every streamed geometry, or "null" for the skipped
+     * features, followed by the size of the reader
+     */
+    private static List<String> read(String content) throws IOException {
+        final GeometryGeoJSONReader reader = new GeometryGeoJSONReader(writeInput(content));
+        final List<String> geometries = new ArrayList<>();
+        while (reader.hasNext()) {
+            final GeometryProfile profile = reader.next();
+            geometries.add(profile == null ? "null" : profile.getGeometry().toText());
+        }
+        reader.close();
+        geometries.add("size=" + reader.getSize());
+        return geometries;
+    }
+
+    private static String getCoordinates(Coordinate[] coordinates) {
+        final StringBuilder builder = new StringBuilder("[");
+        for (Coordinate coordinate : coordinates) {
+            builder.append(builder.length() == 1 ? "" : ", ").append('[').append(coordinate.x).append(", ").append(coordinate.y).append(']');
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * @return the GeoJSON of the given geometry, for the points, line strings
+     * and polygons of the synthetic datasets
+     */
+    private static String getGeometry(Geometry geometry) {
+        switch (geometry.getGeometryType()) {
+            case "Point":
+                final Coordinate point = geometry.getCoordinate();
+                return "{\"type\": \"Point\", \"coordinates\": [" + point.x + ", " + point.y + "]}";
+            case "LineString":
+                return "{\"type\": \"LineString\", \"coordinates\": " + getCoordinates(geometry.getCoordinates()) + "}";
+            case "Polygon":
+                final Polygon polygon = (Polygon) geometry;
+                final StringBuilder rings = new StringBuilder(getCoordinates(polygon.getExteriorRing().getCoordinates()));
+                for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                    rings.append(", ").append(getCoordinates(polygon.getInteriorRingN(i).getCoordinates()));
+                }
+                return "{\"type\": \"Polygon\", \"coordinates\": [" + rings + "]}";
+            default:
+                throw new IllegalArgumentException("Unexpected geometry type " + geometry.getGeometryType());
+        }
+    }
+
+    /**
+     * @return the path to a FeatureCollection with the geometries of the given
+     * TSV file
+     */
+    private static String writeFeatureCollection(String inputPath) throws IOException {
+        final StringBuilder builder = new StringBuilder("{\"type\": \"FeatureCollection\", \"features\": [\n");
+        final AbstractReader reader = SyntheticDatasets.getReader(inputPath);
+        int counter = 0;
+        while (reader.hasNext()) {
+            final GeometryProfile profile = reader.next();
+            if (profile != null) {
+                builder.append(counter++ == 0 ? "" : ",\n").append(getFeature(getGeometry(profile.getGeometry()),
+                        "{\"id\": \"id" + counter + "\"}"));
+            }
+        }
+        reader.close();
+        return writeInput(builder.append("\n]}\n").toString());
+    }
+
+    @Test
+    public void testFormats() throws IOException {
+        final String featureCollection = "{\"type\": \"FeatureCollection\", \"crs\": {\"type\": \"name\", \"properties\": {\"name\": \"x\"}}, "
+                + "\"features\": [\n" + String.join(",\n", FEATURES) + "\n], \"bbox\": [0, 0, 1, 1], \"z\": null}\n";
+        assertEquals("feature collection", EXPECTED, read(featureCollection));
+        assertEquals("newline-delimited", EXPECTED, read(String.join("\n", FEATURES) + "\n"));
+        assertEquals("GeoJSONSeq", EXPECTED, read("\u001e" + String.join("\n\u001e", FEATURES) + "\n"));
+        assertEquals("array", EXPECTED, read("[" + String.join(",", FEATURES) + "]"));
+        assertEquals("concatenated", EXPECTED, read(String.join("", FEATURES)));
+    }
+
+    @Test
+    public void testEmptyInput() throws IOException {
+        assertEquals(Collections.singletonList("size=0"), read("{\"type\":\"FeatureCollection\",\"features\":[]}"));
+        assertEquals(Collections.singletonList("size=0"), read(""));
+    }
+
+    // a truncated document stops at the last complete feature
+    @Test
+    public void testTruncatedInput() throws IOException {
+        assertEquals(Arrays.asList("POINT (1.5 -20)", "size=1"),
+                read("{\"features\":[" + FEATURES[0] + "," + FEATURES[1].substring(0, 30)));
+    }
+
+    @Test
+    public void testSyntheticDatasets() throws IOException {
+        final String sourcePath = writeFeatureCollection(SyntheticDatasets.SOURCE);
+        final String targetPath = writeFeatureCollection(SyntheticDatasets.TARGET);
+        ReaderAssertions.assertSameProfiles("source", SyntheticDatasets.getReader(SyntheticDatasets.SOURCE).getGeometryProfiles(),
+                new GeometryGeoJSONReader(sourcePath).getGeometryProfiles());
+
+        // the targets are streamed by GIAnt
+        final GIAnt giant = new GIAnt(0, new GeometryGeoJSONReader(sourcePath), new GeometryGeoJSONReader(targetPath));
+        giant.applyProcessing();
+        BruteForceVerifier.assertResults("GIAnt over GeoJSON", SyntheticDatasets.SOURCE, SyntheticDatasets.TARGET, giant.getResults());
+    }
+}
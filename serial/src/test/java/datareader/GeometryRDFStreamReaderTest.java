@@ -0,0 +1,175 @@
+package datareader;
+
+import batch.tilebased.GIAnt;
+import datamodel.GeometryProfile;
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.ReaderAssertions;
+import utilities.SyntheticDatasets;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GeometryRDFStreamReaderTest {
+
+    private static final String AS_WKT = "<" + GeometryRDFStreamReader.AS_WKT + ">";
+    private static final String GEOMETRY = "http://example.org/geometry";
+    private static final String WKT_LITERAL = "^^<http://www.opengis.net/ont/geosparql#wktLiteral>";
+
+    // larger than three chunks of the parallel reader
+    private static final int MIN_FILE_SIZE = 3 << 22;
+
+    private static File createTempFile(String extension) throws IOException {
+        final File file = File.createTempFile("rdf", extension);
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static String writeLargeFile(int noOfEntities) throws IOException {
+        return writeLargeFile(noOfEntities, -1);
+    }
+
+    /**
+     * @return the path to an N-Triples file with labels, blank nodes and a
+     * geometry per entity, some of which are invalid, with a CRS or with an
+     * additional, untyped line string, and a malformed line before the given
+     * entity, if any
+     */
+    private static String writeLargeFile(int noOfEntities, int malformedEntity) throws IOException {
+        final File file = createTempFile(".nt");
+        final Random random = new Random(3);
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            for (int i = 0; i < noOfEntities; i++) {
+                final String subject = "<http://example.org/e" + i + ">";
+                if (i == malformedEntity) {
+                    writer.write("<http://x/a> this is not rdf\n");
+                }
+                writer.write(subject + " <http://www.w3.org/2000/01/rdf-schema#label> \"entity " + i + " with a long label\" .\n");
+                writer.write("_:b" + (i % 50) + " <http://example.org/p> " + subject + " .\n");
+                final int type = random.nextInt(50);
+                final String wkt = type == 0 ? "POLYGON ((1 2," : (type == 1 ? "<http://www.opengis.net/def/crs/EPSG/0/4326> " : "")
+                        + "POINT (" + random.nextDouble() + " " + i + ")";
+                writer.write(subject + " " + AS_WKT + " \"" + wkt + "\"" + WKT_LITERAL + " .\n");
+                if (type == 2) {
+                    writer.write(subject + " <" + GEOMETRY + "> \"LINESTRING (0 0, 1 " + i + ")\" .\n");
+                }
+            }
+        }
+        return file.getAbsolutePath();
+    }
+
+    /**
+     * @return the path to an N-Triples file with the geometries of the given
+     * TSV file, in the same order
+     */
+    private static String writeNTriples(String inputPath) throws IOException {
+        final File file = createTempFile(".nt");
+        final AbstractReader reader = SyntheticDatasets.getReader(inputPath);
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            for (int i = 0; reader.hasNext(); i++) {
+                final GeometryProfile profile = reader.next();
+                if (profile != null) {
+                    writer.write("<http://example.org/e" + i + "> " + AS_WKT + " \"" + profile.getGeometry().toText() + "\"" + WKT_LITERAL + " .\n");
+                }
+            }
+        }
+        reader.close();
+        return file.getAbsolutePath();
+    }
+
+    /**
+     * @return the WKT of every streamed geometry, or "null" for the invalid
+     * ones, followed by the size of the reader
+     */
+    private static List<String> read(AbstractReader reader) {
+        final List<String> geometries = new ArrayList<>();
+        while (reader.hasNext()) {
+            final GeometryProfile profile = reader.next();
+            geometries.add(profile == null ? "null" : profile.getGeometry().toText());
+        }
+        reader.close();
+        geometries.add("size=" + reader.getSize());
+        return geometries;
+    }
+
+    @Test
+    public void testSyntheticDatasets() throws IOException {
+        final String sourcePath = writeNTriples(SyntheticDatasets.SOURCE);
+        final String targetPath = writeNTriples(SyntheticDatasets.TARGET);
+        ReaderAssertions.assertSameStream("stream", SyntheticDatasets.getReader(SyntheticDatasets.TARGET),
+                new GeometryRDFStreamReader(targetPath, new HashSet<>()));
+        ReaderAssertions.assertSameStream("parallel", SyntheticDatasets.getReader(SyntheticDatasets.TARGET),
+                new ParallelGeometryNTriplesReader(targetPath, new HashSet<>(), 4));
+
+        final GIAnt giant = new GIAnt(0, new ParallelGeometryNTriplesReader(sourcePath, new HashSet<>()),
+                new GeometryRDFStreamReader(targetPath, new HashSet<>()));
+        giant.applyProcessing();
+        BruteForceVerifier.assertResults("GIAnt over N-Triples", SyntheticDatasets.SOURCE, SyntheticDatasets.TARGET, giant.getResults());
+    }
+
+    // the parallel reader returns the geometries in the order of the file
+    @Test
+    public void testParallelReader() throws IOException {
+        final String path = writeLargeFile(60000);
+        assertTrue(MIN_FILE_SIZE < new File(path).length());
+        final List<String> geometries = read(new GeometryRDFStreamReader(path, new HashSet<>()));
+        assertEquals(60001, geometries.size());
+        assertTrue(geometries.contains("null"));
+        for (int noOfThreads : new int[]{1, 3, 8}) {
+            assertEquals(noOfThreads + " threads", geometries, read(new ParallelGeometryNTriplesReader(path, new HashSet<>(), noOfThreads)));
+        }
+        assertEquals(geometries.size() - 1, new GeometryRDFStreamReader(path, new HashSet<>()).getGeometryProfiles().length
+                + Collections.frequency(geometries, "null"));
+
+        final Set<String> geometryPredicates = new HashSet<>(Arrays.asList(GeometryRDFStreamReader.AS_WKT, GEOMETRY));
+        final List<String> allGeometries = read(new GeometryRDFStreamReader(path, geometryPredicates));
+        assertTrue(geometries.size() < allGeometries.size());
+        assertEquals("two predicates", allGeometries, read(new ParallelGeometryNTriplesReader(path, geometryPredicates, 4)));
+    }
+
+    @Test
+    public void testTurtle() throws IOException {
+        final File file = createTempFile(".ttl");
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("@prefix geo: <http://www.opengis.net/ont/geosparql#> .\n"
+                    + "<http://x/a> geo:asWKT \"POINT (1 2)\"^^geo:wktLiteral ; <http://x/b> \"c\" .\n");
+        }
+        assertEquals(Arrays.asList("POINT (1 2)", "size=1"), read(new GeometryRDFStreamReader(file.getPath(), new HashSet<>())));
+    }
+
+    // the readers stop at malformed input instead of blocking
+    @Test(timeout = 60000)
+    public void testMalformedInput() throws IOException {
+        final String path = writeLargeFile(10);
+        try (Writer writer = new FileWriter(path, true)) {
+            writer.write("<http://x/a> this is not rdf\n");
+        }
+        assertEquals(11, read(new GeometryRDFStreamReader(path, new HashSet<>())).size());
+        assertEquals(11, read(new ParallelGeometryNTriplesReader(path, new HashSet<>(), 2)).size());
+    }
+
+    // the parallel reader drops the chunks after a malformed one, like the stream reader
+    @Test(timeout = 60000)
+    public void testMalformedChunk() throws IOException {
+        final String path = writeLargeFile(60000, 30000);
+        final List<String> geometries = read(new GeometryRDFStreamReader(path, new HashSet<>()));
+        assertTrue(geometries.size() < 30002);
+        assertTrue(20000 < geometries.size());
+        for (int noOfThreads : new int[]{1, 3, 8}) {
+            assertEquals(noOfThreads + " threads", geometries, read(new ParallelGeometryNTriplesReader(path, new HashSet<>(), noOfThreads)));
+        }
+    }
+}
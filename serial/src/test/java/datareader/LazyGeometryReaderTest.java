@@ -0,0 +1,112 @@
+package datareader;
+
+import batch.AbstractBatchAlgorithm;
+import batch.partitionbased.PBSM;
+import batch.planesweep.PlaneSweep;
+import batch.tilebased.GIAnt;
+import batch.tilebased.RADON;
+import batch.treebased.RTree;
+import datamodel.DecodedGeometryCache;
+import datamodel.GeometryProfile;
+import datamodel.LazyGeometryProfile;
+import enums.PlaneSweepStructure;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import utilities.BruteForceVerifier;
+import utilities.ReaderAssertions;
+import utilities.SyntheticDatasets;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LazyGeometryReaderTest {
+
+    private static final String SOURCE = SyntheticDatasets.SOURCE;
+    private static final String TARGET = SyntheticDatasets.TARGET;
+
+    private static final List<BiFunction<AbstractReader, AbstractReader, AbstractBatchAlgorithm>> ALGORITHMS = Arrays.asList(
+            (source, target) -> new GIAnt(0, source, target),
+            (source, target) -> new RADON(0, source, target),
+            (source, target) -> new PBSM(0, source, target, PlaneSweepStructure.LIST_SWEEP),
+            (source, target) -> new RTree(0, source, target),
+            (source, target) -> new PlaneSweep(0, source, target, PlaneSweepStructure.LIST_SWEEP));
+
+    private static void assertAlgorithms(String readers, BiFunction<AbstractReader, AbstractReader, AbstractBatchAlgorithm> constructor,
+                                         AbstractReader sourceReader, AbstractReader targetReader, int noOfThreads) {
+        final AbstractBatchAlgorithm algorithm = constructor.apply(sourceReader, targetReader);
+        algorithm.setNoOfThreads(noOfThreads);
+        algorithm.applyProcessing();
+        BruteForceVerifier.assertResults(readers + " " + algorithm.getMethodName() + " with " + noOfThreads + " threads",
+                SOURCE, TARGET, algorithm.getResults());
+    }
+
+    @Test
+    public void testGeometryProfiles() {
+        final GeometryProfile[] profiles = new LazyGeometryReader(SyntheticDatasets.getReader(SOURCE), 500).getGeometryProfiles();
+        assertTrue(profiles[0] instanceof LazyGeometryProfile);
+        ReaderAssertions.assertSameProfiles("source", SyntheticDatasets.getReader(SOURCE).getGeometryProfiles(), profiles);
+        ReaderAssertions.assertSameStream("target", SyntheticDatasets.getReader(TARGET),
+                new LazyGeometryReader(SyntheticDatasets.getReader(TARGET)));
+    }
+
+    @Test
+    public void testLazyReaders() throws IOException {
+        final File sourceFile = File.createTempFile("source", ".bin");
+        sourceFile.deleteOnExit();
+        SyntheticDatasets.getReader(SOURCE).storeBinaryDataset(sourceFile.getPath());
+        final File targetFile = File.createTempFile("target", ".bin");
+        targetFile.deleteOnExit();
+        SyntheticDatasets.getReader(TARGET).storeBinaryDataset(targetFile.getPath());
+
+        for (BiFunction<AbstractReader, AbstractReader, AbstractBatchAlgorithm> constructor : ALGORITHMS) {
+            assertAlgorithms("lazy", constructor, new LazyGeometryReader(SyntheticDatasets.getReader(SOURCE)),
+                    new LazyGeometryReader(SyntheticDatasets.getReader(TARGET), 500), 4);
+            // a small cache that keeps evicting the decoded geometries
+            assertAlgorithms("lazy binary", constructor, new GeometryBinaryReader(sourceFile.getPath(), 2000),
+                    new GeometryBinaryReader(targetFile.getPath(), 0), 1);
+            assertAlgorithms("lazy binary", constructor, new GeometryBinaryReader(sourceFile.getPath(), 1 << 20),
+                    new GeometryBinaryReader(targetFile.getPath()), 3);
+        }
+    }
+
+    @Test
+    public void testDecodedGeometryCache() {
+        final GeometryFactory factory = new GeometryFactory();
+        final DecodedGeometryCache cache = new DecodedGeometryCache(10);
+        final LazyGeometryProfile first = new LazyGeometryProfile(factory.toGeometry(new Envelope(0, 1, 0, 1)), cache);
+        final LazyGeometryProfile second = new LazyGeometryProfile(factory.toGeometry(new Envelope(1, 2, 0, 1)), cache);
+        final LazyGeometryProfile third = new LazyGeometryProfile(factory.toGeometry(new Envelope(2, 3, 0, 1)), cache);
+
+        assertSame(first.getGeometry(), first.getGeometry());
+        second.getGeometry();
+        assertEquals(2, cache.getNoOfCachedGeometries());
+        third.getGeometry();
+        // the points of the cached rectangles do not exceed the maximum
+        assertEquals(2, cache.getNoOfCachedGeometries());
+    }
+
+    // the decoded geometries are not serialized, as the cache is transient
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        final GeometryProfile[] profiles = new LazyGeometryReader(SyntheticDatasets.getReader(SOURCE), 500).getGeometryProfiles();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(profiles);
+        }
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            ReaderAssertions.assertSameProfiles("deserialized", profiles, (GeometryProfile[]) input.readObject());
+        }
+    }
+}
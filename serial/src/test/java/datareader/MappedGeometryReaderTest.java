@@ -0,0 +1,114 @@
+package datareader;
+
+import batch.AbstractBatchAlgorithm;
+import batch.partitionbased.PBSM;
+import batch.planesweep.PlaneSweep;
+import batch.tilebased.GIAnt;
+import batch.tilebased.RADON;
+import batch.treebased.RTree;
+import datamodel.GeometryProfile;
+import datamodel.MappedGeometryProfile;
+import enums.PlaneSweepStructure;
+import exception.InputFileException;
+import org.junit.Test;
+import utilities.BruteForceVerifier;
+import utilities.ReaderAssertions;
+import utilities.SyntheticDatasets;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MappedGeometryReaderTest {
+
+    private static final String SOURCE = SyntheticDatasets.SOURCE;
+    private static final String TARGET = SyntheticDatasets.TARGET;
+    private static final String MAPPED_SOURCE = getMappedPath("source");
+    private static final String MAPPED_TARGET = getMappedPath("target");
+
+    static {
+        new MappedGeometryReader(SyntheticDatasets.getReader(SOURCE), MAPPED_SOURCE);
+        new MappedGeometryReader(SyntheticDatasets.getReader(TARGET), MAPPED_TARGET);
+    }
+
+    private static String getMappedPath(String name) {
+        try {
+            final File file = File.createTempFile(name, ".bin");
+            file.deleteOnExit();
+            return file.getAbsolutePath();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Test
+    public void testGeometryProfiles() {
+        ReaderAssertions.assertSameProfiles("source", SyntheticDatasets.getReader(SOURCE).getGeometryProfiles(),
+                new MappedGeometryReader(MAPPED_SOURCE).getGeometryProfiles());
+        ReaderAssertions.assertSameStream("target", SyntheticDatasets.getReader(TARGET), new MappedGeometryReader(MAPPED_TARGET));
+    }
+
+    // the records that cannot be parsed are streamed as nulls, so that the ids of the targets remain the same
+    @Test
+    public void testSkippedRecords() throws IOException {
+        final File input = File.createTempFile("invalid", ".tsv");
+        input.deleteOnExit();
+        Files.write(input.toPath(), "bad\tx\nPOINT (1 2)\ty\nLINESTRING (0 0,\tw\nPOINT (3 4)\tz\n".getBytes(StandardCharsets.UTF_8));
+        final String mappedPath = getMappedPath("invalid");
+        new MappedGeometryReader(SyntheticDatasets.getReader(input.getPath()), mappedPath);
+
+        ReaderAssertions.assertSameStream("invalid", SyntheticDatasets.getReader(input.getPath()), new MappedGeometryReader(mappedPath));
+        assertEquals(2, new MappedGeometryReader(mappedPath).getGeometryProfiles().length);
+    }
+
+    @Test
+    public void testAlgorithms() {
+        final List<BiFunction<AbstractReader, AbstractReader, AbstractBatchAlgorithm>> algorithms = Arrays.asList(
+                (source, target) -> new GIAnt(0, source, target),
+                (source, target) -> new RADON(0, source, target),
+                (source, target) -> new RTree(0, source, target),
+                (source, target) -> new PBSM(0, source, target, PlaneSweepStructure.LIST_SWEEP),
+                (source, target) -> new PlaneSweep(0, source, target, PlaneSweepStructure.LIST_SWEEP));
+        for (BiFunction<AbstractReader, AbstractReader, AbstractBatchAlgorithm> constructor : algorithms) {
+            for (int noOfThreads : new int[]{1, 3}) {
+                final AbstractBatchAlgorithm algorithm = constructor.apply(new MappedGeometryReader(MAPPED_SOURCE),
+                        new MappedGeometryReader(MAPPED_TARGET));
+                algorithm.setNoOfThreads(noOfThreads);
+                algorithm.applyProcessing();
+                BruteForceVerifier.assertResults("mapped " + algorithm.getMethodName() + " with " + noOfThreads + " threads",
+                        SOURCE, TARGET, algorithm.getResults());
+            }
+        }
+    }
+
+    @Test(expected = InputFileException.class)
+    public void testInvalidFile() {
+        new MappedGeometryReader(SOURCE);
+    }
+
+    // the profiles are serialized as regular ones, independent of the mapped file
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        final GeometryProfile[] profiles = new MappedGeometryReader(MAPPED_SOURCE).getGeometryProfiles();
+        assertTrue(profiles[0] instanceof MappedGeometryProfile);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(profiles);
+        }
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            ReaderAssertions.assertSameProfiles("deserialized", profiles, (GeometryProfile[]) input.readObject());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package datareader;
+
+import org.junit.Test;
+import utilities.ReaderAssertions;
+import utilities.SyntheticDatasets;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+public class ParallelGeometryCSVReaderTest {
+
+    // larger than three chunks of the parallel reader
+    private static final int MIN_FILE_SIZE = 3 << 22;
+
+    /**
+     * @return the path to a CSV file with points and quoted attributes, mixed
+     * with invalid, incomplete and empty lines
+     */
+    private static String writeLargeFile(boolean attributeNamesInFirstRow, String lineSeparator) throws IOException {
+        final File file = File.createTempFile("large", ".csv");
+        file.deleteOnExit();
+        final Random random = new Random(5);
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            if (attributeNamesInFirstRow) {
+                writer.write("name,wkt,\"description\"" + lineSeparator);
+            }
+            for (int i = 0; i < 250000; i++) {
+                switch (random.nextInt(100)) {
+                    case 0:
+                        writer.write("invalid,POLYGON ((1 2," + lineSeparator);
+                        break;
+                    case 1:
+                        writer.write(lineSeparator);
+                        break;
+                    case 2:
+                        writer.write("incomplete,x" + lineSeparator);
+                        break;
+                    default:
+                        writer.write(String.format(Locale.US, "n%d,\"POINT (%f %f)\",\"quoted, with separator\"%s",
+                                i, random.nextDouble(), random.nextDouble(), lineSeparator));
+                }
+            }
+        }
+        assertTrue(MIN_FILE_SIZE < file.length());
+        return file.getAbsolutePath();
+    }
+
+    // the geometries are returned in the order of the file, with a null for every invalid record
+    @Test
+    public void testLargeFiles() throws IOException {
+        for (boolean attributeNamesInFirstRow : new boolean[]{true, false}) {
+            final String lineSeparator = attributeNamesInFirstRow ? "\r\n" : "\n";
+            final String path = writeLargeFile(attributeNamesInFirstRow, lineSeparator);
+            for (int noOfThreads : new int[]{1, 3, 8}) {
+                ReaderAssertions.assertSameStream(noOfThreads + " threads",
+                        new GeometryCSVReader(attributeNamesInFirstRow, ',', 1, new int[]{}, path),
+                        new ParallelGeometryCSVReader(attributeNamesInFirstRow, ',', 1, new int[]{}, path, noOfThreads));
+            }
+        }
+    }
+
+    // a file smaller than a single chunk
+    @Test
+    public void testSmallFile() {
+        ReaderAssertions.assertSameStream("synthetic target", SyntheticDatasets.getReader(SyntheticDatasets.TARGET),
+                new ParallelGeometryCSVReader(false, '\t', 0, new int[]{1}, SyntheticDatasets.TARGET, 4));
+        ReaderAssertions.assertSameProfiles("synthetic source", SyntheticDatasets.getReader(SyntheticDatasets.SOURCE).getGeometryProfiles(),
+                new ParallelGeometryCSVReader(false, '\t', 0, new int[]{1}, SyntheticDatasets.SOURCE).getGeometryProfiles());
+    }
+}
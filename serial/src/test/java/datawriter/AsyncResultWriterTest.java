@@ -0,0 +1,181 @@
+package datawriter;
+
+import batch.tilebased.GIAnt;
+import enums.Relation;
+import enums.ResultFormat;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.junit.Test;
+import utilities.SyntheticDatasets;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncResultWriterTest {
+
+    private static final String GEOSPARQL = "http://www.opengis.net/ont/geosparql#";
+    private static final String SOURCE_NAMESPACE = "http://example.org/source/";
+    private static final String TARGET_NAMESPACE = "http://example.org/target/";
+
+    private static File createTempFile(String suffix) throws IOException {
+        final File file = File.createTempFile("results", suffix);
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static List<String> getExpectedLines(int[][] pairs, ResultFormat format) {
+        final List<String> lines = new ArrayList<>();
+        for (int[] pair : pairs) {
+            for (Relation relation : Relation.values()) {
+                if (!relation.isIn(pair[2])) {
+                    continue;
+                }
+
+                if (format == ResultFormat.TSV) {
+                    lines.add(pair[0] + "\t" + pair[1] + "\t" + relation.name());
+                } else {
+                    lines.add("<" + SOURCE_NAMESPACE + pair[0] + "> <" + GEOSPARQL + getPredicateName(relation) + "> <"
+                            + TARGET_NAMESPACE + pair[1] + "> .");
+                }
+            }
+        }
+        return lines;
+    }
+
+    // e.g., sfCoveredBy for COVERED_BY
+    private static String getPredicateName(Relation relation) {
+        final StringBuilder name = new StringBuilder("sf");
+        for (String token : relation.name().split("_")) {
+            name.append(token.charAt(0)).append(token.substring(1).toLowerCase());
+        }
+        return name.toString();
+    }
+
+    private static int[][] getRandomPairs(int noOfPairs) {
+        final Random random = new Random(5);
+        final int[][] pairs = new int[noOfPairs][];
+        for (int i = 0; i < noOfPairs; i++) {
+            pairs[i] = new int[]{i, random.nextInt(1000), 1 + random.nextInt(Relation.getAllMask())};
+        }
+        return pairs;
+    }
+
+    private static InputStream open(File file, boolean compressed) throws IOException {
+        final InputStream input = new FileInputStream(file);
+        return compressed ? new GZIPInputStream(input) : input;
+    }
+
+    @Test
+    public void testFormats() throws IOException {
+        final int[][] pairs = getRandomPairs(100000);
+        for (boolean compress : new boolean[]{false, true}) {
+            for (ResultFormat format : ResultFormat.values()) {
+                final File file = createTempFile(".out");
+                final AsyncResultWriter writer = new AsyncResultWriter(file.getPath(), format, compress, SOURCE_NAMESPACE, TARGET_NAMESPACE);
+                for (int[] pair : pairs) {
+                    writer.writePair(pair[0], pair[1], pair[2]);
+                }
+                writer.close();
+
+                if (format == ResultFormat.BINARY) {
+                    try (DataInputStream input = new DataInputStream(new BufferedInputStream(open(file, compress)))) {
+                        assertEquals(AsyncResultWriter.BINARY_MAGIC_NUMBER, input.readInt());
+                        assertEquals(AsyncResultWriter.BINARY_VERSION, input.readInt());
+                        for (int[] pair : pairs) {
+                            assertEquals(pair[0], input.readInt());
+                            assertEquals(pair[1], input.readInt());
+                            assertEquals(pair[2], input.readShort());
+                        }
+                        assertEquals(-1, input.read());
+                    }
+                    continue;
+                }
+
+                final List<String> lines = new ArrayList<>();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(file, compress), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lines.add(line);
+                    }
+                }
+                assertEquals(format + " compressed " + compress, getExpectedLines(pairs, format), lines);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentWriters() throws IOException, InterruptedException {
+        final File file = createTempFile(".tsv");
+        final AsyncResultWriter writer = new AsyncResultWriter(file.getPath(), ResultFormat.TSV, false);
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int sourceId = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50000; i++) {
+                    writer.writePair(sourceId, i, Relation.INTERSECTS.getMask());
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.close();
+
+        assertEquals(200000, Files.readAllLines(file.toPath()).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNTriplesWithoutNamespaces() throws IOException {
+        new AsyncResultWriter(createTempFile(".nt").getPath(), ResultFormat.N_TRIPLES, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNTriplesWithRelativeNamespaces() throws IOException {
+        new AsyncResultWriter(createTempFile(".nt").getPath(), ResultFormat.N_TRIPLES, false, "source/", "target/");
+    }
+
+    // the export constructors of the algorithms derive the entity URIs from the input files
+    @Test
+    public void testAlgorithmExport() throws IOException {
+        final File file = createTempFile(".nt");
+        final GIAnt giant = new GIAnt(0, SyntheticDatasets.getReader(SyntheticDatasets.SOURCE),
+                SyntheticDatasets.getReader(SyntheticDatasets.TARGET), file.getPath());
+        giant.applyProcessing();
+
+        final Model model = RDFDataMgr.loadModel(file.getPath(), Lang.NTRIPLES);
+        int detectedLinks = 0;
+        for (Relation relation : Relation.values()) {
+            detectedLinks += giant.getResults().getNoOfRelations(relation);
+        }
+        assertEquals(detectedLinks, model.size());
+
+        final String sourceNamespace = new File(SyntheticDatasets.SOURCE).toURI() + "#";
+        final String targetNamespace = new File(SyntheticDatasets.TARGET).toURI() + "#";
+        final StmtIterator iterator = model.listStatements();
+        while (iterator.hasNext()) {
+            final Statement statement = iterator.next();
+            assertTrue(statement.getSubject().getURI().startsWith(sourceNamespace));
+            assertTrue(statement.getPredicate().getURI().startsWith(GEOSPARQL));
+            assertTrue(statement.getObject().asResource().getURI().startsWith(targetNamespace));
+        }
+    }
+}
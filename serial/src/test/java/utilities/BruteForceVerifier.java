@@ -0,0 +1,104 @@
+package utilities;
+
+import datamodel.GeometryProfile;
+import datamodel.RelatedGeometries;
+import enums.Relation;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.IntersectionMatrix;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The ground truth of a pair of datasets: every source geometry is compared
+ * with every target one and the pairs with intersecting envelopes are
+ * verified with relate(), independently of RelatedGeometries. The results of
+ * every dataset pair are computed once and shared by all tests.
+ */
+public class BruteForceVerifier {
+
+    private static final Map<String, BruteForceVerifier> RESULTS = new HashMap<>();
+
+    private int verifiedPairs;
+    private final int[] relationCounts;
+    // the relations of every related pair
+    private final TIntList relationMasks;
+
+    private BruteForceVerifier(GeometryProfile[] sourceData, GeometryProfile[] targetData) {
+        relationCounts = new int[Relation.values().length];
+        relationMasks = new TIntArrayList();
+        for (GeometryProfile source : sourceData) {
+            final Envelope sourceEnvelope = source.getEnvelope();
+            for (GeometryProfile target : targetData) {
+                if (!sourceEnvelope.intersects(target.getEnvelope())) {
+                    continue;
+                }
+
+                verifiedPairs++;
+                final int relationMask = getRelationMask(source.getGeometry(), target.getGeometry());
+                if (relationMask != 0) {
+                    relationMasks.add(relationMask);
+                }
+                for (Relation relation : Relation.values()) {
+                    if (relation.isIn(relationMask)) {
+                        relationCounts[relation.ordinal()]++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Asserts that the given results contain the related pairs of the given
+     * datasets, restricted to the given relations, if any.
+     */
+    public static void assertResults(String message, String sourcePath, String targetPath,
+                                     RelatedGeometries results, Relation... relationsOfInterest) {
+        final BruteForceVerifier expected = getResults(sourcePath, targetPath);
+        final int mask = relationsOfInterest.length == 0 ? Relation.getAllMask() : Relation.getMask(relationsOfInterest);
+        for (Relation relation : Relation.values()) {
+            assertEquals(message + " : " + relation, relation.isIn(mask) ? expected.relationCounts[relation.ordinal()] : 0,
+                    results.getNoOfRelations(relation));
+        }
+        int interlinkedPairs = 0;
+        for (int i = 0; i < expected.relationMasks.size(); i++) {
+            if ((expected.relationMasks.get(i) & mask) != 0) {
+                interlinkedPairs++;
+            }
+        }
+        assertEquals(message + " : interlinked pairs", interlinkedPairs, results.getInterlinkedPairs());
+        assertEquals(message + " : verified pairs", expected.verifiedPairs, results.getVerifiedPairs());
+    }
+
+    private static synchronized BruteForceVerifier getResults(String sourcePath, String targetPath) {
+        return RESULTS.computeIfAbsent(sourcePath + "\t" + targetPath, key -> new BruteForceVerifier(
+                SyntheticDatasets.getReader(sourcePath).getGeometryProfiles(),
+                SyntheticDatasets.getReader(targetPath).getGeometryProfiles()));
+    }
+
+    /**
+     * @return the mask of the relations that hold between the given geometries, according to relate()
+     */
+    public static int getRelationMask(Geometry sourceGeom, Geometry targetGeom) {
+        final int dimension1 = sourceGeom.getDimension();
+        final int dimension2 = targetGeom.getDimension();
+        final IntersectionMatrix im = sourceGeom.relate(targetGeom);
+
+        int relationMask = 0;
+        relationMask |= im.isContains() ? Relation.CONTAINS.getMask() : 0;
+        relationMask |= im.isCoveredBy() ? Relation.COVERED_BY.getMask() : 0;
+        relationMask |= im.isCovers() ? Relation.COVERS.getMask() : 0;
+        relationMask |= im.isCrosses(dimension1, dimension2) ? Relation.CROSSES.getMask() : 0;
+        relationMask |= im.isEquals(dimension1, dimension2) ? Relation.EQUALS.getMask() : 0;
+        relationMask |= im.isIntersects() ? Relation.INTERSECTS.getMask() : 0;
+        relationMask |= im.isOverlaps(dimension1, dimension2) ? Relation.OVERLAPS.getMask() : 0;
+        relationMask |= im.isTouches(dimension1, dimension2) ? Relation.TOUCHES.getMask() : 0;
+        relationMask |= im.isWithin() ? Relation.WITHIN.getMask() : 0;
+        return relationMask;
+    }
+}
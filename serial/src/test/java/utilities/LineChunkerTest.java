@@ -0,0 +1,49 @@
+package utilities;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LineChunkerTest {
+
+    @Test
+    public void testChunkBoundaries() throws IOException {
+        final Random random = new Random(13);
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            for (int j = random.nextInt(80); 0 < j; j--) {
+                content.append((char) ('a' + random.nextInt(26)));
+            }
+            content.append(random.nextBoolean() ? "\n" : "\r\n");
+        }
+        final File file = File.createTempFile("lines", ".txt");
+        file.deleteOnExit();
+        final byte[] bytes = content.toString().getBytes(StandardCharsets.US_ASCII);
+        Files.write(file.toPath(), bytes);
+
+        for (int chunkSize : new int[]{1, 100, 4096, 1 << 20}) {
+            final long[] boundaries = LineChunker.getChunkBoundaries(file.getPath(), 0, chunkSize);
+            assertEquals(0, boundaries[0]);
+            assertEquals(bytes.length, boundaries[boundaries.length - 1]);
+            final StringBuilder chunks = new StringBuilder();
+            for (int i = 0; i < boundaries.length - 1; i++) {
+                // every chunk starts at the beginning of a line and is at least as large as the chunk size, except for the last one
+                if (0 < i) {
+                    assertEquals('\n', bytes[(int) boundaries[i] - 1]);
+                }
+                if (i < boundaries.length - 2) {
+                    assertTrue(chunkSize <= boundaries[i + 1] - boundaries[i]);
+                }
+                chunks.append(new String(LineChunker.readChunk(file.getPath(), boundaries[i], boundaries[i + 1]), StandardCharsets.US_ASCII));
+            }
+            assertEquals(content.toString(), chunks.toString());
+        }
+    }
+}
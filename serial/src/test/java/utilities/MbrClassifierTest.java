@@ -0,0 +1,91 @@
+package utilities;
+
+import datamodel.RelatedGeometries;
+import enums.Relation;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class MbrClassifierTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory();
+
+    /**
+     * Asserts that the classifier rules out only relations that do not hold
+     * and implies only relations that hold.
+     */
+    private static void assertClassification(Geometry sourceGeom, Geometry targetGeom) {
+        final int relationMask = BruteForceVerifier.getRelationMask(sourceGeom, targetGeom);
+        final int possibleRelations = MbrClassifier.getPossibleRelations(sourceGeom, targetGeom);
+        final String pair = sourceGeom + " - " + targetGeom;
+        assertEquals(pair + " : ruled out relations", relationMask, relationMask & possibleRelations);
+        if (Relation.INTERSECTS.isIn(relationMask)) {
+            final int impliedRelations = MbrClassifier.getImpliedRelations(sourceGeom, targetGeom);
+            assertEquals(pair + " : implied relations", impliedRelations, relationMask & impliedRelations);
+        }
+    }
+
+    /**
+     * @return a point, a line string or a polygon with integer coordinates
+     * on a small grid, so that many pairs touch or share their envelopes
+     */
+    private static Geometry getGeometry(Random random) {
+        final int x = random.nextInt(6);
+        final int y = random.nextInt(6);
+        final int width = random.nextInt(4);
+        final int height = random.nextInt(4);
+        switch (random.nextInt(4)) {
+            case 0:
+                return FACTORY.createPoint(new Coordinate(x, y));
+            case 1:
+                return FACTORY.createLineString(new Coordinate[]{new Coordinate(x, y), new Coordinate(x + width + 1, y + height)});
+            case 2:
+                return FACTORY.createPolygon(new Coordinate[]{new Coordinate(x, y), new Coordinate(x + width + 1, y),
+                        new Coordinate(x, y + height + 1), new Coordinate(x, y)});
+            default:
+                return FACTORY.toGeometry(new Envelope(x, x + width + 1, y, y + height + 1));
+        }
+    }
+
+    @Test
+    public void testRandomPairs() {
+        final Random random = new Random(17);
+        for (int i = 0; i < 20000; i++) {
+            assertClassification(getGeometry(random), getGeometry(random));
+        }
+    }
+
+    @Test
+    public void testDisjointEnvelopes() {
+        assertEquals(0, MbrClassifier.getPossibleRelations(FACTORY.toGeometry(new Envelope(0, 1, 0, 1)),
+                FACTORY.toGeometry(new Envelope(2, 3, 0, 1))));
+    }
+
+    // polygons whose envelopes meet only at their borders can only touch
+    @Test
+    public void testBorderContact() {
+        final Geometry square = FACTORY.toGeometry(new Envelope(0, 1, 0, 1));
+        final Geometry neighbour = FACTORY.toGeometry(new Envelope(1, 2, 0, 1));
+        assertEquals(Relation.getMask(Relation.INTERSECTS, Relation.TOUCHES), MbrClassifier.getPossibleRelations(square, neighbour));
+        assertEquals(Relation.TOUCHES.getMask(), MbrClassifier.getImpliedRelations(square, neighbour));
+        assertClassification(square, neighbour);
+    }
+
+    // a pair that is ruled out by its envelopes is counted as verified and pruned, but not related
+    @Test
+    public void testPrunedPairs() {
+        final RelatedGeometries results = new RelatedGeometries(0);
+        results.setRelationsOfInterest(Relation.CONTAINS);
+        results.verifyRelations(0, 0, FACTORY.toGeometry(new Envelope(0, 1, 0, 1)), FACTORY.toGeometry(new Envelope(0, 2, 0, 2)));
+        assertEquals(1, results.getVerifiedPairs());
+        assertEquals(1, results.getPrunedPairs());
+        assertEquals(0, results.getInterlinkedPairs());
+        assertEquals(0, results.getNoOfContains());
+    }
+}
@@ -0,0 +1,56 @@
+package utilities;
+
+import datamodel.GeometryProfile;
+import datareader.AbstractReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Assertions that compare the geometries of two readers, e.g., of a new
+ * reader with those of the sequential CSV one over the same dataset.
+ */
+public class ReaderAssertions {
+
+    private static void assertSameGeometry(String message, GeometryProfile expected, GeometryProfile actual) {
+        if (expected == null) {
+            assertNull(message, actual);
+            return;
+        }
+
+        assertNotNull(message, actual);
+        assertTrue(message + " : " + expected.getGeometry() + " <> " + actual.getGeometry(),
+                expected.getGeometry().equalsExact(actual.getGeometry()));
+        assertEquals(message, expected.getEnvelope(), actual.getEnvelope());
+    }
+
+    /**
+     * Asserts that the given profiles hold the same geometries in the same order.
+     */
+    public static void assertSameProfiles(String message, GeometryProfile[] expected, GeometryProfile[] actual) {
+        assertEquals(message + " : size", expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertSameGeometry(message + " : profile " + i, expected[i], actual[i]);
+        }
+    }
+
+    /**
+     * Asserts that the given readers stream the same geometries in the same
+     * order, with a null for every record that is skipped, and consumes them.
+     */
+    public static void assertSameStream(String message, AbstractReader expected, AbstractReader actual) {
+        int position = 0;
+        while (expected.hasNext()) {
+            assertTrue(message + " : missing record " + position, actual.hasNext());
+            assertSameGeometry(message + " : record " + position, expected.next(), actual.next());
+            position++;
+        }
+        assertFalse(message + " : extra record " + position, actual.hasNext());
+        expected.close();
+        actual.close();
+        assertEquals(message + " : size", expected.getSize(), actual.getSize());
+    }
+}
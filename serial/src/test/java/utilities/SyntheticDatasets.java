@@ -0,0 +1,82 @@
+package utilities;
+
+import datareader.AbstractReader;
+import datareader.GeometryCSVReader;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Random source and target datasets, stored in temporary TSV files with the
+ * WKT of every geometry followed by its id. They mix rectangles, triangles
+ * and line strings with squares snapped to a coarse grid, which produce pairs
+ * that touch, are equal or contain each other.
+ */
+public class SyntheticDatasets {
+
+    public static final String SOURCE = write("source", 1500, 11, 0, 0, 10);
+    public static final String TARGET = write("target", 2500, 23, 0, 0, 10);
+
+    // projected coordinates, in meters, over an area of 100 km x 100 km
+    public static final String PROJECTED_SOURCE = write("projectedSource", 3000, 31, 500000, 4000000, 100000);
+    public static final String PROJECTED_TARGET = write("projectedTarget", 3000, 37, 500000, 4000000, 100000);
+
+    public static AbstractReader getReader(String path) {
+        return new GeometryCSVReader(false, '\t', 0, new int[]{1}, path);
+    }
+
+    private static String getRectangle(double minX, double minY, double width, double height) {
+        return String.format(Locale.US, "POLYGON ((%f %f, %f %f, %f %f, %f %f, %f %f))", minX, minY, minX + width, minY,
+                minX + width, minY + height, minX, minY + height, minX, minY);
+    }
+
+    /**
+     * @param extent the width and height of the area of the geometries, whose
+     * sides are up to 4% of it
+     * @return the path to the new dataset
+     */
+    public static String write(String name, int size, long seed, double originX, double originY, double extent) {
+        try {
+            final File file = File.createTempFile(name, ".tsv");
+            file.deleteOnExit();
+
+            final double cellSize = extent / 40;
+            final Random random = new Random(seed);
+            try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+                for (int i = 0; i < size; i++) {
+                    final double x = originX + random.nextDouble() * extent;
+                    final double y = originY + random.nextDouble() * extent;
+                    final double width = (random.nextDouble() * 0.04 + 0.001) * extent;
+                    final double height = (random.nextDouble() * 0.04 + 0.001) * extent;
+                    final String wkt;
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            wkt = getRectangle(x, y, width, height);
+                            break;
+                        case 1:
+                            wkt = String.format(Locale.US, "POLYGON ((%f %f, %f %f, %f %f, %f %f))", x, y,
+                                    x + width, y + height / 3, x + width / 2, y + height, x, y);
+                            break;
+                        case 2:
+                            wkt = String.format(Locale.US, "LINESTRING (%f %f, %f %f, %f %f)", x, y,
+                                    x + width, y + height, x + width, y);
+                            break;
+                        default:
+                            final double side = cellSize * (1 + random.nextInt(2));
+                            wkt = getRectangle(originX + Math.floor((x - originX) / cellSize) * cellSize,
+                                    originY + Math.floor((y - originY) / cellSize) * cellSize, side, side);
+                    }
+                    writer.println(wkt + "\tid" + i);
+                }
+            }
+            return file.getAbsolutePath();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}